@@ -0,0 +1,34 @@
+package com.sutreya.ecommerce.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Runs JMH with JSON results by default, written to {@code target/jmh-results/<commit>.json}
+ * where the commit comes from {@code GIT_COMMIT}. Any JMH command line option still applies.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        String commit = System.getenv().getOrDefault("GIT_COMMIT", "local");
+        Path result = Path.of(commandLine.getResult().orElse("target/jmh-results/" + commit + ".json"));
+        Files.createDirectories(result.toAbsolutePath().getParent());
+
+        Options options = new OptionsBuilder()
+            .parent(commandLine)
+            .resultFormat(commandLine.getResultFormat().orElse(ResultFormatType.JSON))
+            .result(result.toString())
+            .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,89 @@
+package com.sutreya.ecommerce.benchmarks;
+
+import com.sutreya.ecommerce.benchmarks.support.BenchmarkApplication;
+import com.sutreya.ecommerce.benchmarks.support.BenchmarkDatabase;
+import com.sutreya.ecommerce.event.ProductChangedEvent;
+import com.sutreya.ecommerce.model.Product;
+import com.sutreya.ecommerce.repository.ProductRepository;
+import com.sutreya.ecommerce.service.BulkProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repricing a set of products: the entity-based loop BulkProductService used to run (load,
+ * mutate, saveAll in one transaction) against the chunked set-based SQL job.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BulkPriceUpdateBenchmark {
+
+    @Param({"1000"})
+    private int products;
+
+    private BenchmarkDatabase database;
+    private ConfigurableApplicationContext context;
+    private ProductRepository productRepository;
+    private BulkProductService bulkProductService;
+    private TransactionTemplate transactionTemplate;
+    private List<UUID> productIds;
+    private boolean increase;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = BenchmarkDatabase.start();
+        database.seedProducts(products * 2);
+        context = BenchmarkApplication.start(database);
+        productRepository = context.getBean(ProductRepository.class);
+        bulkProductService = context.getBean(BulkProductService.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        productIds = database.getJdbcTemplate()
+            .queryForList("SELECT id FROM products ORDER BY id LIMIT ?", UUID.class, products);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetPrices() {
+        database.getJdbcTemplate().update("UPDATE products SET price = 100");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        context.close();
+        database.close();
+    }
+
+    @Benchmark
+    public int legacyEntityUpdate() {
+        BigDecimal percentageChange = nextPercentage();
+        return transactionTemplate.execute(tx -> {
+            List<Product> loaded = productRepository.findAllById(productIds);
+            for (Product product : loaded) {
+                product.setPrice(product.getPrice()
+                    .multiply(BigDecimal.ONE.add(percentageChange.divide(BigDecimal.valueOf(100)))));
+            }
+            productRepository.saveAll(loaded);
+            context.publishEvent(ProductChangedEvent.of(productIds));
+            return loaded.size();
+        });
+    }
+
+    @Benchmark
+    public Map<String, Object> chunkedSqlUpdate() {
+        return bulkProductService.updatePrices(productIds, nextPercentage());
+    }
+
+    private BigDecimal nextPercentage() {
+        increase = !increase;
+        return BigDecimal.valueOf(increase ? 10 : -10);
+    }
+}
@@ -0,0 +1,97 @@
+package com.sutreya.ecommerce.benchmarks;
+
+import com.sutreya.ecommerce.benchmarks.support.BenchmarkApplication;
+import com.sutreya.ecommerce.benchmarks.support.BenchmarkDatabase;
+import com.sutreya.ecommerce.dto.CheckoutRequest;
+import com.sutreya.ecommerce.service.CartCache;
+import com.sutreya.ecommerce.service.CheckoutService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+/**
+ * {@value #CHECKOUTS} shoppers checking out at the same moment, each with a three-line cart
+ * drawn from 50 shared products, so reservations contend on the same counters and the stock
+ * decrements on the same rows. Reported as checkouts per second; any failed checkout fails the run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class CheckoutBenchmark {
+
+    private static final int CHECKOUTS = 500;
+    private static final int LINES_PER_CART = 3;
+
+    private BenchmarkDatabase database;
+    private ConfigurableApplicationContext context;
+    private CheckoutService checkoutService;
+    private CartCache cartCache;
+    private ExecutorService executor;
+    private List<UUID> userIds;
+    private List<UUID> productIds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = BenchmarkDatabase.start();
+        database.seedProducts(50);
+        userIds = database.seedUsers(CHECKOUTS);
+        productIds = database.getJdbcTemplate().queryForList("SELECT id FROM products", UUID.class);
+        context = BenchmarkApplication.start(database);
+        checkoutService = context.getBean(CheckoutService.class);
+        cartCache = context.getBean(CartCache.class);
+        executor = Executors.newFixedThreadPool(CHECKOUTS);
+    }
+
+    @Setup(Level.Invocation)
+    public void fillCarts() {
+        JdbcTemplate jdbcTemplate = database.getJdbcTemplate();
+        jdbcTemplate.update("UPDATE products SET inventory_quantity = 1000000");
+        List<Object[]> lines = new ArrayList<>(CHECKOUTS * LINES_PER_CART);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (UUID userId : userIds) {
+            int first = random.nextInt(productIds.size());
+            for (int line = 0; line < LINES_PER_CART; line++) {
+                lines.add(new Object[]{userId, productIds.get((first + line) % productIds.size()), 1 + random.nextInt(3)});
+            }
+            cartCache.evict(userId);
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO cart_items (user_id, product_id, quantity) VALUES (?, ?, ?)", lines);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+        context.close();
+        database.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHECKOUTS)
+    public int concurrentCheckouts() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Map<String, Object>>> orders = new ArrayList<>(CHECKOUTS);
+        for (UUID userId : userIds) {
+            CheckoutRequest request = new CheckoutRequest();
+            request.setUserId(userId);
+            request.setShippingAddress(Map.of("line1", "1 Market Street", "city", "Pune", "country", "IN"));
+            orders.add(executor.submit(() -> {
+                start.await();
+                return checkoutService.checkout(request);
+            }));
+        }
+        start.countDown();
+        for (Future<Map<String, Object>> order : orders) {
+            order.get();
+        }
+        return orders.size();
+    }
+}
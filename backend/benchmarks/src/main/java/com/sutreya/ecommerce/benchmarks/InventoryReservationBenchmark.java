@@ -0,0 +1,82 @@
+package com.sutreya.ecommerce.benchmarks;
+
+import com.sutreya.ecommerce.benchmarks.support.BenchmarkApplication;
+import com.sutreya.ecommerce.benchmarks.support.BenchmarkDatabase;
+import com.sutreya.ecommerce.service.InventoryReservationEngine;
+import org.openjdk.jmh.annotations.*;
+
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Many threads reserving and releasing the same SKU. With a stock of 4 most attempts are
+ * contended and rejected; tear-down fails the run if more units were ever held than existed
+ * or if stock does not return to its starting level.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class InventoryReservationBenchmark {
+
+    private static final Duration TTL = Duration.ofMinutes(5);
+
+    @Param({"4", "1000000"})
+    private int stock;
+
+    private BenchmarkDatabase database;
+    private ConfigurableApplicationContext context;
+    private InventoryReservationEngine engine;
+    private UUID productId;
+
+    private final AtomicInteger held = new AtomicInteger();
+    private final AtomicBoolean oversold = new AtomicBoolean();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = BenchmarkDatabase.start();
+        database.seedProducts(1);
+        productId = database.getJdbcTemplate().queryForObject("SELECT id FROM products", UUID.class);
+        database.getJdbcTemplate().update("UPDATE products SET inventory_quantity = ?", stock);
+        context = BenchmarkApplication.start(database);
+        engine = context.getBean(InventoryReservationEngine.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        try {
+            if (oversold.get()) {
+                throw new IllegalStateException("More units were reserved than in stock");
+            }
+            if (engine.available(productId) != stock) {
+                throw new IllegalStateException("Expected " + stock + " available, found " + engine.available(productId));
+            }
+        } finally {
+            context.close();
+            database.close();
+        }
+    }
+
+    @Benchmark
+    public boolean reserveAndRelease() {
+        Optional<InventoryReservationEngine.Reservation> reservation = engine.reserve(productId, 1, TTL);
+        if (reservation.isEmpty()) {
+            return false;
+        }
+        if (held.incrementAndGet() > stock) {
+            oversold.set(true);
+        }
+        held.decrementAndGet();
+        engine.release(reservation.get().id());
+        return true;
+    }
+}
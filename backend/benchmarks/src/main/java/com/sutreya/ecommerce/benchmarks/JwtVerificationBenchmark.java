@@ -0,0 +1,54 @@
+package com.sutreya.ecommerce.benchmarks;
+
+import com.sutreya.ecommerce.benchmarks.support.BenchmarkData;
+import com.sutreya.ecommerce.config.JwtVerifier;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request authentication cost. {@code parserPerRequest} is what JwtAuthenticationFilter did
+ * before JwtVerifier; the other two isolate parser reuse and the verified-token cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private String token;
+    private JwtVerifier uncachedVerifier;
+    private JwtVerifier cachedVerifier;
+
+    @Setup
+    public void setUp() {
+        token = BenchmarkData.accessToken("3f1c7a4e-5b7d-4a51-9f0e-2d3c4b5a6978");
+        uncachedVerifier = new JwtVerifier(BenchmarkData.JWT_SECRET, 0);
+        cachedVerifier = new JwtVerifier(BenchmarkData.JWT_SECRET, 10_000);
+        cachedVerifier.verify(token);
+    }
+
+    @Benchmark
+    public Claims parserPerRequest() {
+        return Jwts.parserBuilder()
+            .setSigningKey(BenchmarkData.JWT_SECRET.getBytes())
+            .build()
+            .parseClaimsJws(token)
+            .getBody();
+    }
+
+    @Benchmark
+    public Optional<JwtVerifier.VerifiedToken> sharedParser() {
+        return uncachedVerifier.verify(token);
+    }
+
+    @Benchmark
+    public Optional<JwtVerifier.VerifiedToken> cachedClaims() {
+        return cachedVerifier.verify(token);
+    }
+}
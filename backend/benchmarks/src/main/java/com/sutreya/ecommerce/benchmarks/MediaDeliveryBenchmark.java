@@ -0,0 +1,109 @@
+package com.sutreya.ecommerce.benchmarks;
+
+import com.sutreya.ecommerce.service.BlobStore;
+import com.sutreya.ecommerce.service.LocalBlobStore;
+import com.sutreya.ecommerce.service.MediaContentService;
+import com.sutreya.ecommerce.service.MediaContentService.MediaContent;
+import com.sutreya.ecommerce.service.MediaFormat;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Sending one stored blob over a loopback socket: a naive {@code InputStream} copy through a
+ * heap buffer against {@link MediaContentService#transfer} from disk, which uses
+ * {@code FileChannel.transferTo}, and against whatever path the service picks, which is the
+ * in-memory cache for thumbnail-sized blobs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MediaDeliveryBenchmark {
+
+    @Param({"16384", "8388608"})
+    private int size;
+
+    private Path root;
+    private ServerSocketChannel server;
+    private Thread drain;
+    private SocketChannel client;
+    private OutputStream clientStream;
+    private Path file;
+    private MediaContent cached;
+    private MediaContent onDisk;
+    private MediaContentService mediaContentService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        root = Files.createTempDirectory("media-bench");
+        BlobStore blobStore = new LocalBlobStore(root.toString());
+        byte[] content = new byte[size];
+        ThreadLocalRandom.current().nextBytes(content);
+        String key = blobStore.put(Channels.newChannel(new ByteArrayInputStream(content)),
+            MediaFormat.JPEG.getExtension()).key();
+        file = blobStore.localPath(key).orElseThrow();
+
+        mediaContentService = new MediaContentService(blobStore, 128 * 1024, 64L * 1024 * 1024);
+        cached = mediaContentService.find(key).orElseThrow();
+        onDisk = new MediaContent(key, MediaFormat.JPEG, size, null);
+
+        server = ServerSocketChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        drain = new Thread(() -> {
+            try (SocketChannel peer = server.accept()) {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+                while (peer.read(buffer) >= 0) {
+                    buffer.clear();
+                }
+            } catch (Exception e) {
+                // closed at teardown
+            }
+        }, "media-bench-drain");
+        drain.start();
+        client = SocketChannel.open(server.getLocalAddress());
+        clientStream = Channels.newOutputStream(client);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        client.close();
+        server.close();
+        drain.join();
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public long inputStreamCopy() throws Exception {
+        try (InputStream in = Files.newInputStream(file)) {
+            return in.transferTo(clientStream);
+        }
+    }
+
+    @Benchmark
+    public void transferFromDisk() throws Exception {
+        mediaContentService.transfer(onDisk, 0, size, client);
+    }
+
+    @Benchmark
+    public void serviceChoice() throws Exception {
+        mediaContentService.transfer(cached, 0, size, client);
+    }
+}
@@ -0,0 +1,90 @@
+package com.sutreya.ecommerce.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stripe.Stripe;
+import com.stripe.model.PaymentIntent;
+import com.stripe.net.RequestOptions;
+import com.stripe.param.PaymentIntentCreateParams;
+import com.sutreya.ecommerce.benchmarks.support.StripeStub;
+import com.sutreya.ecommerce.service.PaymentGateway;
+import com.sutreya.ecommerce.service.StripeService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Creating payment intents against a {@link StripeStub} that fails {@code failureRate} of the
+ * calls: the blocking stripe-java call the backend used to make, against
+ * {@link StripeService} with its retries and idempotency keys. Both are timed until the
+ * intent is known; the failed calls of each are printed at the end of the trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(16)
+@Fork(1)
+public class PaymentGatewayBenchmark {
+
+    @Param({"0", "0.2"})
+    private double failureRate;
+
+    @Param({"20"})
+    private int stripeLatencyMs;
+
+    private StripeStub stripe;
+    private StripeService gateway;
+    private RequestOptions sdkOptions;
+    private final LongAdder sdkFailed = new LongAdder();
+    private final LongAdder gatewayFailed = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        stripe = StripeStub.start(Duration.ofMillis(stripeLatencyMs), failureRate);
+        Stripe.overrideApiBase(stripe.getBaseUrl());
+        sdkOptions = RequestOptions.builder().setApiKey("sk_test_benchmark").build();
+        gateway = new StripeService(new ObjectMapper(), new StandardEnvironment(), "sk_test_benchmark",
+            stripe.getBaseUrl(), Duration.ofSeconds(2), Duration.ofSeconds(5), Duration.ofSeconds(15),
+            3, Duration.ofMillis(50), 64, 4);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        System.out.printf("%nFailed calls: blocking SDK %d, gateway %d; stub %s; gateway %s%n",
+            sdkFailed.sum(), gatewayFailed.sum(), stripe.getStats(), gateway.getStats());
+        gateway.shutdown();
+        stripe.close();
+    }
+
+    @Benchmark
+    public String blockingSdk() {
+        try {
+            return PaymentIntent.create(PaymentIntentCreateParams.builder()
+                .setAmount(4999L)
+                .setCurrency("usd")
+                .putMetadata("order_id", UUID.randomUUID().toString())
+                .build(), sdkOptions).getId();
+        } catch (Exception e) {
+            sdkFailed.increment();
+            return null;
+        }
+    }
+
+    @Benchmark
+    public String gateway() {
+        String orderId = UUID.randomUUID().toString();
+        try {
+            return gateway.createPaymentIntent(new PaymentGateway.IntentRequest(
+                "order-" + orderId + "-pi-4999usd", 4999L, "usd", Map.of("order_id", orderId))).join().id();
+        } catch (Exception e) {
+            gatewayFailed.increment();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.sutreya.ecommerce.benchmarks;
+
+import com.sutreya.ecommerce.benchmarks.support.BenchmarkApplication;
+import com.sutreya.ecommerce.benchmarks.support.BenchmarkData;
+import com.sutreya.ecommerce.benchmarks.support.BenchmarkDatabase;
+import com.sutreya.ecommerce.benchmarks.support.StripeStub;
+import com.sutreya.ecommerce.config.GuardedDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@value #CLIENTS} clients creating payment intents over HTTP against the running backend,
+ * with Stripe replaced by a {@link StripeStub} that takes {@code stripeLatencyMs} per call.
+ * Run once with platform request threads and once with virtual threads; JMH reports the
+ * latency percentiles, and the peak number of requests served at once and the failed
+ * requests are printed at the end of each trial. Virtual thread mode needs a Java 21 JVM,
+ * e.g. {@code -jvm <jdk21>/bin/java}. On small machines raise the Stripe latency until the
+ * load is not CPU bound, or both modes only measure the CPU.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(PaymentLoadBenchmark.CLIENTS)
+@Fork(1)
+public class PaymentLoadBenchmark {
+
+    static final int CLIENTS = 400;
+    // enough orders that two clients rarely pay the same one at once
+    private static final int ORDERS = 20_000;
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    @Param({"500"})
+    private int stripeLatencyMs;
+
+    private BenchmarkDatabase database;
+    private StripeStub stripe;
+    private ConfigurableApplicationContext context;
+    private HttpClient http;
+    private String baseUrl;
+    private String token;
+    private List<UUID> orderIds;
+    private final LongAdder failed = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = BenchmarkDatabase.start();
+        UUID userId = database.seedUsers(1).get(0);
+        orderIds = database.getJdbcTemplate().queryForList("""
+            INSERT INTO orders (user_id, order_number, subtotal, total_amount, shipping_address)
+            SELECT ?, 'BENCH-' || i, 40 + i % 100, 40 + i % 100, '{"city": "Pune"}'::jsonb
+            FROM generate_series(1, ?) AS i
+            RETURNING id
+            """, UUID.class, userId, ORDERS);
+        token = BenchmarkData.accessToken(userId.toString());
+
+        stripe = StripeStub.start(Duration.ofMillis(stripeLatencyMs));
+        context = BenchmarkApplication.start(database, Map.of(
+            "spring.threads.virtual.enabled", String.valueOf(threads.equals("virtual")),
+            "stripe.secret-key", "sk_test_benchmark",
+            "stripe.api-base", stripe.getBaseUrl(),
+            // this suite compares request threads, so the payment bulkhead must not shed load
+            "stripe.client.max-in-flight", "4096",
+            "stripe.client.attempt-timeout", Duration.ofMillis(stripeLatencyMs * 2L).toString(),
+            "stripe.client.call-timeout", Duration.ofMillis(stripeLatencyMs * 4L).toString(),
+            "logging.level.com.sutreya", "WARN"));
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        if (threads.equals("virtual") && !Threading.VIRTUAL.isActive(context.getEnvironment())) {
+            System.out.printf("%nVirtual threads need Java 21, this JVM is %s: running on platform threads%n",
+                Runtime.version());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown(BenchmarkParams params) throws Exception {
+        System.out.printf("%nPeak concurrent requests (%s threads): %d of %d clients, %d failed%n",
+            threads, stripe.getPeakInFlight(), params.getThreads(), failed.sum());
+        if (context.getBean(DataSource.class) instanceof GuardedDataSource guard) {
+            System.out.println("Connection guard: " + guard.getStats());
+        }
+        context.close();
+        stripe.close();
+        database.close();
+    }
+
+    @Benchmark
+    public int createPaymentIntent() throws Exception {
+        UUID orderId = orderIds.get(ThreadLocalRandom.current().nextInt(orderIds.size()));
+        HttpResponse<Void> response = http.send(
+            HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/orders/" + orderId + "/payment-intent"))
+                .header("Authorization", "Bearer " + token)
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build(),
+            HttpResponse.BodyHandlers.discarding());
+        // failures are counted rather than thrown, shedding load is part of what is measured
+        if (response.statusCode() != 200) {
+            failed.increment();
+        }
+        return response.statusCode();
+    }
+}
@@ -0,0 +1,52 @@
+package com.sutreya.ecommerce.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The BigDecimal arithmetic of a percentage repricing, per product. The legacy loop rebuilt the
+ * multiplier for every product; the bulk engine computes it once and leaves the rest to SQL.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PriceMathBenchmark {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    @Param({"1000"})
+    private int products;
+
+    private BigDecimal[] prices;
+    private final BigDecimal percentageChange = new BigDecimal("-12.5");
+
+    @Setup
+    public void setUp() {
+        prices = new BigDecimal[products];
+        for (int i = 0; i < products; i++) {
+            prices[i] = BigDecimal.valueOf(500 + i * 37L, 2);
+        }
+    }
+
+    @Benchmark
+    public void legacyPerProduct(Blackhole blackhole) {
+        for (BigDecimal price : prices) {
+            blackhole.consume(price.multiply(BigDecimal.ONE.add(percentageChange.divide(BigDecimal.valueOf(100)))));
+        }
+    }
+
+    @Benchmark
+    public void sharedMultiplier(Blackhole blackhole) {
+        BigDecimal multiplier = BigDecimal.ONE.add(percentageChange.divide(HUNDRED));
+        for (BigDecimal price : prices) {
+            blackhole.consume(price.multiply(multiplier).setScale(2, RoundingMode.HALF_EVEN));
+        }
+    }
+}
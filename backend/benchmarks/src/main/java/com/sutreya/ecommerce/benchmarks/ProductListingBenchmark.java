@@ -0,0 +1,89 @@
+package com.sutreya.ecommerce.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sutreya.ecommerce.benchmarks.support.BenchmarkApplication;
+import com.sutreya.ecommerce.benchmarks.support.BenchmarkDatabase;
+import com.sutreya.ecommerce.repository.ProductRepository;
+import com.sutreya.ecommerce.service.ProductMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One storefront listing page read from PostgreSQL and serialized: full Product entities
+ * mapped to ProductDTO against the narrow card projection. The serialized size of a page in
+ * each shape is printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductListingBenchmark {
+
+    private static final int PRODUCTS = 10_000;
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"160", "2000"})
+    private int descriptionLength;
+
+    private BenchmarkDatabase database;
+    private ConfigurableApplicationContext context;
+    private ProductRepository productRepository;
+    private ObjectMapper objectMapper;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = BenchmarkDatabase.start();
+        database.seedProducts(PRODUCTS);
+        database.getJdbcTemplate().update(
+            "UPDATE products SET description = rpad(description, ?, ' Thrown on the wheel and fired twice.'), "
+                + "images = (SELECT jsonb_agg('https://cdn.example.com/products/' || id || '/' || n || '.jpg') "
+                + "FROM generate_series(1, 5) AS n)",
+            descriptionLength);
+        context = BenchmarkApplication.start(database);
+        productRepository = context.getBean(ProductRepository.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+
+        System.out.printf("%nBytes per page of %d: entity %d, card %d%n", PAGE_SIZE,
+            entityPage(pageable(0)).length, cardPage(pageable(0)).length);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        context.close();
+        database.close();
+    }
+
+    @Benchmark
+    public byte[] entityListing() throws Exception {
+        return entityPage(randomPage());
+    }
+
+    @Benchmark
+    public byte[] cardListing() throws Exception {
+        return cardPage(randomPage());
+    }
+
+    private byte[] entityPage(Pageable pageable) throws Exception {
+        return objectMapper.writeValueAsBytes(productRepository.findByIsActiveTrue(pageable).map(ProductMapper::toDTO));
+    }
+
+    private byte[] cardPage(Pageable pageable) throws Exception {
+        return objectMapper.writeValueAsBytes(productRepository.findCardsByIsActiveTrue(pageable));
+    }
+
+    private static Pageable randomPage() {
+        return pageable(ThreadLocalRandom.current().nextInt(PRODUCTS / PAGE_SIZE));
+    }
+
+    private static Pageable pageable(int page) {
+        return PageRequest.of(page, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "createdAt"));
+    }
+}
@@ -0,0 +1,49 @@
+package com.sutreya.ecommerce.benchmarks;
+
+import com.sutreya.ecommerce.benchmarks.support.BenchmarkData;
+import com.sutreya.ecommerce.dto.ProductDTO;
+import com.sutreya.ecommerce.model.Product;
+import com.sutreya.ecommerce.service.ProductMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductMappingBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private Product product;
+    private Page<Product> page;
+
+    @Setup
+    public void setUp() {
+        product = BenchmarkData.product(1);
+        List<Product> products = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            products.add(BenchmarkData.product(i));
+        }
+        page = new PageImpl<>(products, PageRequest.of(0, pageSize), 10_000);
+    }
+
+    @Benchmark
+    public ProductDTO toDTO() {
+        return ProductMapper.toDTO(product);
+    }
+
+    @Benchmark
+    public Page<ProductDTO> mapPage() {
+        return page.map(ProductMapper::toDTO);
+    }
+}
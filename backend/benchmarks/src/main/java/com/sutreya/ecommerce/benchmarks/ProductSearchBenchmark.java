@@ -0,0 +1,79 @@
+package com.sutreya.ecommerce.benchmarks;
+
+import com.sutreya.ecommerce.benchmarks.support.BenchmarkApplication;
+import com.sutreya.ecommerce.benchmarks.support.BenchmarkDatabase;
+import com.sutreya.ecommerce.dto.ProductCardDTO;
+import com.sutreya.ecommerce.dto.ProductDTO;
+import com.sutreya.ecommerce.dto.ProductFilter;
+import com.sutreya.ecommerce.repository.ProductRepository;
+import com.sutreya.ecommerce.service.ProductMapper;
+import com.sutreya.ecommerce.service.ProductSearchIndex;
+import com.sutreya.ecommerce.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Storefront search: the original ILIKE query through the repository against the in-memory
+ * BM25 index, both on its own and through ProductService with facets. 100,000 products is the
+ * catalog size the index was built for; 10,000 shows how both scale.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductSearchBenchmark {
+
+    @Param({"10000", "100000"})
+    private int products;
+
+    @Param({"bowl", "hand thrown cer"})
+    private String query;
+
+    private BenchmarkDatabase database;
+    private ConfigurableApplicationContext context;
+    private ProductRepository productRepository;
+    private ProductService productService;
+    private ProductSearchIndex productSearchIndex;
+    private ProductFilter filter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = BenchmarkDatabase.start();
+        database.seedProducts(products);
+        context = BenchmarkApplication.start(database);
+        productRepository = context.getBean(ProductRepository.class);
+        productService = context.getBean(ProductService.class);
+        productSearchIndex = context.getBean(ProductSearchIndex.class);
+        filter = new ProductFilter();
+        filter.setSearch(query);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        context.close();
+        database.close();
+    }
+
+    @Benchmark
+    public Page<ProductDTO> ilikeRepository() {
+        return productRepository.findByNameContainingIgnoreCaseAndIsActiveTrue(query, PageRequest.of(0, 20))
+            .map(ProductMapper::toDTO);
+    }
+
+    @Benchmark
+    public List<ProductSearchIndex.SearchHit> bm25Index() {
+        return productSearchIndex.search(query, 20);
+    }
+
+    @Benchmark
+    public Page<ProductCardDTO> productServiceWithFacets() {
+        return productService.findProducts(filter, PageRequest.of(0, 20));
+    }
+}
@@ -0,0 +1,42 @@
+package com.sutreya.ecommerce.benchmarks;
+
+import com.sutreya.ecommerce.service.ProductViewTracker;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of recording a product page view from 8 request threads at once, either all on one
+ * hot product or spread over 1,000. This is the whole per-request overhead of view tracking.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class ProductViewTrackerBenchmark {
+
+    private final ProductViewTracker tracker = new ProductViewTracker(null);
+    private final UUID[] productIds = new UUID[1000];
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < productIds.length; i++) {
+            productIds[i] = UUID.randomUUID();
+        }
+    }
+
+    @Benchmark
+    public void hotProduct() {
+        tracker.record(productIds[0]);
+    }
+
+    @Benchmark
+    public void spreadProducts() {
+        tracker.record(productIds[ThreadLocalRandom.current().nextInt(productIds.length)]);
+    }
+}
@@ -0,0 +1,40 @@
+package com.sutreya.ecommerce.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sutreya.ecommerce.benchmarks.support.BenchmarkData;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON handling on the RevenueCat webhook path: the controller reads the payload into a tree,
+ * then SubscriptionService pulls the period timestamps out of the same tree.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RevenueCatWebhookBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private String payload;
+
+    @Setup
+    public void setUp() {
+        payload = BenchmarkData.revenueCatEvent("RENEWAL", "3f1c7a4e-5b7d-4a51-9f0e-2d3c4b5a6978");
+    }
+
+    @Benchmark
+    public void readTree(Blackhole blackhole) throws Exception {
+        JsonNode event = objectMapper.readTree(payload);
+        blackhole.consume(event.get("event").get("type").asText());
+        blackhole.consume(event.get("event").get("app_user_id").asText());
+        blackhole.consume(Instant.ofEpochMilli(event.get("event").get("purchased_at_ms").asLong()));
+        blackhole.consume(Instant.ofEpochMilli(event.get("event").get("expiration_at_ms").asLong()));
+    }
+}
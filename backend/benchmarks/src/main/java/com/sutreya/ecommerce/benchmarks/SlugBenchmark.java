@@ -0,0 +1,36 @@
+package com.sutreya.ecommerce.benchmarks;
+
+import com.sutreya.ecommerce.service.SlugGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SlugBenchmark {
+
+    @Param({"Hand Thrown Ceramic Bowl", "Organic Cotton Tote Bag - Natural (Large) / Hand-Printed Edition"})
+    private String name;
+
+    /**
+     * The implementation AdminProductService used before SlugGenerator: two regexes compiled
+     * on every call plus a SecureRandom-backed UUID for the suffix.
+     */
+    @Benchmark
+    public String legacyReplaceAll() {
+        return name.toLowerCase()
+            .replaceAll("[^a-z0-9\\s-]", "")
+            .replaceAll("\\s+", "-")
+            + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @Benchmark
+    public String slugGenerator() {
+        return SlugGenerator.generate(name);
+    }
+}
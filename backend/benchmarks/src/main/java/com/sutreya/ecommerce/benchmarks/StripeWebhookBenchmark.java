@@ -0,0 +1,108 @@
+package com.sutreya.ecommerce.benchmarks;
+
+import com.stripe.net.Webhook;
+import com.sutreya.ecommerce.benchmarks.support.BenchmarkApplication;
+import com.sutreya.ecommerce.benchmarks.support.BenchmarkData;
+import com.sutreya.ecommerce.benchmarks.support.BenchmarkDatabase;
+import com.sutreya.ecommerce.service.StripeEventQueue;
+import com.sutreya.ecommerce.service.WebhookIntake;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@value #ORDERS} orders each receiving {@code payment_intent.processing} and then
+ * {@code payment_intent.succeeded}, signed like Stripe signs them, through
+ * {@link StripeEventQueue} until every event has been applied. With a batch size of 1 the
+ * worker writes every event in its own transaction, which is what applying events one by
+ * one costs. Reported as events per second, signature check and journaling included.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class StripeWebhookBenchmark {
+
+    private static final int ORDERS = 1_000;
+    private static final int EVENTS = ORDERS * 2;
+    private static final String SECRET = "whsec_benchmark";
+
+    @Param({"1", "200"})
+    private int batchSize;
+
+    private BenchmarkDatabase database;
+    private ConfigurableApplicationContext context;
+    private StripeEventQueue eventQueue;
+    private List<UUID> orderIds;
+    private final List<String[]> deliveries = new ArrayList<>(EVENTS);
+    private int invocation;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = BenchmarkDatabase.start();
+        UUID userId = database.seedUsers(1).get(0);
+        orderIds = database.getJdbcTemplate().queryForList("""
+            INSERT INTO orders (user_id, order_number, subtotal, total_amount, shipping_address, metadata)
+            SELECT ?, 'BENCH-' || i, 40, 40, '{"city": "Pune"}'::jsonb,
+                   jsonb_build_object('paymentIntentId', 'pi_bench_' || i)
+            FROM generate_series(1, ?) AS i
+            RETURNING id
+            """, UUID.class, userId, ORDERS);
+        context = BenchmarkApplication.start(database, Map.of(
+            "stripe.webhook-secret", SECRET,
+            "stripe.webhook.batch-size", String.valueOf(batchSize)));
+        eventQueue = context.getBean(StripeEventQueue.class);
+        while (!Boolean.TRUE.equals(eventQueue.getStats().get("accepting"))) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void signDeliveries() throws Exception {
+        database.getJdbcTemplate().update("UPDATE orders SET status = 'pending', payment_status = 'pending'");
+        deliveries.clear();
+        invocation++;
+        long timestamp = System.currentTimeMillis() / 1000;
+        for (String type : List.of("payment_intent.processing", "payment_intent.succeeded")) {
+            for (int i = 0; i < ORDERS; i++) {
+                String payload = BenchmarkData.stripeEvent("evt_" + invocation + "_" + type + "_" + i, type,
+                    "pi_bench_" + (i + 1), orderIds.get(i).toString());
+                String signature = "t=" + timestamp + ",v1=" + Webhook.Util.computeHmacSha256(SECRET, timestamp + "." + payload);
+                deliveries.add(new String[]{payload, signature});
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        System.out.printf("%nStripe intake (batch size %d): %s%n", batchSize, eventQueue.getStats());
+        context.close();
+        database.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public long ingestAndApply() throws Exception {
+        long target = applied() + EVENTS;
+        for (String[] delivery : deliveries) {
+            if (eventQueue.enqueue(delivery[0], delivery[1]) != WebhookIntake.Outcome.ACCEPTED) {
+                throw new IllegalStateException("Event was not accepted");
+            }
+        }
+        while (applied() < target) {
+            Thread.sleep(1);
+        }
+        return target;
+    }
+
+    private long applied() {
+        return ((Number) eventQueue.getStats().get("applied")).longValue();
+    }
+}
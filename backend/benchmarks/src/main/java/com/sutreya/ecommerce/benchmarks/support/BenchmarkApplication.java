@@ -0,0 +1,45 @@
+package com.sutreya.ecommerce.benchmarks.support;
+
+import com.sutreya.ecommerce.SutreyaApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Boots the real application against a {@link BenchmarkDatabase}, so database-backed benchmarks
+ * exercise the same beans, transactions and listeners as production.
+ */
+public final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    public static ConfigurableApplicationContext start(BenchmarkDatabase database) {
+        return start(database, Map.of());
+    }
+
+    /**
+     * Boots with {@code overrides} applied on top of the benchmark defaults.
+     */
+    public static ConfigurableApplicationContext start(BenchmarkDatabase database, Map<String, String> overrides) {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("spring.datasource.url", database.getJdbcUrl());
+        properties.put("spring.datasource.username", "postgres");
+        properties.put("spring.datasource.password", "postgres");
+        properties.put("spring.jpa.hibernate.ddl-auto", "none");
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("server.port", "0");
+        properties.put("supabase.jwt-secret", BenchmarkData.JWT_SECRET);
+        properties.put("logging.level.root", "WARN");
+        properties.putAll(overrides);
+
+        // passed as arguments so they take precedence over application.yml
+        String[] args = properties.entrySet().stream()
+            .map(property -> "--" + property.getKey() + "=" + property.getValue())
+            .toArray(String[]::new);
+        return new SpringApplicationBuilder(SutreyaApplication.class).run(args);
+    }
+}
@@ -0,0 +1,125 @@
+package com.sutreya.ecommerce.benchmarks.support;
+
+import com.sutreya.ecommerce.model.HandmadeAttributes;
+import com.sutreya.ecommerce.model.Product;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+
+public final class BenchmarkData {
+
+    public static final String JWT_SECRET = "benchmark-secret-benchmark-secret-0123456789";
+
+    private BenchmarkData() {
+    }
+
+    public static Product product(int i) {
+        Product product = new Product();
+        product.setId(new UUID(0x5eedL, i));
+        product.setSellerId(BenchmarkDatabase.SELLER_ID);
+        product.setName("Hand thrown ceramic bowl " + i);
+        product.setSlug("hand-thrown-ceramic-bowl-" + i);
+        product.setDescription("Made by hand in small batches. Every piece is finished and inspected by the maker "
+            + "before it ships, so colour and texture vary slightly from the photos.");
+        product.setShortDescription("Small batch, made to last");
+        product.setPrice(BigDecimal.valueOf(1000 + i, 2));
+        product.setInventoryQuantity(i % 20);
+        product.setImages("[\"https://cdn.example.com/products/" + i + "/1.jpg\",\"https://cdn.example.com/products/"
+            + i + "/2.jpg\"]");
+        product.setTags(new String[]{"handmade", "kitchen"});
+        HandmadeAttributes attributes = new HandmadeAttributes();
+        attributes.setMaterials("clay, glaze");
+        attributes.setProcessingDays(3);
+        product.setHandmadeAttributes(attributes);
+        product.setCreatedAt(Instant.parse("2024-01-01T00:00:00Z").plusSeconds(i));
+        return product;
+    }
+
+    /**
+     * A token shaped like a Supabase access token: HS256 with the usual claims.
+     */
+    public static String accessToken(String subject) {
+        Instant now = Instant.now();
+        return Jwts.builder()
+            .setSubject(subject)
+            .setAudience("authenticated")
+            .setIssuer("https://project.supabase.co/auth/v1")
+            .setIssuedAt(Date.from(now))
+            .setExpiration(Date.from(now.plus(Duration.ofHours(1))))
+            .claim("email", subject + "@example.com")
+            .claim("role", "authenticated")
+            .claim("app_metadata", Map.of("provider", "email", "providers", new String[]{"email"}))
+            .claim("user_metadata", Map.of("full_name", "Benchmark User"))
+            .claim("session_id", UUID.randomUUID().toString())
+            .signWith(Keys.hmacShaKeyFor(JWT_SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+            .compact();
+    }
+
+    public static String revenueCatEvent(String type, String appUserId) {
+        return """
+            {
+              "api_version": "1.0",
+              "event": {
+                "id": "%s",
+                "type": "%s",
+                "app_id": "app1234567890",
+                "app_user_id": "%s",
+                "original_app_user_id": "%s",
+                "aliases": ["%s"],
+                "product_id": "sutreya_pro_monthly",
+                "entitlement_ids": ["pro"],
+                "period_type": "NORMAL",
+                "purchased_at_ms": 1700000000000,
+                "expiration_at_ms": 1702592000000,
+                "event_timestamp_ms": 1700000000123,
+                "environment": "PRODUCTION",
+                "store": "APP_STORE",
+                "currency": "USD",
+                "price": 9.99,
+                "price_in_purchased_currency": 9.99,
+                "country_code": "US",
+                "transaction_id": "1000000123456789",
+                "original_transaction_id": "1000000123456000",
+                "is_family_share": false,
+                "subscriber_attributes": {
+                  "$email": {"value": "user@example.com", "updated_at_ms": 1699999999000}
+                }
+              }
+            }
+            """.formatted(UUID.randomUUID(), type, appUserId, appUserId, appUserId);
+    }
+
+    public static String stripeEvent(String id, String type, String paymentIntentId, String orderId) {
+        return """
+            {
+              "id": "%s",
+              "object": "event",
+              "api_version": "2023-10-16",
+              "created": 1700000000,
+              "type": "%s",
+              "livemode": false,
+              "pending_webhooks": 1,
+              "data": {
+                "object": {
+                  "id": "%s",
+                  "object": "payment_intent",
+                  "amount": 4000,
+                  "amount_received": 4000,
+                  "currency": "usd",
+                  "status": "succeeded",
+                  "metadata": {"order_id": "%s"},
+                  "payment_method_types": ["card"]
+                }
+              }
+            }
+            """.formatted(id, type, paymentIntentId, orderId);
+    }
+}
@@ -0,0 +1,109 @@
+package com.sutreya.ecommerce.benchmarks.support;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Throwaway PostgreSQL instance with the schema from {@code database/} applied. Supabase's
+ * {@code auth} schema is stubbed with just enough for the foreign keys and policies to load.
+ */
+public final class BenchmarkDatabase implements AutoCloseable {
+
+    public static final UUID SELLER_ID = UUID.fromString("00000000-0000-0000-0000-0000000000b1");
+
+    private static final List<String> SCHEMA_FILES = List.of(
+        "schema.sql", "cart_schema.sql", "bulk_jobs_schema.sql", "webhook_events_schema.sql",
+        "product_view_stats_schema.sql", "seller_stock_settings_schema.sql", "order_payments_schema.sql");
+
+    private final EmbeddedPostgres postgres;
+    private final JdbcTemplate jdbcTemplate;
+
+    private BenchmarkDatabase(EmbeddedPostgres postgres) {
+        this.postgres = postgres;
+        this.jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+    }
+
+    public static BenchmarkDatabase start() throws IOException {
+        BenchmarkDatabase database = new BenchmarkDatabase(EmbeddedPostgres.builder().start());
+        database.jdbcTemplate.execute("CREATE SCHEMA auth; "
+            + "CREATE TABLE auth.users (id UUID PRIMARY KEY); "
+            + "CREATE FUNCTION auth.uid() RETURNS UUID LANGUAGE sql AS 'SELECT NULL::uuid'");
+        for (String file : SCHEMA_FILES) {
+            database.jdbcTemplate.execute(resource("db/" + file));
+        }
+        database.jdbcTemplate.update("INSERT INTO auth.users (id) VALUES (?)", SELLER_ID);
+        database.jdbcTemplate.update("INSERT INTO profiles (id, email) VALUES (?, 'seller@example.com')", SELLER_ID);
+        return database;
+    }
+
+    /**
+     * Inserts {@code count} active products for {@link #SELLER_ID} with names, materials and tags
+     * drawn from small vocabularies, so searches and facets have realistic overlap.
+     */
+    public void seedProducts(int count) {
+        jdbcTemplate.update("""
+            INSERT INTO products (seller_id, name, slug, description, short_description, price,
+                                  inventory_quantity, materials, tags, images, created_at)
+            SELECT ?,
+                   (ARRAY['Hand thrown', 'Carved', 'Woven', 'Glazed', 'Rustic'])[1 + i % 5] || ' '
+                       || (ARRAY['ceramic bowl', 'oak spoon', 'linen towel', 'clay vase', 'wool throw',
+                                 'brass candle holder'])[1 + i % 6] || ' ' || i,
+                   'bench-product-' || i,
+                   'Made by hand in small batches. Every piece is finished and inspected by the maker '
+                       || 'before it ships, so colour and texture vary slightly from the photos.',
+                   'Small batch, made to last',
+                   5 + (i % 200),
+                   i % 20,
+                   (ARRAY['clay', 'oak', 'linen', 'wool', 'brass'])[1 + i % 5],
+                   ARRAY['handmade', (ARRAY['kitchen', 'living', 'gift'])[1 + i % 3]],
+                   ('["https://cdn.example.com/products/' || i || '/1.jpg"]')::jsonb,
+                   NOW() - (i || ' minutes')::interval
+            FROM generate_series(1, ?) AS i
+            """, SELLER_ID, count);
+    }
+
+    /**
+     * Inserts {@code count} shoppers (auth user plus profile) and returns their ids.
+     */
+    public List<UUID> seedUsers(int count) {
+        List<UUID> userIds = jdbcTemplate.queryForList(
+            "INSERT INTO auth.users (id) SELECT gen_random_uuid() FROM generate_series(1, ?) RETURNING id",
+            UUID.class, count);
+        jdbcTemplate.batchUpdate("INSERT INTO profiles (id, email) VALUES (?, ?)",
+            userIds.stream().map(id -> new Object[]{id, id + "@example.com"}).toList());
+        return userIds;
+    }
+
+    public DataSource getDataSource() {
+        return postgres.getPostgresDatabase();
+    }
+
+    public JdbcTemplate getJdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    public String getJdbcUrl() {
+        return postgres.getJdbcUrl("postgres", "postgres");
+    }
+
+    @Override
+    public void close() throws IOException {
+        postgres.close();
+    }
+
+    private static String resource(String path) throws IOException {
+        try (InputStream input = BenchmarkDatabase.class.getClassLoader().getResourceAsStream(path)) {
+            if (input == null) {
+                throw new IOException("Missing schema resource " + path);
+            }
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
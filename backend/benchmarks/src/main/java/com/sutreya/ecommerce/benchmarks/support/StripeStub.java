@@ -0,0 +1,201 @@
+package com.sutreya.ecommerce.benchmarks.support;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.Wrapper;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.startup.Tomcat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local stand-in for the Stripe API that answers PaymentIntent creation after a fixed delay.
+ * Responses are completed asynchronously, so the stub holds no thread per call and never
+ * becomes the bottleneck. It counts the calls in flight, which under load is the number of
+ * backend requests that are actually being served at once.
+ * <p>
+ * Like Stripe, it honors {@code Idempotency-Key}: a key that succeeded before gets the same
+ * intent back, and a key whose first request is still running gets a 409. A share of calls,
+ * {@code failureRate}, fails with a 500 after the delay, which is how retries are exercised.
+ * Run {@link #main} to use it outside a benchmark, with {@code STRIPE_API_BASE} pointing at it.
+ */
+public final class StripeStub implements AutoCloseable {
+
+    private final Tomcat tomcat;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final Duration latency;
+    private final double failureRate;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final Map<String, byte[]> completed = new ConcurrentHashMap<>();
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder injectedFailures = new LongAdder();
+    private final LongAdder replays = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+
+    private StripeStub(Duration latency, double failureRate, int port) throws IOException {
+        this.latency = latency;
+        this.failureRate = failureRate;
+        this.tomcat = new Tomcat();
+        tomcat.setBaseDir(Files.createTempDirectory("stripe-stub").toString());
+        Connector connector = new Connector();
+        connector.setPort(port);
+        connector.setProperty("address", "127.0.0.1");
+        connector.setProperty("acceptCount", "4096");
+        tomcat.setConnector(connector);
+
+        Context context = tomcat.addContext("", null);
+        Wrapper servlet = Tomcat.addServlet(context, "paymentIntents", new HttpServlet() {
+            @Override
+            protected void doPost(HttpServletRequest request, HttpServletResponse response) {
+                createPaymentIntent(request, response);
+            }
+        });
+        servlet.setAsyncSupported(true);
+        context.addServletMappingDecoded("/v1/payment_intents", "paymentIntents");
+    }
+
+    public static StripeStub start(Duration latency) throws IOException, LifecycleException {
+        return start(latency, 0);
+    }
+
+    public static StripeStub start(Duration latency, double failureRate) throws IOException, LifecycleException {
+        return start(latency, failureRate, 0);
+    }
+
+    private static StripeStub start(Duration latency, double failureRate, int port)
+            throws IOException, LifecycleException {
+        StripeStub stub = new StripeStub(latency, failureRate, port);
+        stub.tomcat.start();
+        return stub;
+    }
+
+    /**
+     * {@code StripeStub [latencyMs] [failureRate] [port]}, defaults 200, 0 and 12111.
+     */
+    public static void main(String[] args) throws Exception {
+        Duration latency = Duration.ofMillis(args.length > 0 ? Long.parseLong(args[0]) : 200);
+        double failureRate = args.length > 1 ? Double.parseDouble(args[1]) : 0;
+        int port = args.length > 2 ? Integer.parseInt(args[2]) : 12111;
+        StripeStub stub = start(latency, failureRate, port);
+        System.out.printf("Stripe stub on %s, %d ms per call, %.0f%% failures%n",
+            stub.getBaseUrl(), latency.toMillis(), failureRate * 100);
+        stub.tomcat.getServer().await();
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + tomcat.getConnector().getLocalPort();
+    }
+
+    public int getPeakInFlight() {
+        return peakInFlight.get();
+    }
+
+    public Map<String, Long> getStats() {
+        return Map.of(
+            "requests", requests.sum(),
+            "injectedFailures", injectedFailures.sum(),
+            "replays", replays.sum(),
+            "conflicts", conflicts.sum());
+    }
+
+    @Override
+    public void close() throws LifecycleException {
+        scheduler.shutdownNow();
+        tomcat.stop();
+        tomcat.destroy();
+    }
+
+    private void createPaymentIntent(HttpServletRequest request, HttpServletResponse response) {
+        requests.increment();
+        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        String key = request.getHeader("Idempotency-Key");
+        String amount = request.getParameter("amount");
+        String currency = request.getParameter("currency");
+
+        byte[] replay = key != null ? completed.get(key) : null;
+        if (replay != null) {
+            replays.increment();
+        } else if (key != null && !running.add(key)) {
+            conflicts.increment();
+            respond(response, 409, error("idempotency_error",
+                "There is currently another in-progress request using this Stripe token"), false);
+            inFlight.decrementAndGet();
+            return;
+        }
+        boolean fail = replay == null && failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate;
+
+        AsyncContext async = request.startAsync();
+        async.setTimeout(0);
+        scheduler.schedule(() -> {
+            try {
+                if (replay != null) {
+                    respond(response, 200, replay, true);
+                } else if (fail) {
+                    injectedFailures.increment();
+                    respond(response, 500, error("api_error", "Injected failure"), false);
+                } else {
+                    byte[] body = intent(amount, currency);
+                    if (key != null) {
+                        completed.put(key, body);
+                    }
+                    respond(response, 200, body, false);
+                }
+            } finally {
+                if (key != null && replay == null) {
+                    running.remove(key);
+                }
+                inFlight.decrementAndGet();
+                async.complete();
+            }
+        }, latency.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void respond(HttpServletResponse response, int status, byte[] body, boolean replayed) {
+        try {
+            response.setStatus(status);
+            response.setContentType("application/json");
+            response.setHeader("Request-Id", "req_stub");
+            if (replayed) {
+                response.setHeader("Idempotent-Replayed", "true");
+            }
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        } catch (IOException e) {
+            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private static byte[] intent(String amount, String currency) {
+        String id = "pi_" + UUID.randomUUID().toString().replace("-", "").substring(0, 24);
+        return ("""
+            {"id":"%s","object":"payment_intent","amount":%s,"currency":"%s",\
+            "status":"requires_payment_method","client_secret":"%s_secret_stub","livemode":false}""")
+            .formatted(id, amount != null ? amount : "0", currency != null ? currency : "usd", id)
+            .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] error(String type, String message) {
+        return """
+            {"error":{"type":"%s","message":"%s"}}""".formatted(type, message).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -2,8 +2,12 @@ package com.sutreya.ecommerce;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableAsync
+@EnableScheduling
 public class SutreyaApplication {
     public static void main(String[] args) {
         SpringApplication.run(SutreyaApplication.class, args);
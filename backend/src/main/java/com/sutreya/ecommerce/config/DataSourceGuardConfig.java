@@ -0,0 +1,42 @@
+package com.sutreya.ecommerce.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Puts a {@link GuardedDataSource} in front of the Hikari pool when requests actually run on
+ * virtual threads, i.e. {@code spring.threads.virtual.enabled} is set on a Java 21 runtime.
+ * With platform threads the request thread pool already bounds the waiters, so the guard
+ * would only add a queue. {@code datasource.guard.enabled=false} turns it off.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+@ConditionalOnProperty(name = "datasource.guard.enabled", havingValue = "true", matchIfMissing = true)
+public class DataSourceGuardConfig {
+
+    @Bean
+    static BeanPostProcessor dataSourceGuard(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource hikari)) {
+                    return bean;
+                }
+                int permits = environment.getProperty("datasource.guard.permits", Integer.class,
+                    hikari.getMaximumPoolSize());
+                int maxWaiting = environment.getProperty("datasource.guard.max-waiting", Integer.class, 1000);
+                Duration acquireTimeout = environment.getProperty("datasource.guard.acquire-timeout", Duration.class,
+                    Duration.ofSeconds(5));
+                return new GuardedDataSource(hikari, permits, maxWaiting, acquireTimeout);
+            }
+        };
+    }
+}
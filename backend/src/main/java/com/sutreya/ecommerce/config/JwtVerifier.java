@@ -0,0 +1,102 @@
+package com.sutreya.ecommerce.config;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Verifies Supabase access tokens with a parser built once at startup. Verified tokens are
+ * remembered by SHA-256 digest until their {@code exp}, in a bounded LRU map, so a client
+ * sending the same token on every request only pays for the HMAC check the first time.
+ */
+@Component
+@Slf4j
+public class JwtVerifier {
+
+    private static final int DEFAULT_CACHE_SIZE = 10_000;
+
+    private final JwtParser parser;
+    private final Map<String, VerifiedToken> cache;
+
+    public record VerifiedToken(String userId, String email, long expiresAtMillis) {
+    }
+
+    public JwtVerifier(@Value("${supabase.jwt-secret}") String jwtSecret,
+                       @Value("${supabase.jwt-cache-size:" + DEFAULT_CACHE_SIZE + "}") int cacheSize) {
+        if (jwtSecret == null || jwtSecret.isEmpty()) {
+            log.warn("supabase.jwt-secret is not set, bearer tokens will be rejected");
+            this.parser = null;
+        } else {
+            this.parser = Jwts.parserBuilder()
+                .setSigningKey(jwtSecret.getBytes())
+                .build();
+        }
+        this.cache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    public Optional<VerifiedToken> verify(String token) {
+        if (parser == null) {
+            return Optional.empty();
+        }
+
+        String digest = digest(token);
+        long now = System.currentTimeMillis();
+        VerifiedToken cached;
+        synchronized (cache) {
+            cached = cache.get(digest);
+            if (cached != null && cached.expiresAtMillis() <= now) {
+                cache.remove(digest);
+                cached = null;
+            }
+        }
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        Claims claims;
+        try {
+            claims = parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            log.warn("JWT validation failed: {}", e.getMessage());
+            return Optional.empty();
+        }
+
+        VerifiedToken verified = new VerifiedToken(
+            claims.getSubject(),
+            claims.get("email", String.class),
+            claims.getExpiration() != null ? claims.getExpiration().getTime() : 0L);
+        // tokens without an expiry are verified every time
+        if (verified.expiresAtMillis() > now) {
+            synchronized (cache) {
+                cache.put(digest, verified);
+            }
+        }
+        return Optional.of(verified);
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.sutreya.ecommerce.config;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -14,6 +15,10 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @RequiredArgsConstructor
 public class SecurityConfig {
 
+    // the /ws handshake is open because browsers cannot send headers with it; STOMP CONNECT carries the token
+    static final String[] PUBLIC_PATHS = {"/api/v1/webhooks/**", "/api/v1/products/**", "/api/v1/media/**", "/api/v1/auth/**", "/health",
+        "/ws/**"};
+
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
 
     @Bean
@@ -22,7 +27,9 @@ public class SecurityConfig {
             .csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
-                .requestMatchers("/api/v1/webhooks/**", "/api/v1/products/**", "/api/v1/auth/**", "/health").permitAll()
+                // an async dispatch only writes the result of a request that was authorized already
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                .requestMatchers(PUBLIC_PATHS).permitAll()
                 .requestMatchers("/api/v1/admin/**").authenticated()
                 .anyRequest().authenticated()
             )
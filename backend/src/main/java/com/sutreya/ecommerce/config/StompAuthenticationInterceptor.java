@@ -0,0 +1,52 @@
+package com.sutreya.ecommerce.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+
+/**
+ * Authenticates STOMP sessions from the bearer token sent with CONNECT, so a user destination
+ * resolves to the user who connected. Queues are only reachable through {@code /user}, which
+ * the broker maps onto the subscriber's own session; subscribing to a broker queue directly,
+ * or to a user destination without a verified token, is refused.
+ */
+@Component
+@RequiredArgsConstructor
+public class StompAuthenticationInterceptor implements ChannelInterceptor {
+
+    private final JwtVerifier jwtVerifier;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+
+        if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+            String authHeader = accessor.getFirstNativeHeader("Authorization");
+            if (authHeader != null && authHeader.startsWith("Bearer ")) {
+                jwtVerifier.verify(authHeader.substring(7)).ifPresent(verified ->
+                    accessor.setUser(new UsernamePasswordAuthenticationToken(verified.userId(), null, new ArrayList<>())));
+            }
+        } else if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            String destination = accessor.getDestination();
+            if (destination != null && destination.startsWith("/queue/")) {
+                throw new MessageDeliveryException("Queues are only available through /user destinations");
+            }
+            if (destination != null && destination.startsWith("/user/") && accessor.getUser() == null) {
+                throw new MessageDeliveryException("User destinations need an authenticated connection");
+            }
+        }
+        return message;
+    }
+}
@@ -1,7 +1,13 @@
 package com.sutreya.ecommerce.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
@@ -10,10 +16,23 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final boolean virtualThreads;
+    private final int channelConcurrency;
+    private final StompAuthenticationInterceptor stompAuthentication;
+
+    public WebSocketConfig(Environment environment,
+                           @Value("${websocket.channel-concurrency:256}") int channelConcurrency,
+                           StompAuthenticationInterceptor stompAuthentication) {
+        this.virtualThreads = Threading.VIRTUAL.isActive(environment);
+        this.channelConcurrency = channelConcurrency;
+        this.stompAuthentication = stompAuthentication;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         config.enableSimpleBroker("/topic", "/queue");
         config.setApplicationDestinationPrefixes("/app");
+        config.setUserDestinationPrefix("/user");
     }
 
     @Override
@@ -22,4 +41,30 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOrigins("*")
                 .withSockJS();
     }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(stompAuthentication);
+        if (virtualThreads) {
+            registration.taskExecutor(virtualThreadExecutor("stomp-inbound-"));
+        }
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        if (virtualThreads) {
+            registration.taskExecutor(virtualThreadExecutor("stomp-outbound-"));
+        }
+    }
+
+    // the channels need a ThreadPoolTaskExecutor, so this is a pool whose threads are virtual:
+    // idle ones time out, and the core size only bounds how many messages are handled at once
+    private ThreadPoolTaskExecutor virtualThreadExecutor(String prefix) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadFactory(new VirtualThreadTaskExecutor(prefix).getVirtualThreadFactory());
+        executor.setCorePoolSize(channelConcurrency);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setKeepAliveSeconds(60);
+        return executor;
+    }
 }
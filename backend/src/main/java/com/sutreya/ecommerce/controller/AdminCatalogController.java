@@ -0,0 +1,54 @@
+package com.sutreya.ecommerce.controller;
+
+import com.sutreya.ecommerce.service.CategoryTree;
+import com.sutreya.ecommerce.service.JsonResponseCache;
+import com.sutreya.ecommerce.service.MediaContentService;
+import com.sutreya.ecommerce.service.MediaProcessor;
+import com.sutreya.ecommerce.service.ProductCatalog;
+import com.sutreya.ecommerce.service.ProductFacetIndex;
+import com.sutreya.ecommerce.service.ProductSearchIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/admin/catalog")
+@RequiredArgsConstructor
+@CrossOrigin(origins = {"https://frontend-murex-sigma.vercel.app", "http://localhost:3000"})
+public class AdminCatalogController {
+
+    private final ProductCatalog productCatalog;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductFacetIndex productFacetIndex;
+    private final CategoryTree categoryTree;
+    private final JsonResponseCache responseCache;
+    private final MediaProcessor mediaProcessor;
+    private final MediaContentService mediaContentService;
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(stats());
+    }
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuild() {
+        categoryTree.reload();
+        productCatalog.rebuild();
+        return ResponseEntity.ok(stats());
+    }
+
+    private Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>(productCatalog.getStats());
+        stats.put("searchDocuments", productSearchIndex.size());
+        stats.put("searchTerms", productSearchIndex.termCount());
+        stats.put("facetDocuments", productFacetIndex.size());
+        stats.put("responseCache", responseCache.getStats());
+        stats.put("media", Map.of(
+            "processor", mediaProcessor.getStats(),
+            "delivery", mediaContentService.getStats()));
+        return stats;
+    }
+}
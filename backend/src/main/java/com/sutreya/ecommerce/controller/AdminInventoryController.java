@@ -0,0 +1,40 @@
+package com.sutreya.ecommerce.controller;
+
+import com.sutreya.ecommerce.service.InventoryBroadcaster;
+import com.sutreya.ecommerce.service.InventoryReservationEngine;
+import com.sutreya.ecommerce.service.LowStockMonitor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/admin/inventory")
+@RequiredArgsConstructor
+@CrossOrigin(origins = {"https://frontend-murex-sigma.vercel.app", "http://localhost:3000"})
+public class AdminInventoryController {
+
+    private final InventoryReservationEngine reservationEngine;
+    private final InventoryBroadcaster inventoryBroadcaster;
+    private final LowStockMonitor lowStockMonitor;
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(stats());
+    }
+
+    @PostMapping("/flush")
+    public ResponseEntity<Map<String, Object>> flush() {
+        reservationEngine.flush();
+        return ResponseEntity.ok(stats());
+    }
+
+    private Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>(reservationEngine.getStats());
+        stats.put("broadcast", inventoryBroadcaster.getStats());
+        stats.put("lowStock", lowStockMonitor.getStats());
+        return stats;
+    }
+}
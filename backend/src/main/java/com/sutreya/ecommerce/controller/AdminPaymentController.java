@@ -0,0 +1,40 @@
+package com.sutreya.ecommerce.controller;
+
+import com.sutreya.ecommerce.service.StripeEventQueue;
+import com.sutreya.ecommerce.service.StripeService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/api/v1/admin/payments")
+@RequiredArgsConstructor
+@CrossOrigin(origins = {"https://frontend-murex-sigma.vercel.app", "http://localhost:3000"})
+public class AdminPaymentController {
+
+    private final StripeService stripeService;
+    private final StripeEventQueue stripeEventQueue;
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("gateway", stripeService.getStats());
+        stats.put("webhooks", stripeEventQueue.getStats());
+        return ResponseEntity.ok(stats);
+    }
+
+    // backfills orders from the stored Stripe events; status narrows it to e.g. SKIPPED events.
+    // The events are applied by the webhook intake, and the request thread is released meanwhile
+    @PostMapping("/webhooks/replay")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> replayWebhooks(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant since,
+            @RequestParam(required = false) String status) {
+        return stripeEventQueue.replay(since, status).thenApply(ResponseEntity::ok);
+    }
+}
@@ -1,17 +1,30 @@
 package com.sutreya.ecommerce.controller;
 
+import com.sutreya.ecommerce.dto.BulkInventoryUpdateRequest;
+import com.sutreya.ecommerce.dto.BulkPriceUpdateRequest;
 import com.sutreya.ecommerce.dto.CreateProductRequest;
 import com.sutreya.ecommerce.dto.ProductDTO;
 import com.sutreya.ecommerce.service.AdminProductService;
+import com.sutreya.ecommerce.service.BulkProductService;
+import com.sutreya.ecommerce.service.CatalogFormat;
+import com.sutreya.ecommerce.service.ProductExportService;
+import com.sutreya.ecommerce.service.ProductImportService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
@@ -21,6 +34,9 @@ import java.util.UUID;
 public class AdminProductController {
 
     private final AdminProductService adminProductService;
+    private final BulkProductService bulkProductService;
+    private final ProductImportService productImportService;
+    private final ProductExportService productExportService;
 
     @PostMapping
     public ResponseEntity<ProductDTO> createProduct(@RequestBody CreateProductRequest request) {
@@ -41,19 +57,80 @@ public class AdminProductController {
     }
 
     @PostMapping("/{id}/media")
-    public ResponseEntity<List<String>> uploadMedia(
+    public ResponseEntity<?> uploadMedia(
             @PathVariable UUID id,
             @RequestParam("files") List<MultipartFile> files) {
-        List<String> urls = adminProductService.uploadMedia(id, files);
-        return ResponseEntity.ok(urls);
+        try {
+            return ResponseEntity.ok(adminProductService.uploadMedia(id, files));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PutMapping("/{id}/media/{filename}")
+    public ResponseEntity<?> uploadMediaStream(
+            @PathVariable UUID id,
+            @PathVariable String filename,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            InputStream body) {
+        try {
+            return ResponseEntity.ok(adminProductService.uploadMedia(id, filename, contentType, body));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     @GetMapping
-    public ResponseEntity<Page<ProductDTO>> getSellerProducts(
+    public ResponseEntity<?> getSellerProducts(
             @RequestParam UUID sellerId,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
-        Page<ProductDTO> products = adminProductService.getSellerProducts(sellerId, PageRequest.of(page, size));
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "createdAt,desc") String sort) {
+        if (cursor != null) {
+            return ResponseEntity.ok(adminProductService.getSellerProductsByCursor(sellerId, cursor, size, sort));
+        }
+        
+        String[] sortParams = sort.split(",");
+        Page<ProductDTO> products = adminProductService.getSellerProducts(sellerId, PageRequest.of(page, size,
+            Sort.by(Sort.Direction.fromString(sortParams[1]), sortParams[0])));
         return ResponseEntity.ok(products);
     }
+
+    @PostMapping("/bulk/prices")
+    public ResponseEntity<Map<String, Object>> bulkUpdatePrices(@RequestBody BulkPriceUpdateRequest request) {
+        UUID jobId = request.getJobId() != null ? request.getJobId() : UUID.randomUUID();
+        Map<String, Object> result = request.getSellerId() != null
+            ? bulkProductService.updateSellerPrices(jobId, request.getSellerId(), request.getPercentageChange())
+            : bulkProductService.updatePrices(jobId, request.getProductIds(), request.getPercentageChange());
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping("/bulk/inventory")
+    public ResponseEntity<Map<String, Object>> bulkUpdateInventory(@RequestBody BulkInventoryUpdateRequest request) {
+        UUID jobId = request.getJobId() != null ? request.getJobId() : UUID.randomUUID();
+        return ResponseEntity.ok(bulkProductService.bulkUpdateInventory(jobId, request.getUpdates()));
+    }
+
+    @PostMapping("/import")
+    public ResponseEntity<Map<String, Object>> importProducts(
+            @RequestParam UUID sellerId,
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            InputStream body) {
+        CatalogFormat catalogFormat = CatalogFormat.parse(format, contentType);
+        return ResponseEntity.ok(productImportService.importProducts(sellerId, body, catalogFormat));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam UUID sellerId,
+            @RequestParam(defaultValue = "csv") String format) {
+        CatalogFormat catalogFormat = CatalogFormat.parse(format, null);
+        StreamingResponseBody body = output -> productExportService.exportProducts(sellerId, catalogFormat, output);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(catalogFormat.getContentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products." + catalogFormat.getExtension() + "\"")
+            .body(body);
+    }
 }
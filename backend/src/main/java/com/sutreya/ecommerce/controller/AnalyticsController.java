@@ -1,10 +1,11 @@
 package com.sutreya.ecommerce.controller;
 
+import com.sutreya.ecommerce.service.LowStockMonitor;
+import com.sutreya.ecommerce.service.SellerAnalyticsService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.math.BigDecimal;
 import java.util.*;
 
 @RestController
@@ -13,35 +14,41 @@ import java.util.*;
 @CrossOrigin(origins = {"https://frontend-murex-sigma.vercel.app", "http://localhost:3000"})
 public class AnalyticsController {
 
+    private final SellerAnalyticsService analyticsService;
+    private final LowStockMonitor lowStockMonitor;
+
     @GetMapping("/dashboard")
     public ResponseEntity<Map<String, Object>> getDashboardMetrics(@RequestParam UUID sellerId) {
-        Map<String, Object> metrics = new HashMap<>();
-        metrics.put("totalRevenue", BigDecimal.valueOf(12450.00));
-        metrics.put("totalOrders", 87);
-        metrics.put("totalProducts", 24);
-        metrics.put("lowStockItems", 3);
-        
-        List<Map<String, Object>> topProducts = new ArrayList<>();
-        Map<String, Object> product1 = new HashMap<>();
-        product1.put("name", "Handmade Pottery Bowl");
-        product1.put("sales", 45);
-        product1.put("revenue", 2250.00);
-        topProducts.add(product1);
-        
-        metrics.put("topProducts", topProducts);
-        return ResponseEntity.ok(metrics);
+        return ResponseEntity.ok(analyticsService.getDashboard(sellerId));
     }
 
     @GetMapping("/products/performance")
     public ResponseEntity<List<Map<String, Object>>> getProductPerformance(@RequestParam UUID sellerId) {
-        List<Map<String, Object>> performance = new ArrayList<>();
-        Map<String, Object> perf = new HashMap<>();
-        perf.put("productId", UUID.randomUUID());
-        perf.put("views", 1250);
-        perf.put("conversionRate", 3.2);
-        perf.put("revenue", 5600.00);
-        performance.add(perf);
-        
-        return ResponseEntity.ok(performance);
+        return ResponseEntity.ok(analyticsService.getProductPerformance(sellerId));
+    }
+
+    @GetMapping("/low-stock")
+    public ResponseEntity<Map<String, Object>> getLowStock(@RequestParam UUID sellerId) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("sellerId", sellerId);
+        response.put("threshold", lowStockMonitor.getThreshold(sellerId));
+        response.put("items", lowStockMonitor.getLowStock(sellerId));
+        return ResponseEntity.ok(response);
+    }
+
+    @PutMapping("/low-stock/threshold")
+    public ResponseEntity<Map<String, Object>> setLowStockThreshold(@RequestParam UUID sellerId,
+                                                                    @RequestParam int threshold) {
+        try {
+            lowStockMonitor.setThreshold(sellerId, threshold);
+            return getLowStock(sellerId);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/backfill")
+    public ResponseEntity<Map<String, Object>> backfill() {
+        return ResponseEntity.ok(analyticsService.backfill());
     }
 }
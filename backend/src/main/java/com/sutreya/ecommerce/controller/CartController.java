@@ -1,5 +1,6 @@
 package com.sutreya.ecommerce.controller;
 
+import com.sutreya.ecommerce.dto.CartViewDTO;
 import com.sutreya.ecommerce.model.CartItem;
 import com.sutreya.ecommerce.service.CartService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,6 +24,11 @@ public class CartController {
         return ResponseEntity.ok(cartService.getCartItems(userId));
     }
     
+    @GetMapping("/{userId}/view")
+    public ResponseEntity<CartViewDTO> getCartView(@PathVariable UUID userId) {
+        return ResponseEntity.ok(cartService.getCartView(userId));
+    }
+    
     @PostMapping("/add")
     public ResponseEntity<CartItem> addToCart(@RequestBody Map<String, Object> request) {
         UUID userId = UUID.fromString((String) request.get("userId"));
@@ -0,0 +1,137 @@
+package com.sutreya.ecommerce.controller;
+
+import com.sutreya.ecommerce.service.JsonResponseCache;
+import com.sutreya.ecommerce.service.MediaContentService;
+import com.sutreya.ecommerce.service.MediaContentService.MediaContent;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/v1/media")
+@RequiredArgsConstructor
+@CrossOrigin(origins = {"https://frontend-murex-sigma.vercel.app", "http://localhost:3000"})
+public class MediaController {
+
+    private record ByteRange(long start, long end) {
+
+        static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+
+        long length() {
+            return end - start + 1;
+        }
+    }
+
+    // Tomcat sends the named file itself with sendfile when the connector supports it
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String CACHE_CONTROL =
+        CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable().getHeaderValue();
+
+    private final MediaContentService mediaContentService;
+
+    @GetMapping("/{key}")
+    public void getMedia(@PathVariable String key,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        Optional<MediaContent> found = mediaContentService.find(key);
+        if (found.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        MediaContent content = found.get();
+        String etag = content.etag();
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (JsonResponseCache.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        ByteRange range = range(request.getHeader(HttpHeaders.RANGE), request.getHeader(HttpHeaders.IF_RANGE),
+            etag, content.size());
+        if (range == ByteRange.UNSATISFIABLE) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + content.size());
+            return;
+        }
+        if (range.length() < content.size()) {
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE,
+                "bytes " + range.start() + "-" + range.end() + "/" + content.size());
+        }
+        response.setContentType(content.format().getContentType());
+        response.setContentLengthLong(range.length());
+        if ("HEAD".equals(request.getMethod()) || range.length() == 0) {
+            return;
+        }
+
+        Optional<Path> file = mediaContentService.localPath(content);
+        if (file.isPresent() && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.get().toString());
+            request.setAttribute(SENDFILE_START, range.start());
+            request.setAttribute(SENDFILE_END, range.end() + 1);
+            mediaContentService.recordSendfile(range.length());
+            return;
+        }
+        mediaContentService.transfer(content, range.start(), range.length(),
+            Channels.newChannel(response.getOutputStream()));
+    }
+
+    /**
+     * The single byte range a request asks for, the whole blob when it asks for none or for
+     * several, or {@link ByteRange#UNSATISFIABLE}. Ranges are only honored while the client's
+     * {@code If-Range} still names this content; an {@code If-Range} date always matches as
+     * blobs never change.
+     */
+    private static ByteRange range(String header, String ifRange, String etag, long size) {
+        ByteRange whole = new ByteRange(0, size - 1);
+        if (header == null || !header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return whole;
+        }
+        if (ifRange != null && (ifRange.startsWith("\"") || ifRange.startsWith("W/")) && !ifRange.equals(etag)) {
+            return whole;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return whole;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || size == 0) {
+                    return ByteRange.UNSATISFIABLE;
+                }
+                return new ByteRange(Math.max(0, size - suffix), size - 1);
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? size - 1 : Long.parseLong(last);
+            if (start >= size) {
+                return ByteRange.UNSATISFIABLE;
+            }
+            if (end < start) {
+                // malformed, so the header is ignored
+                return whole;
+            }
+            return new ByteRange(start, Math.min(end, size - 1));
+        } catch (NumberFormatException e) {
+            return whole;
+        }
+    }
+}
@@ -1,13 +1,28 @@
 package com.sutreya.ecommerce.controller;
 
+import com.sutreya.ecommerce.dto.CheckoutRequest;
+import com.sutreya.ecommerce.dto.CursorPage;
 import com.sutreya.ecommerce.model.Order;
 import com.sutreya.ecommerce.repository.OrderRepository;
+import com.sutreya.ecommerce.service.CheckoutService;
+import com.sutreya.ecommerce.service.KeysetCursors;
+import com.sutreya.ecommerce.service.OrderNumberGenerator;
+import com.sutreya.ecommerce.service.OrderPaymentService;
+import com.sutreya.ecommerce.service.PaymentGateway;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/v1/orders")
@@ -16,15 +31,57 @@ import java.util.UUID;
 public class OrderController {
 
     private final OrderRepository orderRepository;
+    private final CheckoutService checkoutService;
+    private final OrderNumberGenerator orderNumberGenerator;
+    private final OrderPaymentService orderPaymentService;
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Order>> getUserOrders(@PathVariable UUID userId) {
-        return ResponseEntity.ok(orderRepository.findByUserIdOrderByCreatedAtDesc(userId));
+    public ResponseEntity<?> getUserOrders(
+            @PathVariable UUID userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        // always a page, newest first without a cursor, so a long order history is never read whole
+        Sort.Order order = Sort.Order.desc("createdAt");
+        KeysetCursors.Cursor after = KeysetCursors.decode(cursor, order);
+        Window<Order> orders = orderRepository.findByUserId(userId, KeysetCursors.position(after, order),
+            KeysetCursors.keysetSort(order), Limit.of(KeysetCursors.pageSize(size)));
+        CursorPage<Order> result = KeysetCursors.page(orders.getContent(), orders.hasNext(), order,
+            Order::getCreatedAt, Order::getId, Function.identity());
+        return ResponseEntity.ok(result);
     }
 
     @PostMapping
     public ResponseEntity<Order> createOrder(@RequestBody Order order) {
-        order.setOrderNumber("ORD-" + System.currentTimeMillis());
+        order.setOrderNumber(orderNumberGenerator.next());
         return ResponseEntity.ok(orderRepository.save(order));
     }
+
+    @PostMapping("/checkout")
+    public ResponseEntity<Map<String, Object>> checkout(@RequestBody CheckoutRequest request) {
+        return ResponseEntity.ok(checkoutService.checkout(request));
+    }
+
+    // the request thread is released while Stripe is called
+    @PostMapping("/{id}/payment-intent")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> createPaymentIntent(@PathVariable UUID id) {
+        try {
+            return orderPaymentService.createPaymentIntent(id)
+                .thenApply(ResponseEntity::ok)
+                .exceptionally(e -> paymentError(e instanceof CompletionException ? e.getCause() : e));
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(paymentError(e));
+        }
+    }
+
+    private static ResponseEntity<Map<String, Object>> paymentError(Throwable e) {
+        if (e instanceof IllegalArgumentException) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        if (e instanceof PaymentGateway.PaymentUnavailableException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(Map.of("error", e.getMessage()));
+        }
+        throw e instanceof RuntimeException runtime ? runtime : new CompletionException(e);
+    }
 }
@@ -1,12 +1,16 @@
 package com.sutreya.ecommerce.controller;
 
-import com.sutreya.ecommerce.dto.ProductDTO;
+import com.sutreya.ecommerce.dto.ProductFilter;
+import com.sutreya.ecommerce.service.JsonResponseCache;
+import com.sutreya.ecommerce.service.ProductCatalog;
 import com.sutreya.ecommerce.service.ProductService;
+import com.sutreya.ecommerce.service.ProductViewTracker;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -17,30 +21,55 @@ import org.springframework.web.bind.annotation.*;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductViewTracker viewTracker;
+    private final ProductCatalog productCatalog;
+    private final JsonResponseCache responseCache;
 
     @GetMapping
-    public ResponseEntity<Page<ProductDTO>> getProducts(
-            @RequestParam(required = false) String category,
-            @RequestParam(required = false) String search,
+    public ResponseEntity<?> getProducts(
+            ProductFilter filter,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
-            @RequestParam(defaultValue = "createdAt,desc") String sort) {
-        
-        String[] sortParams = sort.split(",");
-        Pageable pageable = PageRequest.of(page, size, 
-            Sort.by(Sort.Direction.fromString(sortParams[1]), sortParams[0]));
-        
-        Page<ProductDTO> products = productService.findProducts(category, search, pageable);
-        return ResponseEntity.ok(products);
+            @RequestParam(defaultValue = "createdAt,desc") String sort,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            HttpServletRequest request) {
+
+        if (!productCatalog.isReady()) {
+            return ResponseEntity.ok(findProducts(filter, cursor, page, size, sort));
+        }
+        // read before the body is built, so a body is never older than the version it is tagged with
+        long catalogVersion = productCatalog.getVersion();
+        String query = request.getQueryString() != null ? request.getQueryString() : "";
+        return responseCache.respond("products?" + query,
+            JsonResponseCache.etag("c" + catalogVersion, Integer.toHexString(query.hashCode())), ifNoneMatch,
+            () -> findProducts(filter, cursor, page, size, sort));
     }
 
     @GetMapping("/{slug}")
-    public ResponseEntity<ProductDTO> getProduct(@PathVariable String slug) {
-        return ResponseEntity.ok(productService.getProductBySlug(slug));
+    public ResponseEntity<byte[]> getProduct(
+            @PathVariable String slug,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        ProductCatalog.CatalogEntry product = productService.getProductEntryBySlug(slug);
+        viewTracker.record(product.id());
+        return responseCache.respond("product:" + slug, JsonResponseCache.etag(product.id(), product.version()),
+            ifNoneMatch, product::dto);
     }
 
     @GetMapping("/health")
     public ResponseEntity<String> health() {
         return ResponseEntity.ok("Sutreya API is running");
     }
+
+    private Object findProducts(ProductFilter filter, String cursor, int page, int size, String sort) {
+        if (cursor != null) {
+            return productService.findProductsByCursor(filter, cursor, size, sort);
+        }
+
+        String[] sortParams = sort.split(",");
+        Pageable pageable = PageRequest.of(page, size,
+            Sort.by(Sort.Direction.fromString(sortParams[1]), sortParams[0]));
+
+        return productService.findProducts(filter, pageable);
+    }
 }
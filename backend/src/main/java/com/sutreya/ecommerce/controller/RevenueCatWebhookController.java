@@ -1,10 +1,11 @@
 package com.sutreya.ecommerce.controller;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.sutreya.ecommerce.service.SubscriptionService;
+import com.sutreya.ecommerce.service.RevenueCatEventQueue;
+import com.sutreya.ecommerce.service.WebhookIntake;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -14,8 +15,7 @@ import org.springframework.web.bind.annotation.*;
 @Slf4j
 public class RevenueCatWebhookController {
 
-    private final SubscriptionService subscriptionService;
-    private final ObjectMapper objectMapper;
+    private final RevenueCatEventQueue eventQueue;
 
     @PostMapping("/revenuecat")
     public ResponseEntity<Void> handleRevenueCatWebhook(
@@ -23,35 +23,20 @@ public class RevenueCatWebhookController {
             @RequestBody String payload) {
         
         try {
-            JsonNode event = objectMapper.readTree(payload);
-            String eventType = event.get("event").get("type").asText();
-            String appUserId = event.get("event").get("app_user_id").asText();
-            
-            log.info("Processing RevenueCat event: {} for user: {}", eventType, appUserId);
-
-            switch (eventType) {
-                case "INITIAL_PURCHASE":
-                case "RENEWAL":
-                case "UNCANCELLATION":
-                    subscriptionService.activateSubscription(appUserId, event);
-                    break;
-                    
-                case "CANCELLATION":
-                    subscriptionService.markForCancellation(appUserId, event);
-                    break;
-                    
-                case "EXPIRATION":
-                    subscriptionService.expireSubscription(appUserId, event);
-                    break;
-                    
-                default:
-                    log.info("Unhandled RevenueCat event type: {}", eventType);
+            WebhookIntake.Outcome outcome = eventQueue.enqueue(payload);
+            if (outcome == WebhookIntake.Outcome.REJECTED) {
+                log.warn("RevenueCat webhook refused, ingestion queue is full");
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .build();
             }
-
             return ResponseEntity.ok().build();
             
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected RevenueCat webhook: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
-            log.error("Error processing RevenueCat webhook", e);
+            log.error("Error journaling RevenueCat webhook", e);
             return ResponseEntity.status(500).build();
         }
     }
@@ -0,0 +1,43 @@
+package com.sutreya.ecommerce.controller;
+
+import com.sutreya.ecommerce.service.StripeEventQueue;
+import com.sutreya.ecommerce.service.WebhookIntake;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/webhooks")
+@RequiredArgsConstructor
+@Slf4j
+public class StripeWebhookController {
+
+    private final StripeEventQueue eventQueue;
+
+    @PostMapping("/stripe")
+    public ResponseEntity<Void> handleStripeWebhook(
+            @RequestHeader(value = "Stripe-Signature", required = false) String signature,
+            @RequestBody String payload) {
+
+        try {
+            WebhookIntake.Outcome outcome = eventQueue.enqueue(payload, signature);
+            if (outcome == WebhookIntake.Outcome.REJECTED) {
+                log.warn("Stripe webhook refused, ingestion queue is full");
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .build();
+            }
+            return ResponseEntity.ok().build();
+
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected Stripe webhook: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error journaling Stripe webhook", e);
+            return ResponseEntity.status(500).build();
+        }
+    }
+}
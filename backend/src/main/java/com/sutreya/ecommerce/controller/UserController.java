@@ -1,5 +1,7 @@
 package com.sutreya.ecommerce.controller;
 
+import com.sutreya.ecommerce.service.EntitlementCache;
+import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -7,12 +9,16 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/v1/user")
 @CrossOrigin(origins = {"https://frontend-murex-sigma.vercel.app", "http://localhost:3000"})
+@RequiredArgsConstructor
 public class UserController {
 
+    private final EntitlementCache entitlementCache;
+
     @GetMapping("/profile")
     public ResponseEntity<Map<String, Object>> getProfile() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
@@ -23,4 +29,20 @@ public class UserController {
         
         return ResponseEntity.ok(response);
     }
+
+    @GetMapping("/entitlements")
+    public ResponseEntity<Map<String, Object>> getEntitlements(@RequestParam(required = false) String plan) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        UUID userId = UUID.fromString((String) auth.getPrincipal());
+        EntitlementCache.Entitlement entitlement = entitlementCache.get(userId);
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("userId", userId);
+        response.put("status", entitlement.status());
+        response.put("planType", entitlement.planType());
+        response.put("currentPeriodEnd", entitlement.currentPeriodEnd());
+        response.put("entitled", entitlementCache.hasEntitlement(userId, plan));
+        
+        return ResponseEntity.ok(response);
+    }
 }
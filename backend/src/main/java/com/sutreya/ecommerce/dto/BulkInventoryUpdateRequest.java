@@ -0,0 +1,12 @@
+package com.sutreya.ecommerce.dto;
+
+import lombok.Data;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+public class BulkInventoryUpdateRequest {
+    private UUID jobId;
+    private Map<UUID, Integer> updates = new LinkedHashMap<>();
+}
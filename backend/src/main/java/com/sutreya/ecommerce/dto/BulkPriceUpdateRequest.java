@@ -0,0 +1,14 @@
+package com.sutreya.ecommerce.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class BulkPriceUpdateRequest {
+    private UUID jobId;
+    private UUID sellerId;
+    private List<UUID> productIds;
+    private BigDecimal percentageChange;
+}
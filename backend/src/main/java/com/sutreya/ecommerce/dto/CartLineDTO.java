@@ -0,0 +1,18 @@
+package com.sutreya.ecommerce.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+public class CartLineDTO {
+    private UUID productId;
+    private String name;
+    private String slug;
+    private String thumbnailUrl;
+    private BigDecimal unitPrice;
+    private Integer quantity;
+    private BigDecimal lineTotal;
+    private String stockStatus;
+    private Integer availableQuantity;
+}
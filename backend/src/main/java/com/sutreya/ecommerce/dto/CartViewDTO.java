@@ -0,0 +1,18 @@
+package com.sutreya.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class CartViewDTO {
+    private UUID userId;
+    private List<CartLineDTO> items;
+    private int lineCount;
+    private int itemCount;
+    private BigDecimal subtotal;
+    private boolean checkoutReady;
+}
@@ -0,0 +1,13 @@
+package com.sutreya.ecommerce.dto;
+
+import lombok.Data;
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+public class CheckoutRequest {
+    private UUID userId;
+    private Map<String, Object> shippingAddress;
+    private Map<String, Object> billingAddress;
+    private String notes;
+}
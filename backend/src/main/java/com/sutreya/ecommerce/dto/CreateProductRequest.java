@@ -3,11 +3,13 @@ package com.sutreya.ecommerce.dto;
 import com.sutreya.ecommerce.model.Product;
 import lombok.Data;
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.UUID;
 
 @Data
 public class CreateProductRequest {
     private UUID sellerId;
+    private UUID categoryId;
     private String name;
     private String description;
     private String shortDescription;
@@ -18,4 +20,5 @@ public class CreateProductRequest {
     private Integer processingDays;
     private String materials;
     private Boolean customizationAvailable;
+    private List<String> tags;
 }
@@ -0,0 +1,25 @@
+package com.sutreya.ecommerce.dto;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.io.Serial;
+import java.util.List;
+import java.util.Map;
+
+public class FacetedPage<T> extends PageImpl<T> {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final Map<String, Object> facets;
+
+    public FacetedPage(List<T> content, Pageable pageable, long total, Map<String, Object> facets) {
+        super(content, pageable, total);
+        this.facets = facets;
+    }
+
+    public Map<String, Object> getFacets() {
+        return facets;
+    }
+}
@@ -0,0 +1,19 @@
+package com.sutreya.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductCardDTO {
+    private UUID id;
+    private String name;
+    private String slug;
+    private BigDecimal price;
+    private Integer inventoryQuantity;
+    private String thumbnailUrl;
+}
@@ -0,0 +1,21 @@
+package com.sutreya.ecommerce.dto;
+
+import com.sutreya.ecommerce.model.Product;
+import lombok.Data;
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+public class ProductFilter {
+    private String category;
+    private String search;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private Boolean inStock;
+    private Product.ProductType type;
+    private List<String> materials;
+
+    public boolean hasSearch() {
+        return search != null && !search.isBlank();
+    }
+}
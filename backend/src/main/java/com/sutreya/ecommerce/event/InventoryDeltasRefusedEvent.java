@@ -0,0 +1,12 @@
+package com.sutreya.ecommerce.event;
+
+import lombok.Value;
+
+import java.util.Map;
+import java.util.UUID;
+
+@Value
+public class InventoryDeltasRefusedEvent {
+    // per product, the change the database would not take; negative for units sold that stored stock no longer covers
+    Map<UUID, Integer> deltas;
+}
@@ -0,0 +1,21 @@
+package com.sutreya.ecommerce.event;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Value
+public class OrderPlacedEvent {
+    UUID orderId;
+    UUID userId;
+    String orderNumber;
+    BigDecimal totalAmount;
+    List<Line> lines;
+    Instant placedAt;
+
+    public record Line(UUID productId, UUID sellerId, String productName, int quantity, BigDecimal totalPrice) {
+    }
+}
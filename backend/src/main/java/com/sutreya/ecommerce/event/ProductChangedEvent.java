@@ -0,0 +1,20 @@
+package com.sutreya.ecommerce.event;
+
+import lombok.Value;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+
+@Value
+public class ProductChangedEvent {
+    Set<UUID> productIds;
+
+    public static ProductChangedEvent of(UUID productId) {
+        return new ProductChangedEvent(Set.of(productId));
+    }
+
+    public static ProductChangedEvent of(Collection<UUID> productIds) {
+        return new ProductChangedEvent(Set.copyOf(productIds));
+    }
+}
@@ -0,0 +1,14 @@
+package com.sutreya.ecommerce.event;
+
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Value
+public class SubscriptionChangedEvent {
+    UUID userId;
+    String status;
+    String planType;
+    Instant currentPeriodEnd;
+}
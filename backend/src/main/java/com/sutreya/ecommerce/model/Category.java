@@ -0,0 +1,33 @@
+package com.sutreya.ecommerce.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "categories", schema = "public")
+@Data
+public class Category {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+    
+    @Column(nullable = false)
+    private String name;
+    
+    @Column(unique = true, nullable = false)
+    private String slug;
+    
+    @Column(columnDefinition = "TEXT")
+    private String description;
+    
+    @Column(name = "image_url")
+    private String imageUrl;
+    
+    @Column(name = "parent_id")
+    private UUID parentId;
+    
+    @Column(name = "created_at")
+    private Instant createdAt = Instant.now();
+}
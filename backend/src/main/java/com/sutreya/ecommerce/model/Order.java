@@ -2,6 +2,7 @@ package com.sutreya.ecommerce.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnTransformer;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.UUID;
@@ -42,6 +43,7 @@ public class Order {
     private BigDecimal totalAmount;
     
     @Column(columnDefinition = "jsonb")
+    @ColumnTransformer(write = "?::jsonb")
     private String shippingAddress;
     
     @Column(name = "created_at")
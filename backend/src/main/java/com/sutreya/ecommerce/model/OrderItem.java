@@ -0,0 +1,37 @@
+package com.sutreya.ecommerce.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "order_items", schema = "public")
+@Data
+public class OrderItem {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+    
+    @Column(name = "order_id", nullable = false)
+    private UUID orderId;
+    
+    @Column(name = "product_id", nullable = false)
+    private UUID productId;
+    
+    @Column(name = "product_name", nullable = false)
+    private String productName;
+    
+    @Column(nullable = false)
+    private Integer quantity;
+    
+    @Column(name = "unit_price", nullable = false, precision = 10, scale = 2)
+    private BigDecimal unitPrice;
+    
+    @Column(name = "total_price", nullable = false, precision = 10, scale = 2)
+    private BigDecimal totalPrice;
+    
+    @Column(name = "created_at")
+    private Instant createdAt = Instant.now();
+}
@@ -2,6 +2,7 @@ package com.sutreya.ecommerce.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnTransformer;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.ArrayList;
@@ -19,6 +20,9 @@ public class Product {
     @Column(name = "seller_id", nullable = false)
     private UUID sellerId;
     
+    @Column(name = "category_id")
+    private UUID categoryId;
+    
     @Column(nullable = false)
     private String name;
     
@@ -41,6 +45,7 @@ public class Product {
     private Integer inventoryQuantity = 0;
     
     @Column(columnDefinition = "jsonb")
+    @ColumnTransformer(write = "?::jsonb")
     private String images;
     
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
@@ -53,6 +58,9 @@ public class Product {
     @Embedded
     private HandmadeAttributes handmadeAttributes;
     
+    @Column(columnDefinition = "text[]")
+    private String[] tags;
+    
     @Enumerated(EnumType.STRING)
     private ProductType type = ProductType.PHYSICAL;
     
@@ -2,6 +2,7 @@ package com.sutreya.ecommerce.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnTransformer;
 import java.time.Instant;
 import java.util.UUID;
 
@@ -21,6 +22,8 @@ public class ProductImage {
     private String storageKey;
     
     private String url;
+
+    private String thumbnailUrl;
     
     @Enumerated(EnumType.STRING)
     private MediaType type;
@@ -30,6 +33,7 @@ public class ProductImage {
     private Integer displayOrder;
     
     @Column(columnDefinition = "jsonb")
+    @ColumnTransformer(write = "?::jsonb")
     private String metadata;
     
     @Column(name = "created_at")
@@ -2,6 +2,7 @@ package com.sutreya.ecommerce.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnTransformer;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.UUID;
@@ -28,6 +29,7 @@ public class ProductVariant {
     private Integer inventoryQuantity = 0;
     
     @Column(columnDefinition = "jsonb")
+    @ColumnTransformer(write = "?::jsonb")
     private String options;
     
     private String imageUrl;
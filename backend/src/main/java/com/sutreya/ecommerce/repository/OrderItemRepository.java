@@ -0,0 +1,13 @@
+package com.sutreya.ecommerce.repository;
+
+import com.sutreya.ecommerce.model.OrderItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface OrderItemRepository extends JpaRepository<OrderItem, UUID> {
+    List<OrderItem> findByOrderId(UUID orderId);
+}
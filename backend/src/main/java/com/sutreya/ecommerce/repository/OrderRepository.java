@@ -1,13 +1,16 @@
 package com.sutreya.ecommerce.repository;
 
 import com.sutreya.ecommerce.model.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, UUID> {
-    List<Order> findByUserIdOrderByCreatedAtDesc(UUID userId);
+    Window<Order> findByUserId(UUID userId, ScrollPosition position, Sort sort, Limit limit);
 }
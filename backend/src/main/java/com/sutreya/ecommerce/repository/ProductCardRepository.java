@@ -0,0 +1,26 @@
+package com.sutreya.ecommerce.repository;
+
+import com.sutreya.ecommerce.dto.ProductCardDTO;
+import com.sutreya.ecommerce.model.Product;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Card projections for listings whose filters are only known at runtime, so they cannot be
+ * a fixed {@code @Query}.
+ */
+public interface ProductCardRepository {
+
+    Page<ProductCardDTO> findCards(Specification<Product> spec, Pageable pageable);
+
+    /**
+     * Scrolls forward from a keyset position. Each position in the returned window holds the
+     * sort's properties for that card, so a continuation token can be cut from any of them.
+     */
+    Window<ProductCardDTO> scrollCards(Specification<Product> spec, ScrollPosition position, Sort sort, Limit limit);
+}
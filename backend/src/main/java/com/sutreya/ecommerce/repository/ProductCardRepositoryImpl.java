@@ -0,0 +1,152 @@
+package com.sutreya.ecommerce.repository;
+
+import com.sutreya.ecommerce.dto.ProductCardDTO;
+import com.sutreya.ecommerce.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+class ProductCardRepositoryImpl implements ProductCardRepository {
+
+    private static final List<String> CARD_COLUMNS = List.of("id", "name", "slug", "price", "inventoryQuantity");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<ProductCardDTO> findCards(Specification<Product> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Product> product = query.from(Product.class);
+        query.multiselect(cardColumns(cb, product))
+            .where(spec.toPredicate(product, query, cb))
+            .orderBy(QueryUtils.toOrders(pageable.getSort(), product, cb));
+
+        List<ProductCardDTO> content = entityManager.createQuery(query)
+            .setFirstResult((int) pageable.getOffset())
+            .setMaxResults(pageable.getPageSize())
+            .getResultList().stream()
+            .map(ProductCardRepositoryImpl::toCard)
+            .toList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+    }
+
+    @Override
+    public Window<ProductCardDTO> scrollCards(Specification<Product> spec, ScrollPosition position, Sort sort,
+                                              Limit limit) {
+        if (!(position instanceof KeysetScrollPosition keyset) || keyset.scrollsBackward()) {
+            throw new IllegalArgumentException("Cards can only be scrolled forward by keyset");
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Product> product = query.from(Product.class);
+
+        List<Selection<?>> columns = cardColumns(cb, product);
+        for (Sort.Order order : sort) {
+            if (!CARD_COLUMNS.contains(order.getProperty())) {
+                columns.add(product.get(order.getProperty()).alias(order.getProperty()));
+            }
+        }
+        Predicate filter = spec.toPredicate(product, query, cb);
+        query.multiselect(columns)
+            .where(keyset.isInitial() ? filter : cb.and(filter, after(cb, product, sort, keyset.getKeys())))
+            .orderBy(QueryUtils.toOrders(sort, product, cb));
+
+        // one row past the limit says whether there is a next window without counting
+        List<Tuple> rows = entityManager.createQuery(query)
+            .setMaxResults(limit.max() + 1)
+            .getResultList();
+        boolean hasNext = rows.size() > limit.max();
+        List<Tuple> window = hasNext ? rows.subList(0, limit.max()) : rows;
+
+        List<ProductCardDTO> cards = window.stream().map(ProductCardRepositoryImpl::toCard).toList();
+        return Window.from(cards, index -> ScrollPosition.forward(keys(window.get(index), sort)), hasNext);
+    }
+
+    private long count(Specification<Product> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Product> product = query.from(Product.class);
+        query.select(cb.count(product)).where(spec.toPredicate(product, query, cb));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    /**
+     * Rows strictly after the given keys in the sort's order, as
+     * {@code k1 > v1 OR (k1 = v1 AND k2 > v2) ...}, with {@code <} for descending properties.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate after(CriteriaBuilder cb, Root<Product> product, Sort sort, Map<String, ?> keys) {
+        List<Predicate> alternatives = new ArrayList<>();
+        List<Predicate> equalSoFar = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            Path<Comparable> path = product.get(order.getProperty());
+            Comparable key = (Comparable) keys.get(order.getProperty());
+            List<Predicate> alternative = new ArrayList<>(equalSoFar);
+            alternative.add(order.isAscending() ? cb.greaterThan(path, key) : cb.lessThan(path, key));
+            alternatives.add(cb.and(alternative.toArray(Predicate[]::new)));
+            equalSoFar.add(cb.equal(path, key));
+        }
+        return cb.or(alternatives.toArray(Predicate[]::new));
+    }
+
+    private static Map<String, Object> keys(Tuple row, Sort sort) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        for (Sort.Order order : sort) {
+            keys.put(order.getProperty(), row.get(order.getProperty()));
+        }
+        return keys;
+    }
+
+    // same columns and thumbnail expression as ProductRepository.CARD_SELECT
+    private static List<Selection<?>> cardColumns(CriteriaBuilder cb, Root<Product> product) {
+        List<Selection<?>> columns = new ArrayList<>();
+        for (String column : CARD_COLUMNS) {
+            columns.add(product.get(column).alias(column));
+        }
+        Expression<String> images = product.get("images");
+        Expression<String> first = cb.function("jsonb_extract_path", String.class, images, cb.literal("0"));
+        columns.add(cb.coalesce(
+            cb.function("jsonb_extract_path_text", String.class, images, cb.literal("0"), cb.literal("url")),
+            cb.<String>selectCase()
+                .when(cb.equal(cb.function("jsonb_typeof", String.class, first), "string"),
+                    cb.function("jsonb_extract_path_text", String.class, images, cb.literal("0")))
+                .otherwise(cb.nullLiteral(String.class)))
+            .alias("thumbnailUrl"));
+        return columns;
+    }
+
+    private static ProductCardDTO toCard(Tuple row) {
+        return new ProductCardDTO(
+            row.get("id", UUID.class),
+            row.get("name", String.class),
+            row.get("slug", String.class),
+            row.get("price", BigDecimal.class),
+            row.get("inventoryQuantity", Integer.class),
+            row.get("thumbnailUrl", String.class));
+    }
+}
@@ -1,18 +1,40 @@
 package com.sutreya.ecommerce.repository;
 
+import com.sutreya.ecommerce.dto.ProductCardDTO;
 import com.sutreya.ecommerce.model.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, UUID> {
+public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpecificationExecutor<Product>,
+        ProductCardRepository {
+
+    // first entry of the images array, either a plain URL or an object with a url field
+    String CARD_SELECT = "SELECT new com.sutreya.ecommerce.dto.ProductCardDTO(p.id, p.name, p.slug, p.price, "
+        + "p.inventoryQuantity, cast(coalesce(function('jsonb_extract_path_text', p.images, '0', 'url'), "
+        + "case when function('jsonb_typeof', function('jsonb_extract_path', p.images, '0')) = 'string' "
+        + "then function('jsonb_extract_path_text', p.images, '0') end) as String)) FROM Product p ";
+
+    @Query(value = CARD_SELECT + "WHERE p.isActive = true",
+        countQuery = "SELECT count(p) FROM Product p WHERE p.isActive = true")
+    Page<ProductCardDTO> findCardsByIsActiveTrue(Pageable pageable);
+
     Page<Product> findByIsActiveTrue(Pageable pageable);
     Page<Product> findByNameContainingIgnoreCaseAndIsActiveTrue(String name, Pageable pageable);
     Optional<Product> findBySlugAndIsActiveTrue(String slug);
     Page<Product> findBySellerId(UUID sellerId, Pageable pageable);
+    Slice<Product> findByIsActiveTrueAndIdGreaterThan(UUID id, Pageable pageable);
+    Window<Product> findBySellerId(UUID sellerId, ScrollPosition position, Sort sort, Limit limit);
 }
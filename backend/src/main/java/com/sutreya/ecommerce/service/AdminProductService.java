@@ -1,40 +1,51 @@
 package com.sutreya.ecommerce.service;
 
 import com.sutreya.ecommerce.dto.CreateProductRequest;
+import com.sutreya.ecommerce.dto.CursorPage;
 import com.sutreya.ecommerce.dto.ProductDTO;
+import com.sutreya.ecommerce.event.ProductChangedEvent;
 import com.sutreya.ecommerce.model.HandmadeAttributes;
 import com.sutreya.ecommerce.model.Product;
 import com.sutreya.ecommerce.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class AdminProductService {
 
     private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MediaService mediaService;
 
     @Transactional
     public ProductDTO createProduct(CreateProductRequest request) {
         Product product = new Product();
         product.setSellerId(request.getSellerId());
+        product.setCategoryId(request.getCategoryId());
         product.setName(request.getName());
-        product.setSlug(generateSlug(request.getName()));
+        product.setSlug(SlugGenerator.generate(request.getName()));
         product.setDescription(request.getDescription());
         product.setShortDescription(request.getShortDescription());
         product.setPrice(request.getPrice());
         product.setCompareAtPrice(request.getCompareAtPrice());
         product.setInventoryQuantity(request.getInventoryQuantity());
         product.setType(request.getType() != null ? request.getType() : Product.ProductType.PHYSICAL);
+        product.setTags(ProductMapper.toTags(request.getTags()));
         
         if (request.getProcessingDays() != null) {
             HandmadeAttributes attrs = new HandmadeAttributes();
@@ -45,7 +56,8 @@ public class AdminProductService {
         }
         
         product = productRepository.save(product);
-        return toDTO(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(product.getId()));
+        return ProductMapper.toDTO(product);
     }
 
     @Transactional
@@ -59,10 +71,17 @@ public class AdminProductService {
         product.setPrice(request.getPrice());
         product.setCompareAtPrice(request.getCompareAtPrice());
         product.setInventoryQuantity(request.getInventoryQuantity());
+        if (request.getCategoryId() != null) {
+            product.setCategoryId(request.getCategoryId());
+        }
+        if (request.getTags() != null) {
+            product.setTags(ProductMapper.toTags(request.getTags()));
+        }
         product.setUpdatedAt(Instant.now());
         
         product = productRepository.save(product);
-        return toDTO(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(product.getId()));
+        return ProductMapper.toDTO(product);
     }
 
     @Transactional
@@ -71,36 +90,30 @@ public class AdminProductService {
             .orElseThrow(() -> new RuntimeException("Product not found"));
         product.setIsActive(false);
         productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(id));
     }
 
-    public List<String> uploadMedia(UUID productId, List<MultipartFile> files) {
-        // Placeholder for media upload - integrate with Supabase Storage
-        return files.stream()
-            .map(file -> "https://storage.supabase.co/products/" + productId + "/" + file.getOriginalFilename())
-            .collect(Collectors.toList());
+    public List<Map<String, Object>> uploadMedia(UUID productId, List<MultipartFile> files) {
+        return mediaService.upload(productId, files);
     }
 
-    public Page<ProductDTO> getSellerProducts(UUID sellerId, Pageable pageable) {
-        Page<Product> products = productRepository.findBySellerId(sellerId, pageable);
-        return products.map(this::toDTO);
+    public Map<String, Object> uploadMedia(UUID productId, String filename, String contentType, InputStream body) {
+        return mediaService.upload(productId, filename, contentType, body);
     }
 
-    private String generateSlug(String name) {
-        return name.toLowerCase()
-            .replaceAll("[^a-z0-9\\s-]", "")
-            .replaceAll("\\s+", "-")
-            + "-" + UUID.randomUUID().toString().substring(0, 8);
+    public Page<ProductDTO> getSellerProducts(UUID sellerId, Pageable pageable) {
+        Page<Product> products = productRepository.findBySellerId(sellerId, pageable);
+        return products.map(ProductMapper::toDTO);
     }
 
-    private ProductDTO toDTO(Product product) {
-        ProductDTO dto = new ProductDTO();
-        dto.setId(product.getId());
-        dto.setName(product.getName());
-        dto.setSlug(product.getSlug());
-        dto.setDescription(product.getDescription());
-        dto.setPrice(product.getPrice());
-        dto.setInventoryQuantity(product.getInventoryQuantity());
-        dto.setImages(product.getImages());
-        return dto;
+    public CursorPage<ProductDTO> getSellerProductsByCursor(UUID sellerId, String cursor, int size, String sort) {
+        Sort.Order order = KeysetCursors.parseSort(sort);
+        KeysetCursors.Cursor after = KeysetCursors.decode(cursor, order);
+        Window<Product> window = productRepository.findBySellerId(
+            sellerId, KeysetCursors.position(after, order), KeysetCursors.keysetSort(order), Limit.of(size));
+        return KeysetCursors.page(window.getContent(), window.hasNext(), order,
+            product -> KeysetCursors.sortKey(order, product.getCreatedAt(), product.getPrice()),
+            Product::getId,
+            ProductMapper::toDTO);
     }
 }
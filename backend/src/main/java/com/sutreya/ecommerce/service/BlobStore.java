@@ -0,0 +1,31 @@
+package com.sutreya.ecommerce.service;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Content-addressed storage for media bytes. A blob's key is the SHA-256 of its content plus
+ * the format extension, so storing the same bytes twice yields the same key and one copy.
+ */
+public interface BlobStore {
+
+    record Blob(String key, long size, boolean created) {
+    }
+
+    Blob put(ReadableByteChannel source, String extension) throws IOException;
+
+    boolean exists(String key);
+
+    FileChannel open(String key) throws IOException;
+
+    /**
+     * The blob's file when the store keeps blobs on the local filesystem, which lets the
+     * container send it with sendfile.
+     */
+    default Optional<Path> localPath(String key) {
+        return Optional.empty();
+    }
+}
@@ -1,55 +1,222 @@
 package com.sutreya.ecommerce.service;
 
-import com.sutreya.ecommerce.model.Product;
-import com.sutreya.ecommerce.repository.ProductRepository;
+import com.sutreya.ecommerce.event.ProductChangedEvent;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.sql.PreparedStatement;
 import java.util.*;
+import java.util.function.Function;
 
+/**
+ * Applies bulk price and inventory changes in fixed-size chunks. Each chunk is one transaction
+ * of set-based or batched JDBC statements, so entities are never loaded and memory does not
+ * grow with the job. Every committed chunk is checkpointed in {@code bulk_job_chunks}; running
+ * the same job id again skips those chunks, which makes a job resumable after a failure.
+ */
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class BulkProductService {
 
-    private final ProductRepository productRepository;
+    private static final int MAX_REPORTED_FAILURES = 1000;
+    private static final UUID MIN_ID = new UUID(0L, 0L);
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${bulk.chunk-size:1000}")
+    private int chunkSize;
+
+    private record ChunkResult(List<UUID> updated, Map<UUID, String> failures) {
+    }
 
-    @Transactional
     public Map<String, Object> updatePrices(List<UUID> productIds, BigDecimal percentageChange) {
-        List<Product> products = productRepository.findAllById(productIds);
-        int successCount = 0;
-        
-        for (Product product : products) {
-            BigDecimal newPrice = product.getPrice()
-                .multiply(BigDecimal.ONE.add(percentageChange.divide(BigDecimal.valueOf(100))));
-            product.setPrice(newPrice);
-            successCount++;
-        }
-        
-        productRepository.saveAll(products);
-        
-        Map<String, Object> result = new HashMap<>();
-        result.put("success", successCount);
-        result.put("failed", productIds.size() - successCount);
-        return result;
+        return updatePrices(UUID.randomUUID(), productIds, percentageChange);
+    }
+
+    public Map<String, Object> updatePrices(UUID jobId, List<UUID> productIds, BigDecimal percentageChange) {
+        BigDecimal multiplier = priceMultiplier(percentageChange);
+        List<UUID> ids = productIds != null ? new ArrayList<>(new LinkedHashSet<>(productIds)) : List.of();
+        return run(jobId, "PRICE", partition(ids).iterator(), chunk -> updatePriceChunk(chunk, multiplier));
+    }
+
+    public Map<String, Object> updateSellerPrices(UUID jobId, UUID sellerId, BigDecimal percentageChange) {
+        BigDecimal multiplier = priceMultiplier(percentageChange);
+        return run(jobId, "PRICE", sellerProductIds(sellerId), chunk -> updatePriceChunk(chunk, multiplier));
     }
 
-    @Transactional
     public Map<String, Object> bulkUpdateInventory(Map<UUID, Integer> updates) {
-        List<Product> products = productRepository.findAllById(updates.keySet());
-        
-        for (Product product : products) {
-            Integer newQuantity = updates.get(product.getId());
-            if (newQuantity != null) {
-                product.setInventoryQuantity(newQuantity);
+        return bulkUpdateInventory(UUID.randomUUID(), updates);
+    }
+
+    public Map<String, Object> bulkUpdateInventory(UUID jobId, Map<UUID, Integer> updates) {
+        List<Map.Entry<UUID, Integer>> entries = new ArrayList<>(updates.entrySet());
+        return run(jobId, "INVENTORY", partition(entries).iterator(), this::updateInventoryChunk);
+    }
+
+    private <T> Map<String, Object> run(UUID jobId, String jobType, Iterator<List<T>> chunks,
+                                        Function<List<T>, ChunkResult> worker) {
+        Map<Integer, int[]> completed = new HashMap<>();
+        jdbcTemplate.query("SELECT chunk_index, succeeded, failed FROM bulk_job_chunks WHERE job_id = ?",
+            rs -> {
+                completed.put(rs.getInt("chunk_index"), new int[]{rs.getInt("succeeded"), rs.getInt("failed")});
+            }, jobId);
+
+        long succeeded = 0;
+        long failed = 0;
+        int skipped = 0;
+        int chunkIndex = 0;
+        List<Map<String, Object>> failures = new ArrayList<>();
+        String status = "COMPLETED";
+
+        for (; chunks.hasNext(); chunkIndex++) {
+            List<T> chunk = chunks.next();
+            int[] checkpoint = completed.get(chunkIndex);
+            if (checkpoint != null) {
+                succeeded += checkpoint[0];
+                failed += checkpoint[1];
+                skipped++;
+                continue;
+            }
+
+            int index = chunkIndex;
+            ChunkResult result;
+            try {
+                result = transactionTemplate.execute(tx -> {
+                    ChunkResult chunkResult = worker.apply(chunk);
+                    jdbcTemplate.update(
+                        "INSERT INTO bulk_job_chunks (job_id, chunk_index, job_type, succeeded, failed) VALUES (?, ?, ?, ?, ?)",
+                        jobId, index, jobType, chunkResult.updated().size(), chunkResult.failures().size());
+                    if (!chunkResult.updated().isEmpty()) {
+                        eventPublisher.publishEvent(ProductChangedEvent.of(chunkResult.updated()));
+                    }
+                    return chunkResult;
+                });
+            } catch (Exception e) {
+                log.error("Bulk {} job {} failed at chunk {}", jobType, jobId, index, e);
+                status = "FAILED";
+                break;
+            }
+
+            succeeded += result.updated().size();
+            failed += result.failures().size();
+            for (Map.Entry<UUID, String> failure : result.failures().entrySet()) {
+                if (failures.size() < MAX_REPORTED_FAILURES) {
+                    failures.add(Map.of("productId", failure.getKey(), "reason", failure.getValue()));
+                }
             }
         }
-        
-        productRepository.saveAll(products);
-        
+
         Map<String, Object> result = new HashMap<>();
-        result.put("updated", products.size());
+        result.put("jobId", jobId);
+        result.put("status", status);
+        result.put("chunks", chunkIndex);
+        result.put("skippedChunks", skipped);
+        result.put("success", succeeded);
+        result.put("failed", failed);
+        result.put("failures", failures);
         return result;
     }
+
+    private ChunkResult updatePriceChunk(List<UUID> productIds, BigDecimal multiplier) {
+        Set<UUID> updated = new LinkedHashSet<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                "UPDATE products SET price = price * ?, version = version + 1, updated_at = NOW() "
+                    + "WHERE id = ANY(?) RETURNING id");
+            statement.setBigDecimal(1, multiplier);
+            statement.setArray(2, connection.createArrayOf("uuid", productIds.toArray()));
+            return statement;
+        }, rs -> {
+            updated.add(rs.getObject("id", UUID.class));
+        });
+
+        Map<UUID, String> failures = new LinkedHashMap<>();
+        for (UUID productId : productIds) {
+            if (!updated.contains(productId)) {
+                failures.put(productId, "Product not found");
+            }
+        }
+        return new ChunkResult(new ArrayList<>(updated), failures);
+    }
+
+    private ChunkResult updateInventoryChunk(List<Map.Entry<UUID, Integer>> updates) {
+        Map<UUID, String> failures = new LinkedHashMap<>();
+        List<UUID> batchIds = new ArrayList<>(updates.size());
+        List<Object[]> batch = new ArrayList<>(updates.size());
+        for (Map.Entry<UUID, Integer> update : updates) {
+            if (update.getValue() == null || update.getValue() < 0) {
+                failures.put(update.getKey(), "Invalid quantity");
+            } else {
+                batchIds.add(update.getKey());
+                batch.add(new Object[]{update.getValue(), update.getKey()});
+            }
+        }
+
+        List<UUID> updated = new ArrayList<>(batchIds.size());
+        if (!batch.isEmpty()) {
+            int[] counts = jdbcTemplate.batchUpdate(
+                "UPDATE products SET inventory_quantity = ?, version = version + 1, updated_at = NOW() WHERE id = ?",
+                batch);
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    failures.put(batchIds.get(i), "Product not found");
+                } else {
+                    updated.add(batchIds.get(i));
+                }
+            }
+        }
+        return new ChunkResult(updated, failures);
+    }
+
+    private Iterator<List<UUID>> sellerProductIds(UUID sellerId) {
+        return new Iterator<>() {
+            private List<UUID> next = fetch(MIN_ID);
+
+            @Override
+            public boolean hasNext() {
+                return !next.isEmpty();
+            }
+
+            @Override
+            public List<UUID> next() {
+                if (next.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                List<UUID> current = next;
+                next = current.size() < chunkSize ? List.of() : fetch(current.get(current.size() - 1));
+                return current;
+            }
+
+            private List<UUID> fetch(UUID after) {
+                return jdbcTemplate.queryForList(
+                    "SELECT id FROM products WHERE seller_id = ? AND id > ? ORDER BY id LIMIT ?",
+                    UUID.class, sellerId, after, chunkSize);
+            }
+        };
+    }
+
+    private <T> List<List<T>> partition(List<T> items) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += chunkSize) {
+            chunks.add(items.subList(from, Math.min(from + chunkSize, items.size())));
+        }
+        return chunks;
+    }
+
+    private static BigDecimal priceMultiplier(BigDecimal percentageChange) {
+        if (percentageChange == null || percentageChange.compareTo(HUNDRED.negate()) <= 0) {
+            throw new IllegalArgumentException("Percentage change must be greater than -100");
+        }
+        return BigDecimal.ONE.add(percentageChange.divide(HUNDRED));
+    }
 }
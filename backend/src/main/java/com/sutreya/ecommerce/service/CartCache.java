@@ -0,0 +1,110 @@
+package com.sutreya.ecommerce.service;
+
+import com.sutreya.ecommerce.model.CartItem;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-user carts kept in memory, least recently used carts are evicted. A cart is loaded
+ * lazily; callers {@link #lock} the user for the duration of a load or a write-through, and
+ * only then {@link #get} the cart, so the cached lines always match what was last written for
+ * that user. The locks are striped by user id and live outside the cache: a cart evicted while
+ * its user is locked is reloaded under the same lock, never beside it. They are
+ * {@link ReentrantLock}s rather than monitors because they are held across database calls,
+ * which would pin a virtual thread to its carrier.
+ */
+@Component
+public class CartCache {
+
+    private static final int LOCK_STRIPES = 1024;
+
+    private final Map<UUID, UserCart> carts;
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    public CartCache(@Value("${cart.cache-size:50000}") int cacheSize) {
+        this.carts = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, UserCart> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public static final class UserCart {
+        private final Map<UUID, CartItem> items = new LinkedHashMap<>();
+        private boolean loaded;
+
+        public boolean isLoaded() {
+            return loaded;
+        }
+
+        public void load(List<CartItem> cartItems) {
+            items.clear();
+            for (CartItem item : cartItems) {
+                items.put(item.getProductId(), item);
+            }
+            loaded = true;
+        }
+
+        public void put(CartItem item) {
+            if (loaded) {
+                items.put(item.getProductId(), item);
+            }
+        }
+
+        public void remove(UUID productId) {
+            items.remove(productId);
+        }
+
+        public void clear() {
+            items.clear();
+            loaded = true;
+        }
+
+        public List<CartItem> items() {
+            return new ArrayList<>(items.values());
+        }
+
+        public int size() {
+            return items.size();
+        }
+    }
+
+    public void lock(UUID userId) {
+        lockFor(userId).lock();
+    }
+
+    public void unlock(UUID userId) {
+        lockFor(userId).unlock();
+    }
+
+    /**
+     * Returns the user's cart, creating an empty, unloaded one if it is not cached. Call it
+     * with the user locked.
+     */
+    public UserCart get(UUID userId) {
+        synchronized (carts) {
+            return carts.computeIfAbsent(userId, id -> new UserCart());
+        }
+    }
+
+    public void evict(UUID userId) {
+        synchronized (carts) {
+            carts.remove(userId);
+        }
+    }
+
+    private ReentrantLock lockFor(UUID userId) {
+        return locks[(userId.hashCode() & 0x7fffffff) % LOCK_STRIPES];
+    }
+}
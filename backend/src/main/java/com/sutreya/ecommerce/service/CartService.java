@@ -1,63 +1,210 @@
 package com.sutreya.ecommerce.service;
 
+import com.sutreya.ecommerce.dto.CartLineDTO;
+import com.sutreya.ecommerce.dto.CartViewDTO;
 import com.sutreya.ecommerce.model.CartItem;
 import com.sutreya.ecommerce.repository.CartItemRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
 public class CartService {
     
+    private static final int LOW_STOCK_THRESHOLD = 5;
+    
+    private static final String RETURNING = " RETURNING id, user_id, product_id, quantity, created_at, updated_at";
+    
     @Autowired
     private CartItemRepository cartItemRepository;
     
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private CartCache cartCache;
+    
     public List<CartItem> getCartItems(UUID userId) {
-        return cartItemRepository.findByUserId(userId);
+        cartCache.lock(userId);
+        try {
+            CartCache.UserCart cart = cartCache.get(userId);
+            ensureLoaded(userId, cart);
+            return cart.items();
+        } finally {
+            cartCache.unlock(userId);
+        }
     }
     
-    @Transactional
     public CartItem addToCart(UUID userId, UUID productId, Integer quantity) {
-        var existing = cartItemRepository.findByUserIdAndProductId(userId, productId);
-        
-        if (existing.isPresent()) {
-            CartItem item = existing.get();
-            item.setQuantity(item.getQuantity() + quantity);
-            return cartItemRepository.save(item);
+        cartCache.lock(userId);
+        try {
+            CartCache.UserCart cart = cartCache.get(userId);
+            CartItem item = jdbcTemplate.queryForObject(
+                "INSERT INTO cart_items (user_id, product_id, quantity) VALUES (?, ?, ?) "
+                    + "ON CONFLICT (user_id, product_id) DO UPDATE "
+                    + "SET quantity = cart_items.quantity + EXCLUDED.quantity, updated_at = NOW()" + RETURNING,
+                CART_ITEM, userId, productId, quantity);
+            cart.put(item);
+            return item;
+        } finally {
+            cartCache.unlock(userId);
         }
-        
-        CartItem newItem = new CartItem();
-        newItem.setUserId(userId);
-        newItem.setProductId(productId);
-        newItem.setQuantity(quantity);
-        return cartItemRepository.save(newItem);
     }
     
-    @Transactional
     public CartItem updateQuantity(UUID userId, UUID productId, Integer quantity) {
-        var item = cartItemRepository.findByUserIdAndProductId(userId, productId)
-            .orElseThrow(() -> new RuntimeException("Cart item not found"));
-        
-        item.setQuantity(quantity);
-        return cartItemRepository.save(item);
+        cartCache.lock(userId);
+        try {
+            CartCache.UserCart cart = cartCache.get(userId);
+            List<CartItem> updated = jdbcTemplate.query(
+                "UPDATE cart_items SET quantity = ?, updated_at = NOW() WHERE user_id = ? AND product_id = ?" + RETURNING,
+                CART_ITEM, quantity, userId, productId);
+            if (updated.isEmpty()) {
+                throw new RuntimeException("Cart item not found");
+            }
+            cart.put(updated.get(0));
+            return updated.get(0);
+        } finally {
+            cartCache.unlock(userId);
+        }
     }
     
-    @Transactional
     public void removeFromCart(UUID userId, UUID productId) {
-        var item = cartItemRepository.findByUserIdAndProductId(userId, productId)
-            .orElseThrow(() -> new RuntimeException("Cart item not found"));
-        cartItemRepository.delete(item);
+        cartCache.lock(userId);
+        try {
+            CartCache.UserCart cart = cartCache.get(userId);
+            int deleted = jdbcTemplate.update(
+                "DELETE FROM cart_items WHERE user_id = ? AND product_id = ?", userId, productId);
+            if (deleted == 0) {
+                throw new RuntimeException("Cart item not found");
+            }
+            cart.remove(productId);
+        } finally {
+            cartCache.unlock(userId);
+        }
     }
     
-    @Transactional
     public void clearCart(UUID userId) {
-        cartItemRepository.deleteByUserId(userId);
+        cartCache.lock(userId);
+        try {
+            CartCache.UserCart cart = cartCache.get(userId);
+            jdbcTemplate.update("DELETE FROM cart_items WHERE user_id = ?", userId);
+            cart.clear();
+        } finally {
+            cartCache.unlock(userId);
+        }
     }
     
     public long getCartCount(UUID userId) {
-        return cartItemRepository.countByUserId(userId);
+        cartCache.lock(userId);
+        try {
+            CartCache.UserCart cart = cartCache.get(userId);
+            ensureLoaded(userId, cart);
+            return cart.size();
+        } finally {
+            cartCache.unlock(userId);
+        }
     }
+    
+    /**
+     * Storefront view of the cart. Lines come from the cart cache and every product is
+     * fetched in one {@code id = ANY(?)} lookup of just the rendered columns.
+     */
+    public CartViewDTO getCartView(UUID userId) {
+        List<CartItem> items = getCartItems(userId);
+        Map<UUID, CartProduct> products = findProducts(items);
+        
+        List<CartLineDTO> lines = new ArrayList<>(items.size());
+        BigDecimal subtotal = BigDecimal.ZERO;
+        int itemCount = 0;
+        boolean checkoutReady = !items.isEmpty();
+        for (CartItem item : items) {
+            CartProduct product = products.get(item.getProductId());
+            CartLineDTO line = new CartLineDTO();
+            line.setProductId(item.getProductId());
+            line.setQuantity(item.getQuantity());
+            if (product == null || !product.active()) {
+                line.setStockStatus("UNAVAILABLE");
+                line.setAvailableQuantity(0);
+                checkoutReady = false;
+            } else {
+                BigDecimal lineTotal = product.price().multiply(BigDecimal.valueOf(item.getQuantity()));
+                line.setName(product.name());
+                line.setSlug(product.slug());
+                line.setThumbnailUrl(ProductMapper.firstImageUrl(product.images()));
+                line.setUnitPrice(product.price());
+                line.setLineTotal(lineTotal);
+                line.setAvailableQuantity(product.inventoryQuantity());
+                String stockStatus = stockStatus(item.getQuantity(), product.inventoryQuantity());
+                line.setStockStatus(stockStatus);
+                subtotal = subtotal.add(lineTotal);
+                itemCount += item.getQuantity();
+                checkoutReady &= stockStatus.equals("IN_STOCK") || stockStatus.equals("LOW_STOCK");
+            }
+            lines.add(line);
+        }
+        return new CartViewDTO(userId, lines, lines.size(), itemCount, subtotal, checkoutReady);
+    }
+    
+    private record CartProduct(String name, String slug, BigDecimal price, int inventoryQuantity,
+                               String images, boolean active) {
+    }
+    
+    private Map<UUID, CartProduct> findProducts(List<CartItem> items) {
+        Map<UUID, CartProduct> products = new HashMap<>();
+        if (items.isEmpty()) {
+            return products;
+        }
+        Object[] productIds = items.stream().map(CartItem::getProductId).toArray();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                "SELECT id, name, slug, price, inventory_quantity, images, is_active FROM products WHERE id = ANY(?)");
+            statement.setArray(1, connection.createArrayOf("uuid", productIds));
+            return statement;
+        }, rs -> {
+            products.put(rs.getObject("id", UUID.class), new CartProduct(
+                rs.getString("name"),
+                rs.getString("slug"),
+                rs.getBigDecimal("price"),
+                rs.getInt("inventory_quantity"),
+                rs.getString("images"),
+                rs.getBoolean("is_active")));
+        });
+        return products;
+    }
+    
+    private static String stockStatus(int quantity, int available) {
+        if (available <= 0) {
+            return "OUT_OF_STOCK";
+        }
+        if (quantity > available) {
+            return "INSUFFICIENT_STOCK";
+        }
+        return available <= LOW_STOCK_THRESHOLD ? "LOW_STOCK" : "IN_STOCK";
+    }
+    
+    private void ensureLoaded(UUID userId, CartCache.UserCart cart) {
+        if (!cart.isLoaded()) {
+            cart.load(cartItemRepository.findByUserId(userId));
+        }
+    }
+    
+    private static final RowMapper<CartItem> CART_ITEM = (rs, rowNum) -> {
+        CartItem item = new CartItem();
+        item.setId(rs.getObject("id", UUID.class));
+        item.setUserId(rs.getObject("user_id", UUID.class));
+        item.setProductId(rs.getObject("product_id", UUID.class));
+        item.setQuantity(rs.getInt("quantity"));
+        item.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+        item.setUpdatedAt(rs.getTimestamp("updated_at").toLocalDateTime());
+        return item;
+    };
 }
@@ -0,0 +1,38 @@
+package com.sutreya.ecommerce.service;
+
+import java.util.Locale;
+
+public enum CatalogFormat {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String extension;
+
+    CatalogFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static CatalogFormat parse(String format, String contentType) {
+        if (format != null && !format.isBlank()) {
+            try {
+                return valueOf(format.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported format: " + format);
+            }
+        }
+        if (contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith(CSV.contentType)) {
+            return CSV;
+        }
+        return NDJSON;
+    }
+}
@@ -0,0 +1,101 @@
+package com.sutreya.ecommerce.service;
+
+import com.sutreya.ecommerce.model.Category;
+import com.sutreya.ecommerce.repository.CategoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryTree {
+
+    private final CategoryRepository categoryRepository;
+
+    // held across the repository read, so a lock rather than a monitor that would pin a virtual thread
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    private volatile Map<UUID, Category> byId = Map.of();
+    private volatile Map<String, Category> bySlug = Map.of();
+    private volatile Map<UUID, List<UUID>> children = Map.of();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.error("Failed to load category tree", e);
+        }
+    }
+
+    public void reload() {
+        reloadLock.lock();
+        try {
+            Map<UUID, Category> newById = new HashMap<>();
+            Map<String, Category> newBySlug = new HashMap<>();
+            Map<UUID, List<UUID>> newChildren = new HashMap<>();
+
+            for (Category category : categoryRepository.findAll()) {
+                newById.put(category.getId(), category);
+                newBySlug.put(category.getSlug(), category);
+                if (category.getParentId() != null) {
+                    newChildren.computeIfAbsent(category.getParentId(), k -> new ArrayList<>()).add(category.getId());
+                }
+            }
+
+            byId = newById;
+            bySlug = newBySlug;
+            children = newChildren;
+            log.info("Loaded {} categories", newById.size());
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    public Optional<Category> resolve(String idOrSlug) {
+        Category category = bySlug.get(idOrSlug);
+        if (category == null) {
+            try {
+                category = byId.get(UUID.fromString(idOrSlug));
+            } catch (IllegalArgumentException ignored) {
+                // not a UUID, fall through
+            }
+        }
+        return Optional.ofNullable(category);
+    }
+
+    public Category get(UUID id) {
+        return byId.get(id);
+    }
+
+    public Set<UUID> subtree(UUID rootId) {
+        Set<UUID> subtree = new LinkedHashSet<>();
+        Deque<UUID> pending = new ArrayDeque<>();
+        pending.add(rootId);
+        while (!pending.isEmpty()) {
+            UUID id = pending.poll();
+            if (subtree.add(id)) {
+                pending.addAll(children.getOrDefault(id, List.of()));
+            }
+        }
+        return subtree;
+    }
+
+    public List<UUID> ancestorsAndSelf(UUID id) {
+        List<UUID> path = new ArrayList<>();
+        Set<UUID> seen = new HashSet<>();
+        UUID current = id;
+        while (current != null && seen.add(current)) {
+            path.add(current);
+            Category category = byId.get(current);
+            current = category != null ? category.getParentId() : null;
+        }
+        return path;
+    }
+}
@@ -0,0 +1,227 @@
+package com.sutreya.ecommerce.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sutreya.ecommerce.dto.CheckoutRequest;
+import com.sutreya.ecommerce.event.OrderPlacedEvent;
+import com.sutreya.ecommerce.event.ProductChangedEvent;
+import com.sutreya.ecommerce.model.CartItem;
+import com.sutreya.ecommerce.model.Order;
+import com.sutreya.ecommerce.model.OrderItem;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Turns a user's cart into an order. Stock for every line is first reserved in
+ * {@link InventoryService}, which turns away checkouts this instance already knows cannot be
+ * served without touching the database. One transaction then takes the stock with guarded
+ * decrements, {@code inventory_quantity >= ?}, prices the lines from the product rows and writes
+ * the order, its items and the cart deletion with batched statements, so the order and its
+ * stock change commit or roll back together on every instance. The reservations only hold the
+ * stock until then and are released either way. The user's cart stays locked for the whole
+ * checkout, so it cannot change between pricing and clearing.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CheckoutService {
+
+    private static final String INSERT_ORDER_SQL =
+        "INSERT INTO orders (id, user_id, order_number, status, payment_status, fulfillment_status, subtotal, "
+            + "tax_amount, shipping_amount, total_amount, shipping_address, billing_address, notes, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?::jsonb, ?::jsonb, ?, ?, ?)";
+
+    private static final String DECREMENT_SQL =
+        "UPDATE products SET inventory_quantity = inventory_quantity - ?, version = version + 1, updated_at = NOW() "
+            + "WHERE id = ? AND inventory_quantity >= ?";
+
+    private static final String INSERT_ITEM_SQL =
+        "INSERT INTO order_items (id, order_id, product_id, product_name, quantity, unit_price, total_price, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final InventoryService inventoryService;
+    private final CartService cartService;
+    private final CartCache cartCache;
+    private final OrderNumberGenerator orderNumberGenerator;
+
+    private record PricedProduct(UUID sellerId, String name, BigDecimal price, boolean active) {
+    }
+
+    public Map<String, Object> checkout(CheckoutRequest request) {
+        if (request.getUserId() == null) {
+            throw new IllegalArgumentException("User id is required");
+        }
+        if (request.getShippingAddress() == null || request.getShippingAddress().isEmpty()) {
+            throw new IllegalArgumentException("Shipping address is required");
+        }
+        UUID userId = request.getUserId();
+        String shippingAddress = toJson(request.getShippingAddress());
+        String billingAddress = request.getBillingAddress() != null ? toJson(request.getBillingAddress()) : null;
+
+        cartCache.lock(userId);
+        try {
+            List<CartItem> lines = new ArrayList<>(cartService.getCartItems(userId));
+            if (lines.isEmpty()) {
+                throw new RuntimeException("Cart is empty");
+            }
+
+            List<UUID> reservations = new ArrayList<>(lines.size());
+            Map<String, Object> result;
+            try {
+                for (CartItem line : lines) {
+                    reservations.add(inventoryService.reserve(line.getProductId(), line.getQuantity()).id());
+                }
+                result = transactionTemplate.execute(tx ->
+                    placeOrder(userId, lines, shippingAddress, billingAddress, request.getNotes()));
+            } finally {
+                // the order's transaction took the stock, or nothing was taken; the engine picks up
+                // the stored quantities from the ProductChangedEvent
+                reservations.forEach(this::release);
+            }
+            cartCache.get(userId).clear();
+            return result;
+        } finally {
+            cartCache.unlock(userId);
+        }
+    }
+
+    private void release(UUID reservationId) {
+        try {
+            inventoryService.releaseReservation(reservationId);
+        } catch (RuntimeException e) {
+            log.warn("Could not release reservation {}", reservationId, e);
+        }
+    }
+
+    private Map<String, Object> placeOrder(UUID userId, List<CartItem> lines, String shippingAddress,
+                                           String billingAddress, String notes) {
+        takeStock(lines);
+
+        // the decrements hold the rows' locks, so no price change commits while the order is priced
+        Map<UUID, PricedProduct> products = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                "SELECT id, seller_id, name, price, is_active FROM products WHERE id = ANY(?)");
+            statement.setArray(1, connection.createArrayOf("uuid",
+                lines.stream().map(CartItem::getProductId).toArray()));
+            return statement;
+        }, rs -> {
+            products.put(rs.getObject("id", UUID.class),
+                new PricedProduct(rs.getObject("seller_id", UUID.class), rs.getString("name"), rs.getBigDecimal("price"),
+                    rs.getBoolean("is_active")));
+        });
+        for (CartItem line : lines) {
+            PricedProduct product = products.get(line.getProductId());
+            if (product == null || !product.active()) {
+                throw new RuntimeException("Product " + line.getProductId() + " is no longer available");
+            }
+        }
+
+        Instant now = Instant.now();
+        Timestamp timestamp = Timestamp.from(now);
+        Order order = new Order();
+        order.setId(UUID.randomUUID());
+        order.setUserId(userId);
+        order.setOrderNumber(orderNumberGenerator.next());
+        order.setShippingAddress(shippingAddress);
+        order.setCreatedAt(now);
+
+        List<OrderItem> items = new ArrayList<>(lines.size());
+        List<OrderPlacedEvent.Line> placedLines = new ArrayList<>(lines.size());
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (CartItem line : lines) {
+            PricedProduct product = products.get(line.getProductId());
+            OrderItem item = new OrderItem();
+            item.setId(UUID.randomUUID());
+            item.setOrderId(order.getId());
+            item.setProductId(line.getProductId());
+            item.setProductName(product.name());
+            item.setQuantity(line.getQuantity());
+            item.setUnitPrice(product.price());
+            item.setTotalPrice(product.price().multiply(BigDecimal.valueOf(line.getQuantity())));
+            item.setCreatedAt(now);
+            items.add(item);
+            placedLines.add(new OrderPlacedEvent.Line(item.getProductId(), product.sellerId(), item.getProductName(),
+                item.getQuantity(), item.getTotalPrice()));
+            subtotal = subtotal.add(item.getTotalPrice());
+        }
+        order.setSubtotal(subtotal);
+        order.setTotalAmount(subtotal.add(order.getTaxAmount()).add(order.getShippingAmount()));
+
+        jdbcTemplate.update(INSERT_ORDER_SQL, order.getId(), userId, order.getOrderNumber(), order.getStatus(),
+            order.getPaymentStatus(), order.getFulfillmentStatus(), order.getSubtotal(), order.getTaxAmount(),
+            order.getShippingAmount(), order.getTotalAmount(), shippingAddress, billingAddress, notes,
+            timestamp, timestamp);
+        jdbcTemplate.batchUpdate(INSERT_ITEM_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                OrderItem item = items.get(i);
+                ps.setObject(1, item.getId());
+                ps.setObject(2, item.getOrderId());
+                ps.setObject(3, item.getProductId());
+                ps.setString(4, item.getProductName());
+                ps.setInt(5, item.getQuantity());
+                ps.setBigDecimal(6, item.getUnitPrice());
+                ps.setBigDecimal(7, item.getTotalPrice());
+                ps.setTimestamp(8, timestamp);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return items.size();
+            }
+        });
+        jdbcTemplate.update("DELETE FROM cart_items WHERE user_id = ?", userId);
+
+        // both delivered after commit
+        eventPublisher.publishEvent(ProductChangedEvent.of(products.keySet()));
+        eventPublisher.publishEvent(new OrderPlacedEvent(order.getId(), userId, order.getOrderNumber(),
+            order.getTotalAmount(), placedLines, now));
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("order", order);
+        result.put("items", items);
+        return result;
+    }
+
+    /**
+     * Decrements every line's stock, or throws if any product has less than the line asks for.
+     * Rows are locked in product id order so concurrent checkouts of the same products cannot
+     * deadlock.
+     */
+    private void takeStock(List<CartItem> lines) {
+        List<CartItem> ordered = lines.stream().sorted(Comparator.comparing(CartItem::getProductId)).toList();
+        int[] counts = jdbcTemplate.batchUpdate(DECREMENT_SQL, ordered.stream()
+            .map(line -> new Object[]{line.getQuantity(), line.getProductId(), line.getQuantity()})
+            .toList());
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                throw new RuntimeException("Insufficient inventory for product " + ordered.get(i).getProductId());
+            }
+        }
+    }
+
+    private String toJson(Map<String, Object> value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid address: " + e.getOriginalMessage(), e);
+        }
+    }
+}
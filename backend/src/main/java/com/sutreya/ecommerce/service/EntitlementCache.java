@@ -0,0 +1,125 @@
+package com.sutreya.ecommerce.service;
+
+import com.sutreya.ecommerce.event.SubscriptionChangedEvent;
+import com.sutreya.ecommerce.model.Subscription;
+import com.sutreya.ecommerce.repository.SubscriptionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Subscription state per user, kept current from committed subscription changes. Active
+ * entitlements are put on a timing wheel at their {@code currentPeriodEnd} and flipped to
+ * EXPIRED when it passes, so checks never go back to the subscriptions table.
+ */
+@Component
+@Slf4j
+public class EntitlementCache {
+
+    private static final String ACTIVE = "ACTIVE";
+    private static final String EXPIRED = "EXPIRED";
+
+    public record Entitlement(String status, String planType, Instant currentPeriodEnd) {
+
+        static final Entitlement NONE = new Entitlement("NONE", null, null);
+
+        public boolean isActive(Instant now) {
+            return ACTIVE.equals(status) && currentPeriodEnd != null && currentPeriodEnd.isAfter(now);
+        }
+    }
+
+    private final SubscriptionRepository subscriptionRepository;
+    private final Map<UUID, Entitlement> entitlements = new ConcurrentHashMap<>();
+    private final TimingWheel<UUID> expiries;
+
+    public EntitlementCache(SubscriptionRepository subscriptionRepository,
+                            @Value("${entitlements.tick-ms:1000}") long tickMillis,
+                            @Value("${entitlements.wheel-size:3600}") int wheelSize) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.expiries = new TimingWheel<>(Duration.ofMillis(tickMillis), wheelSize, this::expire, Instant.now());
+    }
+
+    public boolean hasEntitlement(UUID userId, String plan) {
+        Entitlement entitlement = get(userId);
+        return entitlement.isActive(Instant.now())
+            && (plan == null || plan.equalsIgnoreCase(entitlement.planType()));
+    }
+
+    public Entitlement get(UUID userId) {
+        Entitlement entitlement = entitlements.get(userId);
+        if (entitlement != null) {
+            return entitlement;
+        }
+        // users without a change since startup are looked up once, including those with no subscription
+        Entitlement loaded = subscriptionRepository.findByUserId(userId)
+            .map(subscription -> new Entitlement(
+                subscription.getStatus(), subscription.getPlanType(), subscription.getCurrentPeriodEnd()))
+            .orElse(Entitlement.NONE);
+        Entitlement existing = entitlements.putIfAbsent(userId, loaded);
+        if (existing != null) {
+            return existing;
+        }
+        track(userId, loaded);
+        return loaded;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        int loaded = 0;
+        for (Subscription subscription : subscriptionRepository.findAll()) {
+            Entitlement entitlement = new Entitlement(
+                subscription.getStatus(), subscription.getPlanType(), subscription.getCurrentPeriodEnd());
+            if (entitlements.putIfAbsent(subscription.getUserId(), entitlement) == null) {
+                track(subscription.getUserId(), entitlement);
+                loaded++;
+            }
+        }
+        log.info("Loaded {} subscription entitlements", loaded);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSubscriptionChanged(SubscriptionChangedEvent event) {
+        Entitlement entitlement = new Entitlement(event.getStatus(), event.getPlanType(), event.getCurrentPeriodEnd());
+        entitlements.put(event.getUserId(), entitlement);
+        track(event.getUserId(), entitlement);
+    }
+
+    @Scheduled(fixedRateString = "${entitlements.tick-ms:1000}")
+    public void tick() {
+        expiries.advance(Instant.now());
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("cached", entitlements.size());
+        stats.put("scheduledExpiries", expiries.size());
+        return stats;
+    }
+
+    private void track(UUID userId, Entitlement entitlement) {
+        if (!ACTIVE.equals(entitlement.status()) || entitlement.currentPeriodEnd() == null) {
+            expiries.cancel(userId);
+        } else if (!expiries.schedule(userId, entitlement.currentPeriodEnd())) {
+            expire(userId);
+        }
+    }
+
+    private void expire(UUID userId) {
+        Instant now = Instant.now();
+        entitlements.computeIfPresent(userId, (id, entitlement) ->
+            ACTIVE.equals(entitlement.status()) && !entitlement.isActive(now)
+                ? new Entitlement(EXPIRED, entitlement.planType(), entitlement.currentPeriodEnd())
+                : entitlement);
+    }
+}
@@ -0,0 +1,128 @@
+package com.sutreya.ecommerce.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coalesces inventory updates per product and pushes only the latest state once per window.
+ * A product is re-broadcast only when its stock status or quantity bucket changes, and each
+ * payload is serialized once before it is handed to the broker.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InventoryBroadcaster {
+
+    private static final int EXACT_BELOW = 10;
+    private static final int[] BUCKETS = {10, 25, 50, 100, 250, 500, 1000};
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+
+    private final Map<UUID, Integer> pending = new ConcurrentHashMap<>();
+    private final Map<UUID, Integer> lastSentBucket = new ConcurrentHashMap<>();
+
+    private final LongAdder received = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder suppressed = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public void publish(UUID productId, int available) {
+        received.increment();
+        if (pending.put(productId, available) != null) {
+            coalesced.increment();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.broadcast.window-ms:250}")
+    public void flush() {
+        Iterator<Map.Entry<UUID, Integer>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<UUID, Integer> entry = iterator.next();
+            UUID productId = entry.getKey();
+            int available = entry.getValue();
+            if (!pending.remove(productId, available)) {
+                // a newer value arrived in the meantime, it goes out on the next pass
+                continue;
+            }
+
+            int bucket = bucket(available);
+            Integer previous = lastSentBucket.put(productId, bucket);
+            if (previous != null && previous == bucket) {
+                suppressed.increment();
+                continue;
+            }
+            send(productId, available);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("received", received.sum());
+        stats.put("coalesced", coalesced.sum());
+        stats.put("suppressed", suppressed.sum());
+        stats.put("sent", sent.sum());
+        stats.put("failed", failed.sum());
+        stats.put("pending", pending.size());
+        return stats;
+    }
+
+    private void send(UUID productId, int available) {
+        Map<String, Object> update = new LinkedHashMap<>();
+        update.put("productId", productId);
+        update.put("available", available);
+        update.put("status", available > 0 ? "IN_STOCK" : "OUT_OF_STOCK");
+
+        try {
+            byte[] payload = objectMapper.writeValueAsBytes(update);
+            SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create();
+            headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+            headers.setLeaveMutable(true);
+            Message<byte[]> message = MessageBuilder.createMessage(payload, headers.getMessageHeaders());
+            messagingTemplate.send("/topic/products/" + productId + "/inventory", message);
+            sent.increment();
+        } catch (JsonProcessingException | RuntimeException e) {
+            lastSentBucket.remove(productId);
+            failed.increment();
+            log.warn("Failed to broadcast inventory for product {}", productId, e);
+        }
+    }
+
+    /**
+     * Out of stock is its own bucket, low stock is reported exactly and larger quantities
+     * only when they cross one of the bucket boundaries.
+     */
+    static int bucket(int available) {
+        if (available <= 0) {
+            return 0;
+        }
+        if (available < EXACT_BELOW) {
+            return available;
+        }
+        int bucket = EXACT_BELOW;
+        for (int boundary : BUCKETS) {
+            if (available >= boundary) {
+                bucket = boundary;
+            }
+        }
+        return bucket;
+    }
+}
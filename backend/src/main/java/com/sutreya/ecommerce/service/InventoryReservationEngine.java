@@ -0,0 +1,332 @@
+package com.sutreya.ecommerce.service;
+
+import com.sutreya.ecommerce.event.InventoryDeltasRefusedEvent;
+import com.sutreya.ecommerce.event.ProductChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Array;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory stock counters with reserve/commit/release semantics. Each product keeps its
+ * on-hand quantity, reserved quantity and unflushed delta in one immutable snapshot behind an
+ * AtomicReference, so every change is a single CAS: a reservation can never take stock below
+ * what is already promised, and on-hand stock and the delta owed to the database never drift
+ * apart. Deltas are written behind to {@code products.inventory_quantity} in batched relative
+ * UPDATEs, which the database refuses if they would take stock below zero; refused deltas are
+ * published as an {@link InventoryDeltasRefusedEvent} before the counters are re-read.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InventoryReservationEngine {
+
+    private static final String FLUSH_SQL =
+        "UPDATE products SET inventory_quantity = inventory_quantity + ?, "
+            + "version = version + 1, updated_at = now() WHERE id = ? AND inventory_quantity + ? >= 0";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${inventory.reservation-ttl:PT15M}")
+    private Duration reservationTtl;
+
+    private final Map<UUID, StockCounter> counters = new ConcurrentHashMap<>();
+    private final Map<UUID, Reservation> reservations = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final LongAdder reserved = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder committed = new LongAdder();
+    private final LongAdder released = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushedRows = new AtomicLong();
+    private final AtomicLong refusedRows = new AtomicLong();
+
+    public record Reservation(UUID id, UUID productId, int quantity, Instant expiresAt) {
+    }
+
+    private record Stock(int onHand, int reserved, int pendingDelta) {
+        int available() {
+            return onHand - reserved;
+        }
+    }
+
+    private static final class StockCounter {
+        private final AtomicReference<Stock> state;
+
+        private StockCounter(int onHand) {
+            this.state = new AtomicReference<>(new Stock(onHand, 0, 0));
+        }
+
+        int available() {
+            return state.get().available();
+        }
+    }
+
+    public Optional<Reservation> reserve(UUID productId, int quantity) {
+        return reserve(productId, quantity, reservationTtl);
+    }
+
+    public Optional<Reservation> reserve(UUID productId, int quantity, Duration ttl) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        StockCounter counter = counter(productId);
+        while (true) {
+            Stock current = counter.state.get();
+            if (current.available() < quantity) {
+                rejected.increment();
+                return Optional.empty();
+            }
+            Stock next = new Stock(current.onHand(), current.reserved() + quantity, current.pendingDelta());
+            if (counter.state.compareAndSet(current, next)) {
+                break;
+            }
+        }
+        Reservation reservation = new Reservation(UUID.randomUUID(), productId, quantity, Instant.now().plus(ttl));
+        reservations.put(reservation.id(), reservation);
+        reserved.increment();
+        return Optional.of(reservation);
+    }
+
+    public Reservation commit(UUID reservationId) {
+        Reservation reservation = reservations.remove(reservationId);
+        if (reservation == null) {
+            throw new RuntimeException("Reservation not found");
+        }
+        if (reservation.expiresAt().isBefore(Instant.now())) {
+            unreserve(reservation);
+            expired.increment();
+            throw new RuntimeException("Reservation expired");
+        }
+
+        StockCounter counter = counter(reservation.productId());
+        int quantity = reservation.quantity();
+        counter.state.getAndUpdate(current -> new Stock(current.onHand() - quantity, current.reserved() - quantity,
+            current.pendingDelta() - quantity));
+        committed.increment();
+        return reservation;
+    }
+
+    public Reservation release(UUID reservationId) {
+        Reservation reservation = reservations.remove(reservationId);
+        if (reservation == null) {
+            throw new RuntimeException("Reservation not found");
+        }
+        unreserve(reservation);
+        released.increment();
+        return reservation;
+    }
+
+    /**
+     * Applies a stock correction such as a restock or a manual write-off. On-hand stock
+     * is never taken below the quantity currently reserved. Returns the new available quantity.
+     */
+    public int adjust(UUID productId, int quantityChange) {
+        StockCounter counter = counter(productId);
+        while (true) {
+            Stock current = counter.state.get();
+            int held = current.reserved();
+            int newOnHand = Math.max(Math.max(held, 0), current.onHand() + quantityChange);
+            Stock next = new Stock(newOnHand, held, current.pendingDelta() + newOnHand - current.onHand());
+            if (counter.state.compareAndSet(current, next)) {
+                return next.available();
+            }
+        }
+    }
+
+    public int available(UUID productId) {
+        return counter(productId).available();
+    }
+
+    /**
+     * Available quantity of a product whose counter is already loaded, without loading it.
+     */
+    public OptionalInt findAvailable(UUID productId) {
+        StockCounter counter = counters.get(productId);
+        return counter != null ? OptionalInt.of(counter.available()) : OptionalInt.empty();
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.sweep-interval-ms:5000}")
+    public void releaseExpired() {
+        Instant now = Instant.now();
+        for (Reservation reservation : reservations.values()) {
+            if (reservation.expiresAt().isBefore(now) && reservations.remove(reservation.id(), reservation)) {
+                unreserve(reservation);
+                expired.increment();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.flush-interval-ms:1000}")
+    public void flush() {
+        List<UUID> productIds = new ArrayList<>();
+        Map<UUID, Integer> refused = new HashMap<>();
+        flushLock.lock();
+        try {
+            List<Object[]> batch = new ArrayList<>();
+            for (Map.Entry<UUID, StockCounter> entry : counters.entrySet()) {
+                int delta = takeDelta(entry.getValue());
+                if (delta != 0) {
+                    batch.add(new Object[]{delta, entry.getKey(), delta});
+                    productIds.add(entry.getKey());
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            int[] counts;
+            try {
+                // one transaction, so a failure part-way through writes no row and every delta can go
+                // back on its counter without any of them being applied twice
+                counts = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(FLUSH_SQL, batch));
+                flushes.incrementAndGet();
+            } catch (Exception e) {
+                for (Object[] row : batch) {
+                    int delta = (Integer) row[0];
+                    counters.get((UUID) row[1]).state.getAndUpdate(current ->
+                        new Stock(current.onHand(), current.reserved(), current.pendingDelta() + delta));
+                }
+                log.error("Failed to flush {} inventory deltas, will retry", batch.size(), e);
+                return;
+            }
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    refused.put((UUID) batch.get(i)[1], (Integer) batch.get(i)[0]);
+                }
+            }
+            flushedRows.addAndGet(batch.size() - refused.size());
+        } finally {
+            flushLock.unlock();
+        }
+        if (!refused.isEmpty()) {
+            // stock was lowered outside the engine below what it had already sold, or the product
+            // is gone; the stored quantity wins and the counters are re-read from it, and the units
+            // that could not be recorded go out as an event so they are reconciled by hand
+            refusedRows.addAndGet(refused.size());
+            log.error("Database refused inventory deltas {}: stock would go below zero", refused);
+            rebase(List.copyOf(refused.keySet()));
+            eventPublisher.publishEvent(new InventoryDeltasRefusedEvent(Map.copyOf(refused)));
+        }
+        eventPublisher.publishEvent(ProductChangedEvent.of(productIds));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * Products can also be written outside the engine (product edits, bulk updates). Loaded
+     * counters are re-based on the stored quantity plus whatever has not been flushed yet.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        List<UUID> loaded = event.getProductIds().stream().filter(counters::containsKey).toList();
+        if (!loaded.isEmpty()) {
+            rebase(loaded);
+        }
+    }
+
+    private void rebase(List<UUID> loaded) {
+        // holding the lock keeps a flush from moving deltas into the database while it is read
+        flushLock.lock();
+        try {
+            Map<UUID, Integer> stored = new HashMap<>();
+            jdbcTemplate.query(
+                connection -> {
+                    var statement = connection.prepareStatement(
+                        "SELECT id, inventory_quantity FROM products WHERE id = ANY(?)");
+                    Array ids = connection.createArrayOf("uuid", loaded.toArray());
+                    statement.setArray(1, ids);
+                    return statement;
+                },
+                rs -> {
+                    stored.put(rs.getObject("id", UUID.class), rs.getInt("inventory_quantity"));
+                });
+
+            // the delta is read in the same CAS that writes on-hand, so a commit landing in
+            // between is counted in both
+            stored.forEach((productId, quantity) -> {
+                StockCounter counter = counters.get(productId);
+                if (counter != null) {
+                    counter.state.getAndUpdate(current -> new Stock(quantity + current.pendingDelta(),
+                        current.reserved(), current.pendingDelta()));
+                }
+            });
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("trackedProducts", counters.size());
+        stats.put("activeReservations", reservations.size());
+        stats.put("reserved", reserved.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("committed", committed.sum());
+        stats.put("released", released.sum());
+        stats.put("expired", expired.sum());
+        stats.put("flushes", flushes.get());
+        stats.put("flushedRows", flushedRows.get());
+        stats.put("refusedRows", refusedRows.get());
+        return stats;
+    }
+
+    private void unreserve(Reservation reservation) {
+        StockCounter counter = counters.get(reservation.productId());
+        if (counter != null) {
+            int quantity = reservation.quantity();
+            counter.state.getAndUpdate(current ->
+                new Stock(current.onHand(), current.reserved() - quantity, current.pendingDelta()));
+        }
+    }
+
+    private static int takeDelta(StockCounter counter) {
+        while (true) {
+            Stock current = counter.state.get();
+            if (current.pendingDelta() == 0
+                    || counter.state.compareAndSet(current, new Stock(current.onHand(), current.reserved(), 0))) {
+                return current.pendingDelta();
+            }
+        }
+    }
+
+    private StockCounter counter(UUID productId) {
+        StockCounter counter = counters.get(productId);
+        if (counter != null) {
+            return counter;
+        }
+        Integer quantity;
+        try {
+            quantity = jdbcTemplate.queryForObject(
+                "SELECT inventory_quantity FROM products WHERE id = ?", Integer.class, productId);
+        } catch (EmptyResultDataAccessException e) {
+            throw new RuntimeException("Product not found");
+        }
+        int onHand = quantity != null ? quantity : 0;
+        return counters.computeIfAbsent(productId, id -> new StockCounter(onHand));
+    }
+}
@@ -1,41 +1,41 @@
 package com.sutreya.ecommerce.service;
 
-import com.sutreya.ecommerce.model.Product;
-import com.sutreya.ecommerce.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 public class InventoryService {
 
-    private final ProductRepository productRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final InventoryReservationEngine reservationEngine;
+    private final InventoryBroadcaster inventoryBroadcaster;
+    private final LowStockMonitor lowStockMonitor;
 
-    @Transactional
     public void updateInventory(UUID productId, int quantityChange) {
-        Product product = productRepository.findById(productId)
-            .orElseThrow(() -> new RuntimeException("Product not found"));
-        
-        int newQuantity = product.getInventoryQuantity() + quantityChange;
-        product.setInventoryQuantity(Math.max(0, newQuantity));
-        productRepository.save(product);
-        
-        notifyInventoryChange(productId, newQuantity);
+        int available = reservationEngine.adjust(productId, quantityChange);
+        notifyInventoryChange(productId, available);
     }
 
-    private void notifyInventoryChange(UUID productId, int newQuantity) {
-        Map<String, Object> update = new HashMap<>();
-        update.put("productId", productId);
-        update.put("available", newQuantity);
-        update.put("status", newQuantity > 0 ? "IN_STOCK" : "OUT_OF_STOCK");
-        
-        messagingTemplate.convertAndSend("/topic/products/" + productId + "/inventory", update);
+    public InventoryReservationEngine.Reservation reserve(UUID productId, int quantity) {
+        InventoryReservationEngine.Reservation reservation = reservationEngine.reserve(productId, quantity)
+            .orElseThrow(() -> new RuntimeException("Insufficient inventory for product " + productId));
+        notifyInventoryChange(productId, reservationEngine.available(productId));
+        return reservation;
+    }
+
+    public void commitReservation(UUID reservationId) {
+        reservationEngine.commit(reservationId);
+    }
+
+    public void releaseReservation(UUID reservationId) {
+        InventoryReservationEngine.Reservation reservation = reservationEngine.release(reservationId);
+        notifyInventoryChange(reservation.productId(), reservationEngine.available(reservation.productId()));
+    }
+
+    private void notifyInventoryChange(UUID productId, int available) {
+        inventoryBroadcaster.publish(productId, available);
+        lowStockMonitor.update(productId, available);
     }
 }
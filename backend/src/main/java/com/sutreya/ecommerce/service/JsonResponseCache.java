@@ -0,0 +1,129 @@
+package com.sutreya.ecommerce.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET support for public JSON reads. Callers pass an ETag they can compute
+ * without building the body; a matching {@code If-None-Match} gets a 304 straight away, and
+ * otherwise the serialized body is served from a bounded LRU of bytes, so repeat requests for
+ * the same version skip both the lookup and Jackson.
+ */
+@Component
+public class JsonResponseCache {
+
+    private record CachedBody(String etag, byte[] body) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final CacheControl cacheControl;
+    private final Map<String, CachedBody> bodies;
+
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public JsonResponseCache(ObjectMapper objectMapper,
+                             @Value("${http.cache.max-age:PT60S}") Duration maxAge,
+                             @Value("${http.cache.stale-while-revalidate:PT5M}") Duration staleWhileRevalidate,
+                             @Value("${http.cache.max-entries:2000}") int maxEntries) {
+        this.objectMapper = objectMapper;
+        this.cacheControl = CacheControl.maxAge(maxAge).cachePublic().staleWhileRevalidate(staleWhileRevalidate);
+        this.bodies = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedBody> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public static String etag(Object... parts) {
+        StringBuilder etag = new StringBuilder("\"");
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                etag.append('-');
+            }
+            etag.append(parts[i]);
+        }
+        return etag.append('"').toString();
+    }
+
+    /**
+     * Answers a GET whose representation under {@code key} is identified by {@code etag}.
+     * {@code body} is only called when neither the client nor this cache holds that version.
+     */
+    public ResponseEntity<byte[]> respond(String key, String etag, String ifNoneMatch, Supplier<?> body) {
+        if (matches(ifNoneMatch, etag)) {
+            notModified.increment();
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+
+        CachedBody cached;
+        synchronized (bodies) {
+            cached = bodies.get(key);
+        }
+        if (cached != null && cached.etag().equals(etag)) {
+            hits.increment();
+        } else {
+            misses.increment();
+            cached = new CachedBody(etag, serialize(body.get()));
+            synchronized (bodies) {
+                bodies.put(key, cached);
+            }
+        }
+        return ResponseEntity.ok()
+            .eTag(etag)
+            .cacheControl(cacheControl)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(cached.body());
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        synchronized (bodies) {
+            stats.put("entries", bodies.size());
+            stats.put("bytes", bodies.values().stream().mapToLong(cached -> cached.body().length).sum());
+        }
+        stats.put("notModified", notModified.sum());
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        return stats;
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize response", e);
+        }
+    }
+
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
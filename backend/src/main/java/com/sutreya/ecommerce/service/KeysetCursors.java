@@ -0,0 +1,110 @@
+package com.sutreya.ecommerce.service;
+
+import com.sutreya.ecommerce.dto.CursorPage;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Opaque continuation tokens for keyset pagination over (sortKey, id). The token records the
+ * sort it was issued for, so a cursor cannot be replayed against a different ordering.
+ */
+public final class KeysetCursors {
+
+    private static final String VERSION = "v1";
+    private static final Set<String> SORT_PROPERTIES = Set.of("createdAt", "price");
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private KeysetCursors() {
+    }
+
+    public record Cursor(Object key, UUID id) {
+    }
+
+    public static Sort.Order parseSort(String sort) {
+        String[] sortParams = sort.split(",");
+        Sort.Direction direction = sortParams.length > 1
+            ? Sort.Direction.fromString(sortParams[1]) : Sort.Direction.DESC;
+        if (!SORT_PROPERTIES.contains(sortParams[0])) {
+            throw new IllegalArgumentException("Cursor paging supports only createdAt and price sorts");
+        }
+        return new Sort.Order(direction, sortParams[0]);
+    }
+
+    public static int pageSize(int requested) {
+        return Math.max(1, Math.min(requested, MAX_PAGE_SIZE));
+    }
+
+    public static Sort keysetSort(Sort.Order order) {
+        return Sort.by(order, new Sort.Order(order.getDirection(), "id"));
+    }
+
+    public static Cursor decode(String token, Sort.Order order) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|");
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (parts.length != 5 || !VERSION.equals(parts[0])
+                || !order.getProperty().equals(parts[1]) || !order.getDirection().name().equals(parts[2])) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort");
+        }
+        Object key = "price".equals(parts[1]) ? new BigDecimal(parts[3]) : Instant.parse(parts[3]);
+        return new Cursor(key, UUID.fromString(parts[4]));
+    }
+
+    public static String encode(Object key, UUID id, Sort.Order order) {
+        String value = key instanceof BigDecimal decimal ? decimal.toPlainString() : String.valueOf(key);
+        String raw = String.join("|", VERSION, order.getProperty(), order.getDirection().name(), value, id.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ScrollPosition position(Cursor cursor, Sort.Order order) {
+        if (cursor == null) {
+            return ScrollPosition.keyset();
+        }
+        return ScrollPosition.forward(Map.of(order.getProperty(), cursor.key(), "id", cursor.id()));
+    }
+
+    public static <E, T> CursorPage<T> page(List<E> rows, boolean hasNext, Sort.Order order,
+                                             Function<E, Object> keyExtractor, Function<E, UUID> idExtractor,
+                                             Function<E, T> mapper) {
+        String nextCursor = null;
+        if (hasNext && !rows.isEmpty()) {
+            E last = rows.get(rows.size() - 1);
+            nextCursor = encode(keyExtractor.apply(last), idExtractor.apply(last), order);
+        }
+        return new CursorPage<>(rows.stream().map(mapper).toList(), nextCursor, nextCursor != null, rows.size());
+    }
+
+    /**
+     * A page of a keyset window, with the continuation token taken from the last row's position.
+     */
+    public static <T> CursorPage<T> page(Window<T> window, Sort.Order order) {
+        String nextCursor = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            Map<String, Object> keys = ((KeysetScrollPosition) window.positionAt(window.size() - 1)).getKeys();
+            nextCursor = encode(keys.get(order.getProperty()), (UUID) keys.get("id"), order);
+        }
+        return new CursorPage<>(window.getContent(), nextCursor, nextCursor != null, window.size());
+    }
+
+    public static Object sortKey(Sort.Order order, Instant createdAt, BigDecimal price) {
+        return "price".equals(order.getProperty()) ? price : createdAt;
+    }
+}
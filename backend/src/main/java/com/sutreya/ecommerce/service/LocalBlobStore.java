@@ -0,0 +1,114 @@
+package com.sutreya.ecommerce.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * {@link BlobStore} on the local filesystem under {@code media.storage-root}. Uploads are
+ * transferred into a temporary file with {@link FileChannel#transferFrom}, hashed through a
+ * memory mapping, and renamed into place under their key; content that is already stored is
+ * discarded.
+ */
+@Component
+@Slf4j
+public class LocalBlobStore implements BlobStore {
+
+    private static final Pattern KEY = Pattern.compile("[0-9a-f]{64}\\.[a-z0-9]{2,5}");
+    private static final long TRANSFER_CHUNK = 8L * 1024 * 1024;
+    private static final long MAP_CHUNK = 64L * 1024 * 1024;
+
+    private final Path root;
+    private final Path incoming;
+
+    public LocalBlobStore(@Value("${media.storage-root:./media}") String root) throws IOException {
+        this.root = Path.of(root).toAbsolutePath().normalize();
+        this.incoming = this.root.resolve("incoming");
+        Files.createDirectories(incoming);
+        log.info("Media blobs stored under {}", this.root);
+    }
+
+    @Override
+    public Blob put(ReadableByteChannel source, String extension) throws IOException {
+        Path temp = Files.createTempFile(incoming, "upload-", ".tmp");
+        try {
+            long size = 0;
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                long transferred;
+                while ((transferred = out.transferFrom(source, size, TRANSFER_CHUNK)) > 0) {
+                    size += transferred;
+                }
+            }
+
+            String key = sha256(temp) + "." + extension;
+            Path target = path(key);
+            if (Files.exists(target)) {
+                return new Blob(key, size, false);
+            }
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                return new Blob(key, size, false);
+            }
+            return new Blob(key, size, true);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.exists(path(key));
+    }
+
+    @Override
+    public FileChannel open(String key) throws IOException {
+        return FileChannel.open(path(key), StandardOpenOption.READ);
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        return Optional.of(path(key));
+    }
+
+    private Path path(String key) {
+        if (!KEY.matcher(key).matches()) {
+            throw new IllegalArgumentException("Invalid media key: " + key);
+        }
+        return root.resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    private static String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += MAP_CHUNK) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(MAP_CHUNK, size - position));
+                digest.update(buffer);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,294 @@
+package com.sutreya.ecommerce.service;
+
+import com.sutreya.ecommerce.event.InventoryDeltasRefusedEvent;
+import com.sutreya.ecommerce.model.Product;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps, per seller, the products at or below that seller's low-stock threshold, ordered by
+ * available quantity. It is fed with every active product by {@link ProductCatalog} and with
+ * live quantities by {@link InventoryService}, so listing a seller's low products reads only
+ * that seller's set. Both feeds count available stock, on hand minus reserved, taken from the
+ * {@link InventoryReservationEngine} whenever it tracks the product. A product dropping into
+ * low stock, or running out, is pushed to the seller's own {@code /user/queue/low-stock}, as
+ * are units the engine sold but the stored stock could no longer cover; a seller's alerts are
+ * queued in the order they were decided and sent one at a time.
+ */
+@Component
+@Slf4j
+public class LowStockMonitor implements ProductIndex {
+
+    private static final Comparator<LowStockItem> BY_QUANTITY =
+        Comparator.comparingInt(LowStockItem::quantity).thenComparing(LowStockItem::productId);
+
+    public record LowStockItem(UUID productId, String name, int quantity) {
+    }
+
+    private record Tracked(UUID sellerId, String name, int quantity) {
+    }
+
+    private record Alert(UUID sellerId, UUID productId, String name, int quantity, int threshold, int oversold) {
+    }
+
+    private static final class Outbox {
+        private final Queue<Alert> alerts = new ConcurrentLinkedQueue<>();
+        private final ReentrantLock sending = new ReentrantLock();
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final InventoryReservationEngine reservationEngine;
+    private final int defaultThreshold;
+
+    private final Map<UUID, Tracked> products = new HashMap<>();
+    private final Map<UUID, Set<UUID>> productsBySeller = new HashMap<>();
+    private final Map<UUID, Integer> thresholds = new ConcurrentHashMap<>();
+    private final Map<UUID, NavigableSet<LowStockItem>> lowBySeller = new ConcurrentHashMap<>();
+    private final Map<UUID, Outbox> outboxes = new ConcurrentHashMap<>();
+
+    private final LongAdder alertsSent = new LongAdder();
+    private final LongAdder alertsFailed = new LongAdder();
+
+    public LowStockMonitor(JdbcTemplate jdbcTemplate,
+                           SimpMessagingTemplate messagingTemplate,
+                           InventoryReservationEngine reservationEngine,
+                           @Value("${inventory.low-stock.default-threshold:5}") int defaultThreshold) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.messagingTemplate = messagingTemplate;
+        this.reservationEngine = reservationEngine;
+        this.defaultThreshold = defaultThreshold;
+    }
+
+    // thresholds have to be in place before the catalog's first rebuild feeds the products
+    @PostConstruct
+    public void loadThresholds() {
+        jdbcTemplate.query("SELECT seller_id, low_stock_threshold FROM seller_stock_settings", rs -> {
+            thresholds.put(rs.getObject("seller_id", UUID.class), rs.getInt("low_stock_threshold"));
+        });
+        log.info("Loaded {} seller low-stock thresholds", thresholds.size());
+    }
+
+    @Override
+    public void index(Product product) {
+        int stored = product.getInventoryQuantity() != null ? product.getInventoryQuantity() : 0;
+        synchronized (this) {
+            queue(track(product.getId(), product.getSellerId(), product.getName(), available(product.getId(), stored)));
+        }
+        send(product.getSellerId());
+    }
+
+    @Override
+    public synchronized void remove(UUID productId) {
+        Tracked previous = products.remove(productId);
+        if (previous == null) {
+            return;
+        }
+        Set<UUID> sellerProducts = productsBySeller.get(previous.sellerId());
+        if (sellerProducts != null) {
+            sellerProducts.remove(productId);
+            if (sellerProducts.isEmpty()) {
+                productsBySeller.remove(previous.sellerId());
+            }
+        }
+        unlist(previous.sellerId(), productId, previous);
+    }
+
+    /**
+     * Records a live available quantity for a product the catalog has already fed in.
+     * Quantities of unknown products are ignored until the catalog indexes them.
+     */
+    public void update(UUID productId, int available) {
+        UUID sellerId;
+        synchronized (this) {
+            Tracked previous = products.get(productId);
+            int quantity = available(productId, available);
+            if (previous == null || previous.quantity() == quantity) {
+                return;
+            }
+            sellerId = previous.sellerId();
+            queue(track(productId, sellerId, previous.name(), quantity));
+        }
+        send(sellerId);
+    }
+
+    /**
+     * Stock lowered outside the engine below what it had already sold leaves units the database
+     * would not record. The seller is told how many, since only they can reconcile them.
+     */
+    @EventListener
+    public void onDeltasRefused(InventoryDeltasRefusedEvent event) {
+        Set<UUID> sellers = new HashSet<>();
+        synchronized (this) {
+            event.getDeltas().forEach((productId, delta) -> {
+                Tracked tracked = products.get(productId);
+                if (tracked != null && delta < 0) {
+                    int available = available(productId, tracked.quantity());
+                    queue(new Alert(tracked.sellerId(), productId, tracked.name(), available,
+                        getThreshold(tracked.sellerId()), -delta));
+                    sellers.add(tracked.sellerId());
+                }
+            });
+        }
+        sellers.forEach(this::send);
+    }
+
+    public List<LowStockItem> getLowStock(UUID sellerId) {
+        NavigableSet<LowStockItem> low = lowBySeller.get(sellerId);
+        return low != null ? List.copyOf(low) : List.of();
+    }
+
+    public int countLowStock(UUID sellerId) {
+        NavigableSet<LowStockItem> low = lowBySeller.get(sellerId);
+        return low != null ? low.size() : 0;
+    }
+
+    public int getThreshold(UUID sellerId) {
+        return thresholds.getOrDefault(sellerId, defaultThreshold);
+    }
+
+    /**
+     * Stores a seller's threshold and re-evaluates their products against it. Changing the
+     * threshold does not raise alerts for products that were already low.
+     */
+    public void setThreshold(UUID sellerId, int threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Threshold must not be negative");
+        }
+        jdbcTemplate.update(
+            "INSERT INTO seller_stock_settings (seller_id, low_stock_threshold, updated_at) VALUES (?, ?, NOW()) "
+                + "ON CONFLICT (seller_id) DO UPDATE SET low_stock_threshold = EXCLUDED.low_stock_threshold, "
+                + "updated_at = NOW()",
+            sellerId, threshold);
+
+        synchronized (this) {
+            thresholds.put(sellerId, threshold);
+            NavigableSet<LowStockItem> low = new ConcurrentSkipListSet<>(BY_QUANTITY);
+            for (UUID productId : productsBySeller.getOrDefault(sellerId, Set.of())) {
+                Tracked tracked = products.get(productId);
+                if (tracked.quantity() <= threshold) {
+                    low.add(new LowStockItem(productId, tracked.name(), tracked.quantity()));
+                }
+            }
+            if (low.isEmpty()) {
+                lowBySeller.remove(sellerId);
+            } else {
+                lowBySeller.put(sellerId, low);
+            }
+        }
+        log.info("Low-stock threshold for seller {} set to {}", sellerId, threshold);
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("trackedProducts", products.size());
+        stats.put("sellersWithLowStock", lowBySeller.size());
+        stats.put("lowStockProducts", lowBySeller.values().stream().mapToInt(Set::size).sum());
+        stats.put("customThresholds", thresholds.size());
+        stats.put("alertsSent", alertsSent.sum());
+        stats.put("alertsFailed", alertsFailed.sum());
+        return stats;
+    }
+
+    private Alert track(UUID productId, UUID sellerId, String name, int quantity) {
+        Tracked previous = products.put(productId, new Tracked(sellerId, name, quantity));
+        if (previous == null) {
+            productsBySeller.computeIfAbsent(sellerId, k -> new HashSet<>()).add(productId);
+        } else if (!previous.sellerId().equals(sellerId)) {
+            productsBySeller.get(previous.sellerId()).remove(productId);
+            productsBySeller.computeIfAbsent(sellerId, k -> new HashSet<>()).add(productId);
+        }
+        if (previous != null) {
+            unlist(previous.sellerId(), productId, previous);
+        }
+
+        int threshold = getThreshold(sellerId);
+        if (quantity > threshold) {
+            return null;
+        }
+        lowBySeller.computeIfAbsent(sellerId, k -> new ConcurrentSkipListSet<>(BY_QUANTITY))
+            .add(new LowStockItem(productId, name, quantity));
+
+        // products seen for the first time, as on startup, are listed without an alert
+        boolean droppedIntoLow = previous != null && previous.quantity() > threshold;
+        boolean ranOut = previous != null && previous.quantity() > 0 && quantity <= 0;
+        return droppedIntoLow || ranOut ? new Alert(sellerId, productId, name, quantity, threshold, 0) : null;
+    }
+
+    private void unlist(UUID sellerId, UUID productId, Tracked previous) {
+        NavigableSet<LowStockItem> low = lowBySeller.get(sellerId);
+        if (low != null && low.remove(new LowStockItem(productId, previous.name(), previous.quantity()))
+            && low.isEmpty()) {
+            lowBySeller.remove(sellerId);
+        }
+    }
+
+    /**
+     * The engine's current available quantity if it tracks the product, else {@code fallback}.
+     * It is read under the monitor, so a quantity computed earlier by a slower caller cannot
+     * overwrite a newer one. The stored quantity holds no reservations and can trail the
+     * engine's unflushed commits, so it is only used for products the engine has not loaded.
+     */
+    private int available(UUID productId, int fallback) {
+        return reservationEngine.findAvailable(productId).orElse(fallback);
+    }
+
+    // called with the monitor held, so a seller's alerts are queued in the order they were decided
+    private void queue(Alert alert) {
+        if (alert != null) {
+            outboxes.computeIfAbsent(alert.sellerId(), k -> new Outbox()).alerts.add(alert);
+        }
+    }
+
+    /**
+     * Sends the seller's queued alerts in order. Whoever holds the seller's send lock drains
+     * the queue; a caller that finds it taken leaves its alert to that holder, and the holder
+     * checks the queue again after letting go so nothing queued meanwhile is stranded.
+     */
+    private void send(UUID sellerId) {
+        Outbox outbox = outboxes.get(sellerId);
+        while (outbox != null && !outbox.alerts.isEmpty() && outbox.sending.tryLock()) {
+            try {
+                Alert alert;
+                while ((alert = outbox.alerts.poll()) != null) {
+                    send(alert);
+                }
+            } finally {
+                outbox.sending.unlock();
+            }
+        }
+    }
+
+    private void send(Alert alert) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("productId", alert.productId());
+        payload.put("name", alert.name());
+        payload.put("available", alert.quantity());
+        payload.put("threshold", alert.threshold());
+        if (alert.oversold() > 0) {
+            payload.put("oversold", alert.oversold());
+            payload.put("status", "OVERSOLD");
+        } else {
+            payload.put("status", alert.quantity() > 0 ? "LOW_STOCK" : "OUT_OF_STOCK");
+        }
+        try {
+            messagingTemplate.convertAndSendToUser(alert.sellerId().toString(), "/queue/low-stock", payload);
+            alertsSent.increment();
+        } catch (RuntimeException e) {
+            alertsFailed.increment();
+            log.warn("Failed to send stock alert for product {}", alert.productId(), e);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.sutreya.ecommerce.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reads stored media for delivery. Blobs are immutable, so small ones, which are mostly
+ * thumbnails, are kept in memory in an LRU bounded by total bytes. Everything else is left on
+ * disk and sent with {@link FileChannel#transferTo}, or handed to the container as a file
+ * when it can use sendfile.
+ */
+@Service
+public class MediaContentService {
+
+    /**
+     * A stored blob. {@code bytes} holds the whole content when the blob is served from
+     * memory, and is null otherwise.
+     */
+    public record MediaContent(String key, MediaFormat format, long size, byte[] bytes) {
+
+        public String etag() {
+            // the key is the content hash, so the tag is strong and never changes
+            return "\"" + key.substring(0, key.indexOf('.')) + "\"";
+        }
+    }
+
+    private final BlobStore blobStore;
+    private final int maxEntryBytes;
+    private final long capacityBytes;
+    private final LinkedHashMap<String, byte[]> hot = new LinkedHashMap<>(256, 0.75f, true);
+    private long hotBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder bytesFromMemory = new LongAdder();
+    private final LongAdder bytesFromDisk = new LongAdder();
+    private final LongAdder bytesViaSendfile = new LongAdder();
+
+    public MediaContentService(BlobStore blobStore,
+                               @Value("${media.serve.cache-max-entry-bytes:131072}") int maxEntryBytes,
+                               @Value("${media.serve.cache-capacity-bytes:67108864}") long capacityBytes) {
+        this.blobStore = blobStore;
+        this.maxEntryBytes = maxEntryBytes;
+        this.capacityBytes = capacityBytes;
+    }
+
+    public Optional<MediaContent> find(String key) {
+        int dot = key.lastIndexOf('.');
+        Optional<MediaFormat> format = dot > 0 ? MediaFormat.ofExtension(key.substring(dot + 1)) : Optional.empty();
+        if (format.isEmpty()) {
+            return Optional.empty();
+        }
+
+        byte[] cached;
+        synchronized (hot) {
+            cached = hot.get(key);
+        }
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(new MediaContent(key, format.get(), cached.length, cached));
+        }
+        misses.increment();
+
+        try (FileChannel channel = blobStore.open(key)) {
+            long size = channel.size();
+            if (size > maxEntryBytes) {
+                return Optional.of(new MediaContent(key, format.get(), size, null));
+            }
+            byte[] bytes = read(channel, (int) size);
+            cache(key, bytes);
+            return Optional.of(new MediaContent(key, format.get(), size, bytes));
+        } catch (IllegalArgumentException | NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read media " + key, e);
+        }
+    }
+
+    /**
+     * The blob's file, for containers that send files themselves. Only content that is not
+     * held in memory is worth handing over.
+     */
+    public Optional<Path> localPath(MediaContent content) {
+        return content.bytes() == null ? blobStore.localPath(content.key()) : Optional.empty();
+    }
+
+    /**
+     * Writes {@code length} bytes of the blob starting at {@code start}. Disk reads go through
+     * {@link FileChannel#transferTo}, which skips the heap copy when the target allows it.
+     */
+    public void transfer(MediaContent content, long start, long length, WritableByteChannel target) throws IOException {
+        if (content.bytes() != null) {
+            ByteBuffer buffer = ByteBuffer.wrap(content.bytes(), (int) start, (int) length);
+            while (buffer.hasRemaining()) {
+                target.write(buffer);
+            }
+            bytesFromMemory.add(length);
+            return;
+        }
+        try (FileChannel channel = blobStore.open(content.key())) {
+            long position = start;
+            long end = start + length;
+            while (position < end) {
+                long sent = channel.transferTo(position, end - position, target);
+                if (sent <= 0) {
+                    throw new IOException("Media " + content.key() + " ended before " + end + " bytes");
+                }
+                position += sent;
+            }
+        }
+        bytesFromDisk.add(length);
+    }
+
+    public void recordSendfile(long length) {
+        bytesViaSendfile.add(length);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        synchronized (hot) {
+            stats.put("cachedEntries", hot.size());
+            stats.put("cachedBytes", hotBytes);
+        }
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("bytesFromMemory", bytesFromMemory.sum());
+        stats.put("bytesFromDisk", bytesFromDisk.sum());
+        stats.put("bytesViaSendfile", bytesViaSendfile.sum());
+        return stats;
+    }
+
+    private void cache(String key, byte[] bytes) {
+        synchronized (hot) {
+            byte[] previous = hot.put(key, bytes);
+            hotBytes += bytes.length - (previous != null ? previous.length : 0);
+            var eldest = hot.entrySet().iterator();
+            while (hotBytes > capacityBytes && eldest.hasNext()) {
+                hotBytes -= eldest.next().getValue().length;
+                eldest.remove();
+            }
+        }
+    }
+
+    private static byte[] read(FileChannel channel, int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Media shorter than its size");
+            }
+        }
+        return buffer.array();
+    }
+}
@@ -0,0 +1,74 @@
+package com.sutreya.ecommerce.service;
+
+import com.sutreya.ecommerce.model.ProductImage;
+
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Media formats accepted for product uploads. The extension is part of a blob's storage key,
+ * so the content type can be recovered from the key alone when the blob is served.
+ */
+public enum MediaFormat {
+    JPEG("image/jpeg", "jpg", ProductImage.MediaType.IMAGE),
+    PNG("image/png", "png", ProductImage.MediaType.IMAGE),
+    WEBP("image/webp", "webp", ProductImage.MediaType.IMAGE),
+    GIF("image/gif", "gif", ProductImage.MediaType.IMAGE),
+    MP4("video/mp4", "mp4", ProductImage.MediaType.VIDEO),
+    WEBM("video/webm", "webm", ProductImage.MediaType.VIDEO),
+    QUICKTIME("video/quicktime", "mov", ProductImage.MediaType.VIDEO),
+    GLB("model/gltf-binary", "glb", ProductImage.MediaType.MODEL_3D),
+    GLTF("model/gltf+json", "gltf", ProductImage.MediaType.MODEL_3D),
+    USDZ("model/vnd.usdz+zip", "usdz", ProductImage.MediaType.MODEL_3D);
+
+    private final String contentType;
+    private final String extension;
+    private final ProductImage.MediaType type;
+
+    MediaFormat(String contentType, String extension, ProductImage.MediaType type) {
+        this.contentType = contentType;
+        this.extension = extension;
+        this.type = type;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public ProductImage.MediaType getType() {
+        return type;
+    }
+
+    /**
+     * Resolves the declared content type, falling back to the file name's extension when the
+     * client sent none or a generic one.
+     */
+    public static Optional<MediaFormat> detect(String contentType, String filename) {
+        if (contentType != null) {
+            String normalized = contentType.split(";")[0].trim().toLowerCase(Locale.ROOT);
+            for (MediaFormat format : values()) {
+                if (format.contentType.equals(normalized)) {
+                    return Optional.of(format);
+                }
+            }
+        }
+        if (filename != null && filename.lastIndexOf('.') >= 0) {
+            String extension = filename.substring(filename.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+            return ofExtension("jpeg".equals(extension) ? "jpg" : extension);
+        }
+        return Optional.empty();
+    }
+
+    public static Optional<MediaFormat> ofExtension(String extension) {
+        for (MediaFormat format : values()) {
+            if (format.extension.equals(extension)) {
+                return Optional.of(format);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,200 @@
+package com.sutreya.ecommerce.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sutreya.ecommerce.model.ProductImage;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fills in {@code metadata} and {@code thumbnail_url} of uploaded media off the request
+ * thread. Work runs on a fixed pool with a bounded queue; when the queue is full the
+ * uploading thread processes its own media, which slows uploads down rather than piling up
+ * work. Images get their dimensions and one downscaled copy per configured width, stored in
+ * the blob store like any other media. Blobs that were processed before are not processed again.
+ */
+@Component
+@Slf4j
+public class MediaProcessor {
+
+    private static final long MAX_PIXELS = 50_000_000L;
+
+    private final BlobStore blobStore;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final String publicBaseUrl;
+    private final int[] widths;
+    private final ThreadPoolExecutor executor;
+
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder reused = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public MediaProcessor(BlobStore blobStore,
+                          JdbcTemplate jdbcTemplate,
+                          ObjectMapper objectMapper,
+                          @Value("${media.public-base-url:/api/v1/media}") String publicBaseUrl,
+                          @Value("${media.thumbnails.widths:160,320,640}") int[] widths,
+                          @Value("${media.thumbnails.workers:2}") int workers,
+                          @Value("${media.thumbnails.queue-capacity:100}") int queueCapacity) {
+        this.blobStore = blobStore;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.publicBaseUrl = publicBaseUrl;
+        this.widths = widths.clone();
+        Arrays.sort(this.widths);
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "media-worker-" + threads.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public void submit(String storageKey, MediaFormat format) {
+        executor.execute(() -> {
+            try {
+                process(storageKey, format);
+            } catch (Exception e) {
+                failed.increment();
+                log.error("Failed to process media {}", storageKey, e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("queued", executor.getQueue().size());
+        stats.put("active", executor.getActiveCount());
+        stats.put("processed", processed.sum());
+        stats.put("reused", reused.sum());
+        stats.put("failed", failed.sum());
+        return stats;
+    }
+
+    private void process(String storageKey, MediaFormat format) throws IOException {
+        List<Map<String, Object>> done = jdbcTemplate.queryForList(
+            "SELECT metadata::text AS metadata, thumbnail_url FROM product_media "
+                + "WHERE storage_key = ? AND metadata->>'bytes' IS NOT NULL LIMIT 1", storageKey);
+        if (!done.isEmpty()) {
+            update(storageKey, (String) done.get(0).get("metadata"), (String) done.get(0).get("thumbnail_url"));
+            reused.increment();
+            return;
+        }
+
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("contentType", format.getContentType());
+        String thumbnailUrl = null;
+        try (FileChannel channel = blobStore.open(storageKey)) {
+            metadata.put("bytes", channel.size());
+        }
+        if (format.getType() == ProductImage.MediaType.IMAGE) {
+            thumbnailUrl = thumbnail(storageKey, metadata);
+        }
+        update(storageKey, toJson(metadata), thumbnailUrl);
+        processed.increment();
+    }
+
+    private String thumbnail(String storageKey, Map<String, Object> metadata) throws IOException {
+        BufferedImage image;
+        try (FileChannel channel = blobStore.open(storageKey);
+             ImageInputStream input = ImageIO.createImageInputStream(Channels.newInputStream(channel))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                // formats without an ImageIO reader, such as WebP, are stored without thumbnails
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                metadata.put("width", width);
+                metadata.put("height", height);
+                if ((long) width * height > MAX_PIXELS) {
+                    return null;
+                }
+                image = reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+
+        boolean alpha = image.getColorModel().hasAlpha();
+        MediaFormat thumbnailFormat = alpha ? MediaFormat.PNG : MediaFormat.JPEG;
+        Map<String, String> thumbnails = new LinkedHashMap<>();
+        for (int width : widths) {
+            if (width >= image.getWidth()) {
+                break;
+            }
+            int height = Math.max(1, Math.round((float) image.getHeight() * width / image.getWidth()));
+            BufferedImage scaled = new BufferedImage(width, height,
+                alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = scaled.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(image, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+
+            ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+            ImageIO.write(scaled, alpha ? "png" : "jpg", encoded);
+            BlobStore.Blob blob = blobStore.put(
+                Channels.newChannel(new ByteArrayInputStream(encoded.toByteArray())), thumbnailFormat.getExtension());
+            thumbnails.put(String.valueOf(width), publicBaseUrl + "/" + blob.key());
+        }
+        if (thumbnails.isEmpty()) {
+            // already smaller than the smallest width, the original doubles as its thumbnail
+            return publicBaseUrl + "/" + storageKey;
+        }
+        metadata.put("thumbnails", thumbnails);
+        return thumbnails.values().iterator().next();
+    }
+
+    private void update(String storageKey, String metadata, String thumbnailUrl) {
+        jdbcTemplate.update(
+            "UPDATE product_media SET metadata = ?::jsonb, thumbnail_url = ? "
+                + "WHERE storage_key = ? AND metadata->>'bytes' IS NULL",
+            metadata, thumbnailUrl, storageKey);
+    }
+
+    private String toJson(Map<String, Object> metadata) {
+        try {
+            return objectMapper.writeValueAsString(metadata);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize media metadata", e);
+        }
+    }
+}
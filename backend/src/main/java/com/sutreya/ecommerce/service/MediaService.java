@@ -0,0 +1,201 @@
+package com.sutreya.ecommerce.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sutreya.ecommerce.event.ProductChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Stores uploaded product media in the {@link BlobStore} and records it as
+ * {@code product_media} rows in upload order. Uploading content the product already has
+ * returns the existing row. Metadata and thumbnails are filled in afterwards by the
+ * {@link MediaProcessor}.
+ */
+@Service
+@Slf4j
+public class MediaService {
+
+    private record Upload(MediaFormat format, BlobStore.Blob blob) {
+    }
+
+    private final BlobStore blobStore;
+    private final MediaProcessor mediaProcessor;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final String publicBaseUrl;
+
+    public MediaService(BlobStore blobStore,
+                        MediaProcessor mediaProcessor,
+                        JdbcTemplate jdbcTemplate,
+                        TransactionTemplate transactionTemplate,
+                        ApplicationEventPublisher eventPublisher,
+                        ObjectMapper objectMapper,
+                        @Value("${media.public-base-url:/api/v1/media}") String publicBaseUrl) {
+        this.blobStore = blobStore;
+        this.mediaProcessor = mediaProcessor;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.publicBaseUrl = publicBaseUrl;
+    }
+
+    public List<Map<String, Object>> upload(UUID productId, List<MultipartFile> files) {
+        requireProduct(productId);
+        List<Upload> uploads = new ArrayList<>(files.size());
+        for (MultipartFile file : files) {
+            if (file.isEmpty()) {
+                throw new IllegalArgumentException("Empty file: " + file.getOriginalFilename());
+            }
+            MediaFormat format = format(file.getContentType(), file.getOriginalFilename());
+            try (InputStream in = file.getInputStream()) {
+                uploads.add(new Upload(format, store(in, format)));
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to store media " + file.getOriginalFilename(), e);
+            }
+        }
+        return record(productId, uploads);
+    }
+
+    /**
+     * Stores a single file sent as the raw request body, so it goes from the socket to the
+     * blob store without being buffered by multipart parsing first.
+     */
+    public Map<String, Object> upload(UUID productId, String filename, String contentType, InputStream body) {
+        requireProduct(productId);
+        MediaFormat format = format(contentType, filename);
+        BlobStore.Blob blob;
+        try {
+            blob = store(body, format);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store media " + filename, e);
+        }
+        if (blob.size() == 0) {
+            throw new IllegalArgumentException("Empty file: " + filename);
+        }
+        return record(productId, List.of(new Upload(format, blob))).get(0);
+    }
+
+    private BlobStore.Blob store(InputStream in, MediaFormat format) throws IOException {
+        // disk-backed parts come in as file streams, their channel lets the copy stay in the kernel
+        ReadableByteChannel source = in instanceof FileInputStream file ? file.getChannel() : Channels.newChannel(in);
+        return blobStore.put(source, format.getExtension());
+    }
+
+    private List<Map<String, Object>> record(UUID productId, List<Upload> uploads) {
+        List<Map<String, Object>> media = transactionTemplate.execute(tx -> insert(productId, uploads));
+        Set<String> submitted = new HashSet<>();
+        for (Upload upload : uploads) {
+            if (submitted.add(upload.blob().key())) {
+                mediaProcessor.submit(upload.blob().key(), upload.format());
+            }
+        }
+        return media;
+    }
+
+    private List<Map<String, Object>> insert(UUID productId, List<Upload> uploads) {
+        // locks the product so concurrent uploads take distinct display orders
+        List<UUID> locked = jdbcTemplate.queryForList(
+            "SELECT id FROM products WHERE id = ? FOR UPDATE", UUID.class, productId);
+        if (locked.isEmpty()) {
+            throw new RuntimeException("Product not found");
+        }
+
+        Map<String, Map<String, Object>> byKey = new HashMap<>();
+        int nextOrder = 0;
+        for (Map<String, Object> row : jdbcTemplate.queryForList(
+                "SELECT id, type, storage_key, url, display_order FROM product_media WHERE product_id = ?", productId)) {
+            byKey.put((String) row.get("storage_key"), describe(row));
+            if (row.get("display_order") != null) {
+                nextOrder = Math.max(nextOrder, ((Number) row.get("display_order")).intValue() + 1);
+            }
+        }
+
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Map<String, Object>> media = new ArrayList<>(uploads.size());
+        List<String> newUrls = new ArrayList<>();
+        for (Upload upload : uploads) {
+            String key = upload.blob().key();
+            Map<String, Object> existing = byKey.get(key);
+            if (existing != null) {
+                media.add(existing);
+                continue;
+            }
+            UUID id = UUID.randomUUID();
+            String url = publicBaseUrl + "/" + key;
+            jdbcTemplate.update(
+                "INSERT INTO product_media (id, product_id, type, storage_key, url, display_order, created_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                id, productId, upload.format().getType().name(), key, url, nextOrder, now);
+            Map<String, Object> row = new HashMap<>();
+            row.put("id", id);
+            row.put("type", upload.format().getType().name());
+            row.put("storage_key", key);
+            row.put("url", url);
+            row.put("display_order", nextOrder++);
+            Map<String, Object> described = describe(row);
+            described.put("bytes", upload.blob().size());
+            byKey.put(key, described);
+            media.add(described);
+            newUrls.add(url);
+        }
+
+        if (!newUrls.isEmpty()) {
+            jdbcTemplate.update(
+                "UPDATE products SET images = COALESCE(images, '[]'::jsonb) || ?::jsonb, version = version + 1, "
+                    + "updated_at = NOW() WHERE id = ?",
+                toJson(newUrls), productId);
+            eventPublisher.publishEvent(ProductChangedEvent.of(productId));
+            log.info("Added {} media files to product {}", newUrls.size(), productId);
+        }
+        return media;
+    }
+
+    private void requireProduct(UUID productId) {
+        Integer found = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM products WHERE id = ?", Integer.class, productId);
+        if (found == null || found == 0) {
+            throw new RuntimeException("Product not found");
+        }
+    }
+
+    private static MediaFormat format(String contentType, String filename) {
+        return MediaFormat.detect(contentType, filename)
+            .orElseThrow(() -> new IllegalArgumentException("Unsupported media type: " + contentType));
+    }
+
+    private static Map<String, Object> describe(Map<String, Object> row) {
+        Map<String, Object> media = new LinkedHashMap<>();
+        media.put("id", row.get("id"));
+        media.put("type", row.get("type"));
+        media.put("storageKey", row.get("storage_key"));
+        media.put("url", row.get("url"));
+        media.put("displayOrder", row.get("display_order"));
+        return media;
+    }
+
+    private String toJson(List<String> urls) {
+        try {
+            return objectMapper.writeValueAsString(urls);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize media urls", e);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.sutreya.ecommerce.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Snowflake-style order numbers: milliseconds since 2024-01-01 (41 bits), the node id
+ * (10 bits) and a per-millisecond sequence (12 bits), rendered in base 36. Numbers are
+ * unique per node without a database round trip and sort by creation time.
+ */
+@Component
+public class OrderNumberGenerator {
+
+    private static final long EPOCH = 1704067200000L;
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long node;
+    private long lastTimestamp = -1L;
+    private long sequence;
+
+    public OrderNumberGenerator(@Value("${orders.node-id:0}") long node) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("orders.node-id must be between 0 and " + MAX_NODE);
+        }
+        this.node = node;
+    }
+
+    public String next() {
+        return "ORD-" + Long.toString(nextId(), 36).toUpperCase();
+    }
+
+    public synchronized long nextId() {
+        long timestamp = Math.max(System.currentTimeMillis(), lastTimestamp);
+        if (timestamp == lastTimestamp) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                // sequence exhausted for this millisecond; borrow the next one
+                timestamp++;
+            }
+        } else {
+            sequence = 0;
+        }
+        lastTimestamp = timestamp;
+        return ((timestamp - EPOCH) << (NODE_BITS + SEQUENCE_BITS)) | (node << SEQUENCE_BITS) | sequence;
+    }
+}
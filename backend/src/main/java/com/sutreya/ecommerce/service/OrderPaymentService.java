@@ -0,0 +1,101 @@
+package com.sutreya.ecommerce.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Starts payment of a placed order with a Stripe PaymentIntent for its total. The intent id
+ * is kept in the order's {@code metadata}, and the order id in the intent's, so payment
+ * events can be matched in both directions. No database connection or thread is held while
+ * Stripe is called. The idempotency key is derived from the order and its amount, so asking
+ * again for the same order, concurrently or after a lost response, returns the same intent.
+ * Storing the intent id on the order runs on this service's own threads, not on the
+ * gateway's I/O threads, which are kept for calls to Stripe.
+ */
+@Service
+@Slf4j
+public class OrderPaymentService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PaymentGateway paymentGateway;
+    private final Executor executor;
+
+    public OrderPaymentService(JdbcTemplate jdbcTemplate,
+                               PaymentGateway paymentGateway,
+                               Environment environment,
+                               @Value("${stripe.client.db-threads:4}") int dbThreads) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.paymentGateway = paymentGateway;
+        if (Threading.VIRTUAL.isActive(environment)) {
+            this.executor = new VirtualThreadTaskExecutor("payment-db-");
+        } else {
+            AtomicInteger threads = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(dbThreads, runnable -> {
+                Thread thread = new Thread(runnable, "payment-db-" + threads.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ExecutorService pool) {
+            pool.shutdown();
+        }
+    }
+
+    public CompletableFuture<Map<String, Object>> createPaymentIntent(UUID orderId) {
+        List<Map<String, Object>> orders = jdbcTemplate.queryForList(
+            "SELECT total_amount, currency, payment_status FROM orders WHERE id = ?", orderId);
+        if (orders.isEmpty()) {
+            throw new RuntimeException("Order not found");
+        }
+        Map<String, Object> order = orders.get(0);
+        if ("paid".equals(order.get("payment_status"))) {
+            throw new IllegalArgumentException("Order is already paid");
+        }
+        BigDecimal amount = (BigDecimal) order.get("total_amount");
+        String currency = order.get("currency") != null
+            ? ((String) order.get("currency")).toLowerCase(Locale.ROOT) : "usd";
+        long minorAmount = amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+
+        PaymentGateway.IntentRequest request = new PaymentGateway.IntentRequest(
+            idempotencyKey(orderId, minorAmount, currency), minorAmount, currency,
+            Map.of("order_id", orderId.toString()));
+        return paymentGateway.createPaymentIntent(request).thenApplyAsync(intent -> {
+            jdbcTemplate.update(
+                "UPDATE orders SET metadata = COALESCE(metadata, '{}'::jsonb) || jsonb_build_object('paymentIntentId', ?::text), "
+                    + "updated_at = NOW() WHERE id = ?",
+                intent.id(), orderId);
+            log.info("Created payment intent {} for order {}", intent.id(), orderId);
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("orderId", orderId);
+            result.put("paymentIntentId", intent.id());
+            result.put("clientSecret", intent.clientSecret());
+            result.put("amount", amount);
+            result.put("currency", currency);
+            return result;
+        }, executor);
+    }
+
+    private static String idempotencyKey(UUID orderId, long minorAmount, String currency) {
+        return "order-" + orderId + "-pi-" + minorAmount + currency;
+    }
+}
@@ -0,0 +1,43 @@
+package com.sutreya.ecommerce.service;
+
+import java.io.Serial;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Creates payments with an external provider. Calls never block the caller: the returned
+ * future completes once the provider has answered, the call's deadline has passed or its
+ * retries are used up. Requests carry an idempotency key, so repeating a request, whether
+ * by retry or by the client, yields the same payment instead of a second one.
+ */
+public interface PaymentGateway {
+
+    /**
+     * @param amount amount in the currency's smallest unit
+     */
+    record IntentRequest(String idempotencyKey, long amount, String currency, Map<String, String> metadata) {
+    }
+
+    record Intent(String id, String clientSecret, String status) {
+    }
+
+    /**
+     * The provider could not be reached in time, kept failing, or the gateway is already
+     * running as many calls as it allows. The request may succeed when repeated later.
+     */
+    class PaymentUnavailableException extends RuntimeException {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        public PaymentUnavailableException(String message) {
+            super(message);
+        }
+
+        public PaymentUnavailableException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    CompletableFuture<Intent> createPaymentIntent(IntentRequest request);
+}
@@ -0,0 +1,471 @@
+package com.sutreya.ecommerce.service;
+
+import com.sutreya.ecommerce.dto.ProductCardDTO;
+import com.sutreya.ecommerce.dto.ProductDTO;
+import com.sutreya.ecommerce.event.ProductChangedEvent;
+import com.sutreya.ecommerce.model.Product;
+import com.sutreya.ecommerce.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory read model of active products. Built once at startup and kept current
+ * incrementally from {@link ProductChangedEvent}s published by the write services.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductCatalog {
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private static final UUID MIN_UUID = new UUID(0L, 0L);
+    // far longer than any read put() is handed, so a tombstone this old can no longer turn one away
+    private static final long REMOVAL_RETENTION_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    // the same order PostgreSQL gives KeysetCursors.keysetSort: uuids compare byte by byte, as
+    // unsigned numbers, and a missing createdAt sorts last ascending, so first descending
+    private static final Comparator<UUID> UUID_BYTE_ORDER = Comparator
+        .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+        .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+    private static final Comparator<CatalogEntry> BY_CREATED_AT = Comparator
+        .comparing(CatalogEntry::createdAt, Comparator.nullsLast(Comparator.naturalOrder()))
+        .thenComparing(CatalogEntry::id, UUID_BYTE_ORDER);
+    private static final Comparator<CatalogEntry> BY_PRICE = Comparator
+        .comparing(CatalogEntry::price)
+        .thenComparing(CatalogEntry::id, UUID_BYTE_ORDER);
+
+    private final ProductRepository productRepository;
+    private final List<ProductIndex> indexes;
+
+    private volatile Map<UUID, CatalogEntry> byId = new ConcurrentHashMap<>();
+    private volatile Map<String, CatalogEntry> bySlug = new ConcurrentHashMap<>();
+    private volatile Map<UUID, Set<UUID>> bySeller = new ConcurrentHashMap<>();
+    // version a product had when it left the catalog, so a row read before that cannot bring it back
+    private final Map<UUID, Removal> removedAt = new ConcurrentHashMap<>();
+    private volatile CatalogEntry[] byCreatedAt = new CatalogEntry[0];
+    private volatile CatalogEntry[] byPrice = new CatalogEntry[0];
+    private volatile boolean ready;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final AtomicLong rebuilds = new AtomicLong();
+    private final AtomicLong incrementalUpdates = new AtomicLong();
+    // seeded from the clock so versions handed out before a restart are not reused after it
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+    // writers read the database while holding it, so it is a lock rather than a monitor that
+    // would pin a virtual thread to its carrier
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile Instant lastRebuildAt;
+    private volatile long lastRebuildMillis;
+
+    public record CatalogEntry(UUID id, String slug, UUID sellerId, Instant createdAt, BigDecimal price, long version,
+                               ProductDTO dto, ProductCardDTO card) {
+    }
+
+    private record Removal(long version, long removedAtNanos) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("Product catalog rebuild failed, serving reads from the database", e);
+        }
+    }
+
+    public void rebuild() {
+        writeLock.lock();
+        try {
+            rebuildLocked();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void rebuildLocked() {
+        long start = System.currentTimeMillis();
+        Map<UUID, CatalogEntry> newById = new ConcurrentHashMap<>();
+        Map<String, CatalogEntry> newBySlug = new ConcurrentHashMap<>();
+        Map<UUID, Set<UUID>> newBySeller = new ConcurrentHashMap<>();
+
+        UUID after = MIN_UUID;
+        Slice<Product> batch;
+        do {
+            batch = productRepository.findByIsActiveTrueAndIdGreaterThan(
+                after, PageRequest.of(0, REBUILD_BATCH_SIZE, Sort.by("id")));
+            for (Product product : batch) {
+                indexes.forEach(index -> index.index(product));
+                CatalogEntry entry = toEntry(product);
+                newById.put(entry.id(), entry);
+                newBySlug.put(entry.slug(), entry);
+                newBySeller.computeIfAbsent(entry.sellerId(), k -> ConcurrentHashMap.newKeySet()).add(entry.id());
+                after = product.getId();
+            }
+        } while (batch.hasNext());
+
+        CatalogEntry[] createdAtOrder = newById.values().toArray(new CatalogEntry[0]);
+        Arrays.sort(createdAtOrder, BY_CREATED_AT);
+        CatalogEntry[] priceOrder = createdAtOrder.clone();
+        Arrays.sort(priceOrder, BY_PRICE);
+
+        for (UUID staleId : byId.keySet()) {
+            if (!newById.containsKey(staleId)) {
+                indexes.forEach(index -> index.remove(staleId));
+            }
+        }
+
+        byId = newById;
+        bySlug = newBySlug;
+        removedAt.clear();
+        bySeller = newBySeller;
+        byCreatedAt = createdAtOrder;
+        byPrice = priceOrder;
+        ready = true;
+        version.incrementAndGet();
+
+        rebuilds.incrementAndGet();
+        lastRebuildAt = Instant.now();
+        lastRebuildMillis = System.currentTimeMillis() - start;
+        log.info("Product catalog rebuilt with {} active products in {} ms", newById.size(), lastRebuildMillis);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!ready || event.getProductIds().isEmpty()) {
+            return;
+        }
+        try {
+            refresh(event.getProductIds());
+        } catch (Exception e) {
+            log.error("Failed to refresh catalog for products {}", event.getProductIds(), e);
+        }
+    }
+
+    public void refresh(Collection<UUID> productIds) {
+        writeLock.lock();
+        try {
+            Map<UUID, Product> loaded = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+            long now = System.nanoTime();
+
+            for (UUID id : productIds) {
+                Product product = loaded.get(id);
+                if (product != null && Boolean.TRUE.equals(product.getIsActive())) {
+                    removedAt.remove(id);
+                    upsert(toEntry(product));
+                    indexes.forEach(index -> index.index(product));
+                } else {
+                    remove(id);
+                    removedAt.put(id, new Removal(product != null ? versionOf(product) : Long.MAX_VALUE, now));
+                    indexes.forEach(index -> index.remove(id));
+                }
+            }
+            // a tombstone only has to outlive the reads that started before it; a later read of
+            // the row sees the removal itself
+            removedAt.values().removeIf(removal -> now - removal.removedAtNanos() > REMOVAL_RETENTION_NANOS);
+            incrementalUpdates.addAndGet(productIds.size());
+            version.incrementAndGet();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Adds a product read outside the catalog's lock. The row is ignored if the catalog already
+     * holds a newer version of it, or the product was deactivated or deleted at or after that
+     * version, because a refresh has run since it was read.
+     */
+    public void put(Product product) {
+        if (ready && Boolean.TRUE.equals(product.getIsActive())) {
+            writeLock.lock();
+            try {
+                long productVersion = versionOf(product);
+                CatalogEntry current = byId.get(product.getId());
+                Removal removal = removedAt.get(product.getId());
+                if ((current != null && current.version() >= productVersion)
+                        || (removal != null && removal.version() >= productVersion)) {
+                    return;
+                }
+                removedAt.remove(product.getId());
+                upsert(toEntry(product));
+                indexes.forEach(index -> index.index(product));
+                version.incrementAndGet();
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    public Optional<ProductDTO> findBySlug(String slug) {
+        CatalogEntry entry = ready ? bySlug.get(slug) : null;
+        if (entry == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(entry.dto());
+    }
+
+    public Optional<CatalogEntry> findEntryBySlug(String slug) {
+        CatalogEntry entry = ready ? bySlug.get(slug) : null;
+        if (entry == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(entry);
+    }
+
+    public Optional<ProductDTO> findById(UUID id) {
+        CatalogEntry entry = ready ? byId.get(id) : null;
+        if (entry == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(entry.dto());
+    }
+
+    public CatalogEntry getEntry(UUID id) {
+        return byId.get(id);
+    }
+
+    public Optional<Page<ProductCardDTO>> findActive(Pageable pageable) {
+        return findActive(pageable, null, 0);
+    }
+
+    public Optional<Page<ProductCardDTO>> findActive(Pageable pageable, Predicate<UUID> filter, long matchCount) {
+        CatalogEntry[] ordered = ready ? orderedFor(pageable.getSort()) : null;
+        if (ordered == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+
+        boolean descending = pageable.getSort().stream().anyMatch(Sort.Order::isDescending);
+        int length = ordered.length;
+        long offset = pageable.getOffset();
+        int size = pageable.getPageSize();
+
+        if (filter == null) {
+            int from = (int) Math.min(offset, length);
+            int to = Math.min(from + size, length);
+            List<ProductCardDTO> content = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                content.add(ordered[descending ? length - 1 - i : i].card());
+            }
+            return Optional.of(new PageImpl<>(content, pageable, length));
+        }
+
+        List<ProductCardDTO> content = new ArrayList<>(size);
+        long matched = 0;
+        for (int i = 0; i < length && content.size() < size; i++) {
+            CatalogEntry entry = ordered[descending ? length - 1 - i : i];
+            if (filter.test(entry.id()) && matched++ >= offset) {
+                content.add(entry.card());
+            }
+        }
+        return Optional.of(new PageImpl<>(content, pageable, matchCount));
+    }
+
+    /**
+     * Returns up to {@code limit} entries that follow the given (key, id) position in the requested order.
+     */
+    public Optional<List<CatalogEntry>> scroll(Sort.Order order, KeysetCursors.Cursor after, int limit,
+                                               Predicate<UUID> filter) {
+        CatalogEntry[] ordered = ready ? orderedFor(Sort.by(order)) : null;
+        if (ordered == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+
+        boolean descending = order.isDescending();
+        int start = descending ? ordered.length - 1 : 0;
+        if (after != null) {
+            boolean byPrice = "price".equals(order.getProperty());
+            CatalogEntry probe = new CatalogEntry(after.id(), null, null,
+                byPrice ? null : (Instant) after.key(), byPrice ? (BigDecimal) after.key() : null, 0L, null, null);
+            int index = Arrays.binarySearch(ordered, probe, byPrice ? BY_PRICE : BY_CREATED_AT);
+            if (index >= 0) {
+                start = descending ? index - 1 : index + 1;
+            } else {
+                start = descending ? -index - 2 : -index - 1;
+            }
+        }
+
+        List<CatalogEntry> entries = new ArrayList<>(limit);
+        for (int i = start; i >= 0 && i < ordered.length && entries.size() < limit; i += descending ? -1 : 1) {
+            if (filter == null || filter.test(ordered[i].id())) {
+                entries.add(ordered[i]);
+            }
+        }
+        return Optional.of(entries);
+    }
+
+    public List<ProductDTO> findBySeller(UUID sellerId) {
+        Set<UUID> ids = bySeller.getOrDefault(sellerId, Set.of());
+        List<ProductDTO> products = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            CatalogEntry entry = byId.get(id);
+            if (entry != null) {
+                products.add(entry.dto());
+            }
+        }
+        return products;
+    }
+
+    public int countBySeller(UUID sellerId) {
+        return bySeller.getOrDefault(sellerId, Set.of()).size();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Changes whenever any active product is added, updated or removed, so it can validate
+     * anything derived from the whole catalog.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("ready", ready);
+        stats.put("products", byId.size());
+        stats.put("sellers", bySeller.size());
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("rebuilds", rebuilds.get());
+        stats.put("incrementalUpdates", incrementalUpdates.get());
+        stats.put("version", version.get());
+        stats.put("removals", removedAt.size());
+        stats.put("lastRebuildAt", lastRebuildAt);
+        stats.put("lastRebuildMillis", lastRebuildMillis);
+        return stats;
+    }
+
+    private CatalogEntry[] orderedFor(Sort sort) {
+        if (sort.isUnsorted()) {
+            return byCreatedAt;
+        }
+        List<Sort.Order> orders = sort.toList();
+        if (orders.size() != 1) {
+            return null;
+        }
+        switch (orders.get(0).getProperty()) {
+            case "createdAt":
+                return byCreatedAt;
+            case "price":
+                return byPrice;
+            default:
+                return null;
+        }
+    }
+
+    private void upsert(CatalogEntry entry) {
+        CatalogEntry previous = byId.put(entry.id(), entry);
+        if (previous != null) {
+            if (!previous.slug().equals(entry.slug())) {
+                bySlug.remove(previous.slug());
+            }
+            if (!previous.sellerId().equals(entry.sellerId())) {
+                removeFromSeller(previous);
+            }
+            byCreatedAt = without(byCreatedAt, previous, BY_CREATED_AT);
+            byPrice = without(byPrice, previous, BY_PRICE);
+        }
+        bySlug.put(entry.slug(), entry);
+        bySeller.computeIfAbsent(entry.sellerId(), k -> ConcurrentHashMap.newKeySet()).add(entry.id());
+        byCreatedAt = with(byCreatedAt, entry, BY_CREATED_AT);
+        byPrice = with(byPrice, entry, BY_PRICE);
+    }
+
+    private void remove(UUID id) {
+        CatalogEntry previous = byId.remove(id);
+        if (previous == null) {
+            return;
+        }
+        bySlug.remove(previous.slug());
+        removeFromSeller(previous);
+        byCreatedAt = without(byCreatedAt, previous, BY_CREATED_AT);
+        byPrice = without(byPrice, previous, BY_PRICE);
+    }
+
+    private void removeFromSeller(CatalogEntry entry) {
+        Set<UUID> ids = bySeller.get(entry.sellerId());
+        if (ids != null) {
+            ids.remove(entry.id());
+            if (ids.isEmpty()) {
+                bySeller.remove(entry.sellerId());
+            }
+        }
+    }
+
+    private static CatalogEntry[] with(CatalogEntry[] sorted, CatalogEntry entry, Comparator<CatalogEntry> order) {
+        int index = Arrays.binarySearch(sorted, entry, order);
+        if (index >= 0) {
+            CatalogEntry[] copy = sorted.clone();
+            copy[index] = entry;
+            return copy;
+        }
+        int insertAt = -index - 1;
+        CatalogEntry[] copy = new CatalogEntry[sorted.length + 1];
+        System.arraycopy(sorted, 0, copy, 0, insertAt);
+        copy[insertAt] = entry;
+        System.arraycopy(sorted, insertAt, copy, insertAt + 1, sorted.length - insertAt);
+        return copy;
+    }
+
+    private static CatalogEntry[] without(CatalogEntry[] sorted, CatalogEntry entry, Comparator<CatalogEntry> order) {
+        int index = Arrays.binarySearch(sorted, entry, order);
+        if (index < 0) {
+            return sorted;
+        }
+        CatalogEntry[] copy = new CatalogEntry[sorted.length - 1];
+        System.arraycopy(sorted, 0, copy, 0, index);
+        System.arraycopy(sorted, index + 1, copy, index, sorted.length - index - 1);
+        return copy;
+    }
+
+    static CatalogEntry toEntry(Product product) {
+        return new CatalogEntry(
+            product.getId(),
+            product.getSlug(),
+            product.getSellerId(),
+            product.getCreatedAt(),
+            product.getPrice(),
+            versionOf(product),
+            ProductMapper.toDTO(product),
+            ProductMapper.toCard(product));
+    }
+
+    private static long versionOf(Product product) {
+        return product.getVersion() != null ? product.getVersion() : 0L;
+    }
+}
@@ -0,0 +1,77 @@
+package com.sutreya.ecommerce.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.sutreya.ecommerce.dto.ProductDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.util.UUID;
+
+/**
+ * Streams a seller's products from a server-side cursor straight into the response, one row
+ * at a time. The read-only transaction is what lets the PostgreSQL driver honour the fetch size
+ * instead of buffering the whole result set.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductExportService {
+
+    private static final int FETCH_SIZE = 500;
+
+    private static final CsvMapper CSV_MAPPER = new CsvMapper();
+    private static final CsvSchema CSV_SCHEMA = CsvSchema.builder()
+        .addColumn("id")
+        .addColumn("name")
+        .addColumn("slug")
+        .addColumn("description")
+        .addColumn("price")
+        .addColumn("inventoryQuantity")
+        .addColumn("images")
+        .build()
+        .withHeader();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public void exportProducts(UUID sellerId, CatalogFormat format, OutputStream output) throws IOException {
+        ObjectWriter writer = format == CatalogFormat.CSV
+            ? CSV_MAPPER.writerFor(ProductDTO.class).with(CSV_SCHEMA)
+            : objectMapper.writerFor(ProductDTO.class).withRootValueSeparator("\n");
+
+        try (SequenceWriter rows = writer.writeValues(output)) {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                    "SELECT id, name, slug, description, price, inventory_quantity, images FROM products "
+                        + "WHERE seller_id = ? ORDER BY created_at, id");
+                statement.setObject(1, sellerId);
+                statement.setFetchSize(FETCH_SIZE);
+                return statement;
+            }, rs -> {
+                ProductDTO dto = new ProductDTO();
+                dto.setId(rs.getObject("id", UUID.class));
+                dto.setName(rs.getString("name"));
+                dto.setSlug(rs.getString("slug"));
+                dto.setDescription(rs.getString("description"));
+                dto.setPrice(rs.getBigDecimal("price"));
+                dto.setInventoryQuantity(rs.getInt("inventory_quantity"));
+                dto.setImages(rs.getString("images"));
+                try {
+                    rows.write(dto);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+}
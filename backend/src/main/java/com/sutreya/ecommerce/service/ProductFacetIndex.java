@@ -0,0 +1,404 @@
+package com.sutreya.ecommerce.service;
+
+import com.sutreya.ecommerce.model.Category;
+import com.sutreya.ecommerce.model.Product;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bitset posting lists for the listing facets. Every active product gets a dense ordinal;
+ * each facet value keeps the set of ordinals that carry it, so filtering and facet counts
+ * are bitwise intersections instead of one GROUP BY per facet.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductFacetIndex implements ProductIndex {
+
+    private static final BigDecimal[] PRICE_BOUNDS = {
+        BigDecimal.valueOf(25), BigDecimal.valueOf(50), BigDecimal.valueOf(100), BigDecimal.valueOf(250)
+    };
+    private static final String[] PRICE_LABELS = {"0-25", "25-50", "50-100", "100-250", "250+"};
+    // finer than the facet buckets, so a price filter only checks the products in the two bands its ends fall in
+    private static final BigDecimal[] PRICE_BAND_BOUNDS = {
+        BigDecimal.valueOf(10), BigDecimal.valueOf(25), BigDecimal.valueOf(50), BigDecimal.valueOf(75),
+        BigDecimal.valueOf(100), BigDecimal.valueOf(150), BigDecimal.valueOf(250), BigDecimal.valueOf(500),
+        BigDecimal.valueOf(1000)
+    };
+    private static final int MAX_MATERIAL_FACETS = 20;
+
+    private final CategoryTree categoryTree;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<UUID, Slot> slots = new ConcurrentHashMap<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private ProductFacets[] facetsByOrdinal = new ProductFacets[1024];
+    private int nextOrdinal;
+    private long assignments;
+
+    private final BitSet live = new BitSet();
+    private final BitSet inStock = new BitSet();
+    private final BitSet[] priceBuckets = newBitSets(PRICE_LABELS.length);
+    private final BitSet[] priceBands = newBitSets(PRICE_BAND_BOUNDS.length + 1);
+    private final Map<UUID, BitSet> byCategory = new HashMap<>();
+    private final Map<Product.ProductType, BitSet> byType = new EnumMap<>(Product.ProductType.class);
+    private final Map<String, BitSet> byMaterial = new HashMap<>();
+
+    // assignedAt orders ordinal assignments, so a selection can tell a reused ordinal from the one it matched
+    private record Slot(int ordinal, long assignedAt) {
+    }
+
+    private record ProductFacets(UUID productId, UUID categoryId, Product.ProductType type, Set<String> materials,
+                                 BigDecimal price, int priceBucket, int priceBand, boolean inStock) {
+    }
+
+    public record FacetQuery(Set<UUID> categoryIds, BigDecimal minPrice, BigDecimal maxPrice,
+                             boolean inStockOnly, Product.ProductType type, Set<String> materials) {
+    }
+
+    /**
+     * Matching ordinals taken while the index was locked. A product removed since, or whose ordinal
+     * was assigned after the selection was made, is not a match, so reused ordinals do not change
+     * what it contains.
+     */
+    public static final class Selection {
+        private final Map<UUID, Slot> slots;
+        private final long assignedUpTo;
+        // null when nothing was filtered, so every product indexed at the time matches
+        private final BitSet matches;
+        private final int count;
+        private final Map<String, Object> facets;
+
+        private Selection(Map<UUID, Slot> slots, long assignedUpTo, BitSet matches, int count,
+                          Map<String, Object> facets) {
+            this.slots = slots;
+            this.assignedUpTo = assignedUpTo;
+            this.matches = matches;
+            this.count = count;
+            this.facets = facets;
+        }
+
+        public boolean contains(UUID productId) {
+            Slot slot = slots.get(productId);
+            return slot != null && slot.assignedAt() <= assignedUpTo
+                && (matches == null || matches.get(slot.ordinal()));
+        }
+
+        public int count() {
+            return count;
+        }
+
+        public Map<String, Object> getFacets() {
+            return facets;
+        }
+    }
+
+    @Override
+    public void index(Product product) {
+        ProductFacets facets = toFacets(product);
+        lock.writeLock().lock();
+        try {
+            Slot slot = slots.get(product.getId());
+            int ordinal;
+            if (slot != null) {
+                ordinal = slot.ordinal();
+                clear(ordinal, facetsByOrdinal[ordinal]);
+            } else {
+                ordinal = freeOrdinals.isEmpty() ? nextOrdinal++ : freeOrdinals.pop();
+                slots.put(product.getId(), new Slot(ordinal, ++assignments));
+                if (ordinal >= facetsByOrdinal.length) {
+                    facetsByOrdinal = Arrays.copyOf(facetsByOrdinal, facetsByOrdinal.length * 2);
+                }
+            }
+            facetsByOrdinal[ordinal] = facets;
+            set(ordinal, facets);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(UUID productId) {
+        lock.writeLock().lock();
+        try {
+            Slot slot = slots.remove(productId);
+            if (slot != null) {
+                clear(slot.ordinal(), facetsByOrdinal[slot.ordinal()]);
+                facetsByOrdinal[slot.ordinal()] = null;
+                freeOrdinals.push(slot.ordinal());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Selection select(FacetQuery query, Collection<UUID> restrictTo) {
+        return select(query, restrictTo, true);
+    }
+
+    public Selection filter(FacetQuery query) {
+        return select(query, null, false);
+    }
+
+    private Selection select(FacetQuery query, Collection<UUID> restrictTo, boolean withCounts) {
+        lock.readLock().lock();
+        try {
+            BitSet base = live;
+            if (restrictTo != null) {
+                base = toBits(restrictTo);
+                base.and(live);
+            }
+
+            BitSet categoryFilter = query.categoryIds() == null ? null : union(byCategory, query.categoryIds());
+            BitSet priceFilter = priceRange(query.minPrice(), query.maxPrice());
+            BitSet stockFilter = query.inStockOnly() ? inStock : null;
+            BitSet typeFilter = query.type() == null ? null : byType.getOrDefault(query.type(), new BitSet());
+            BitSet materialFilter = query.materials() == null || query.materials().isEmpty()
+                ? null : union(byMaterial, query.materials());
+
+            // and() hands back base itself when no filter applies; it is only read while the lock is held
+            BitSet matches = and(base, categoryFilter, priceFilter, stockFilter, typeFilter, materialFilter);
+            BitSet selected = matches == live ? null : matches;
+            int count = selected == null ? slots.size() : selected.cardinality();
+            if (!withCounts) {
+                return new Selection(slots, assignments, selected, count, Map.of());
+            }
+
+            Map<String, Object> facets = new LinkedHashMap<>();
+            facets.put("categories", categoryCounts(and(base, priceFilter, stockFilter, typeFilter, materialFilter)));
+            facets.put("price", priceCounts(and(base, categoryFilter, stockFilter, typeFilter, materialFilter)));
+            facets.put("inStock", intersectionCount(and(base, categoryFilter, priceFilter, typeFilter, materialFilter), inStock));
+            facets.put("type", typeCounts(and(base, categoryFilter, priceFilter, stockFilter, materialFilter)));
+            facets.put("materials", materialCounts(and(base, categoryFilter, priceFilter, stockFilter, typeFilter)));
+
+            return new Selection(slots, assignments, selected, count, facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slots.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Map<String, Object>> categoryCounts(BitSet base) {
+        Map<UUID, Integer> subtreeCounts = new HashMap<>();
+        for (Map.Entry<UUID, BitSet> entry : byCategory.entrySet()) {
+            int count = intersectionCount(base, entry.getValue());
+            if (count > 0) {
+                for (UUID id : categoryTree.ancestorsAndSelf(entry.getKey())) {
+                    subtreeCounts.merge(id, count, Integer::sum);
+                }
+            }
+        }
+
+        List<Map<String, Object>> counts = new ArrayList<>();
+        subtreeCounts.forEach((id, count) -> {
+            Category category = categoryTree.get(id);
+            Map<String, Object> facet = new LinkedHashMap<>();
+            facet.put("id", id);
+            facet.put("slug", category != null ? category.getSlug() : null);
+            facet.put("name", category != null ? category.getName() : null);
+            facet.put("parentId", category != null ? category.getParentId() : null);
+            facet.put("count", count);
+            counts.add(facet);
+        });
+        counts.sort(Comparator.comparing((Map<String, Object> facet) -> (Integer) facet.get("count")).reversed());
+        return counts;
+    }
+
+    private List<Map<String, Object>> priceCounts(BitSet base) {
+        List<Map<String, Object>> counts = new ArrayList<>();
+        for (int i = 0; i < PRICE_LABELS.length; i++) {
+            Map<String, Object> facet = new LinkedHashMap<>();
+            facet.put("range", PRICE_LABELS[i]);
+            facet.put("min", i == 0 ? BigDecimal.ZERO : PRICE_BOUNDS[i - 1]);
+            facet.put("max", i < PRICE_BOUNDS.length ? PRICE_BOUNDS[i] : null);
+            facet.put("count", intersectionCount(base, priceBuckets[i]));
+            counts.add(facet);
+        }
+        return counts;
+    }
+
+    private Map<String, Integer> typeCounts(BitSet base) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (Product.ProductType type : Product.ProductType.values()) {
+            BitSet bits = byType.get(type);
+            counts.put(type.name(), bits == null ? 0 : intersectionCount(base, bits));
+        }
+        return counts;
+    }
+
+    private List<Map<String, Object>> materialCounts(BitSet base) {
+        List<Map<String, Object>> counts = new ArrayList<>();
+        for (Map.Entry<String, BitSet> entry : byMaterial.entrySet()) {
+            int count = intersectionCount(base, entry.getValue());
+            if (count > 0) {
+                Map<String, Object> facet = new LinkedHashMap<>();
+                facet.put("value", entry.getKey());
+                facet.put("count", count);
+                counts.add(facet);
+            }
+        }
+        counts.sort(Comparator.comparing((Map<String, Object> facet) -> (Integer) facet.get("count")).reversed()
+            .thenComparing(facet -> (String) facet.get("value")));
+        return counts.size() > MAX_MATERIAL_FACETS ? counts.subList(0, MAX_MATERIAL_FACETS) : counts;
+    }
+
+    private BitSet priceRange(BigDecimal min, BigDecimal max) {
+        if (min == null && max == null) {
+            return null;
+        }
+        BitSet bits = new BitSet();
+        for (int band = 0; band < priceBands.length; band++) {
+            BigDecimal low = band == 0 ? null : PRICE_BAND_BOUNDS[band - 1];
+            BigDecimal high = band < PRICE_BAND_BOUNDS.length ? PRICE_BAND_BOUNDS[band] : null;
+            if ((max != null && low != null && low.compareTo(max) > 0)
+                    || (min != null && high != null && high.compareTo(min) <= 0)) {
+                continue;
+            }
+            BitSet posting = priceBands[band];
+            if ((min == null || (low != null && low.compareTo(min) >= 0))
+                    && (max == null || (high != null && high.compareTo(max) <= 0))) {
+                bits.or(posting);
+                continue;
+            }
+            for (int ordinal = posting.nextSetBit(0); ordinal >= 0; ordinal = posting.nextSetBit(ordinal + 1)) {
+                BigDecimal price = facetsByOrdinal[ordinal].price();
+                if ((min == null || price.compareTo(min) >= 0) && (max == null || price.compareTo(max) <= 0)) {
+                    bits.set(ordinal);
+                }
+            }
+        }
+        return bits;
+    }
+
+    private BitSet toBits(Collection<UUID> productIds) {
+        BitSet bits = new BitSet();
+        for (UUID id : productIds) {
+            Slot slot = slots.get(id);
+            if (slot != null) {
+                bits.set(slot.ordinal());
+            }
+        }
+        return bits;
+    }
+
+    private void set(int ordinal, ProductFacets facets) {
+        live.set(ordinal);
+        inStock.set(ordinal, facets.inStock());
+        priceBuckets[facets.priceBucket()].set(ordinal);
+        priceBands[facets.priceBand()].set(ordinal);
+        if (facets.categoryId() != null) {
+            byCategory.computeIfAbsent(facets.categoryId(), k -> new BitSet()).set(ordinal);
+        }
+        byType.computeIfAbsent(facets.type(), k -> new BitSet()).set(ordinal);
+        for (String material : facets.materials()) {
+            byMaterial.computeIfAbsent(material, k -> new BitSet()).set(ordinal);
+        }
+    }
+
+    private void clear(int ordinal, ProductFacets facets) {
+        live.clear(ordinal);
+        inStock.clear(ordinal);
+        priceBuckets[facets.priceBucket()].clear(ordinal);
+        priceBands[facets.priceBand()].clear(ordinal);
+        if (facets.categoryId() != null) {
+            clearPosting(byCategory, facets.categoryId(), ordinal);
+        }
+        clearPosting(byType, facets.type(), ordinal);
+        for (String material : facets.materials()) {
+            clearPosting(byMaterial, material, ordinal);
+        }
+    }
+
+    private static <K> void clearPosting(Map<K, BitSet> postings, K key, int ordinal) {
+        BitSet bits = postings.get(key);
+        if (bits != null) {
+            bits.clear(ordinal);
+            if (bits.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    private static ProductFacets toFacets(Product product) {
+        Product.ProductType type = product.getType() != null ? product.getType() : Product.ProductType.PHYSICAL;
+        BigDecimal price = product.getPrice() != null ? product.getPrice() : BigDecimal.ZERO;
+        boolean available = product.getInventoryQuantity() != null && product.getInventoryQuantity() > 0;
+        String materials = product.getHandmadeAttributes() != null ? product.getHandmadeAttributes().getMaterials() : null;
+        return new ProductFacets(product.getId(), product.getCategoryId(), type, normalizeMaterials(materials),
+            price, bucket(price, PRICE_BOUNDS), bucket(price, PRICE_BAND_BOUNDS), available);
+    }
+
+    public static Set<String> normalizeMaterials(String materials) {
+        if (materials == null || materials.isBlank()) {
+            return Set.of();
+        }
+        Set<String> values = new HashSet<>();
+        for (String material : materials.split("[,;/]")) {
+            String value = material.trim().toLowerCase(Locale.ROOT);
+            if (!value.isEmpty()) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    private static int bucket(BigDecimal price, BigDecimal[] bounds) {
+        for (int i = 0; i < bounds.length; i++) {
+            if (price.compareTo(bounds[i]) < 0) {
+                return i;
+            }
+        }
+        return bounds.length;
+    }
+
+    private static <K> BitSet union(Map<K, BitSet> postings, Collection<K> keys) {
+        BitSet bits = new BitSet();
+        for (K key : keys) {
+            BitSet posting = postings.get(key);
+            if (posting != null) {
+                bits.or(posting);
+            }
+        }
+        return bits;
+    }
+
+    private static BitSet and(BitSet base, BitSet... filters) {
+        BitSet result = base;
+        for (BitSet filter : filters) {
+            if (filter != null) {
+                if (result == base) {
+                    result = (BitSet) base.clone();
+                }
+                result.and(filter);
+            }
+        }
+        return result;
+    }
+
+    private static int intersectionCount(BitSet a, BitSet b) {
+        BitSet smaller = a.size() <= b.size() ? a : b;
+        BitSet intersection = (BitSet) smaller.clone();
+        intersection.and(smaller == a ? b : a);
+        return intersection.cardinality();
+    }
+
+    private static BitSet[] newBitSets(int count) {
+        BitSet[] bitSets = new BitSet[count];
+        for (int i = 0; i < count; i++) {
+            bitSets[i] = new BitSet();
+        }
+        return bitSets;
+    }
+}
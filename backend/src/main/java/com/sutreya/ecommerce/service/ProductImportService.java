@@ -0,0 +1,216 @@
+package com.sutreya.ecommerce.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.sutreya.ecommerce.dto.CreateProductRequest;
+import com.sutreya.ecommerce.event.ProductChangedEvent;
+import com.sutreya.ecommerce.model.Product;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Streams a seller's catalog upload (CSV with a header row, or NDJSON) into the products table.
+ * Rows are parsed one at a time, validated, and inserted in JDBC batches of {@value #BATCH_SIZE},
+ * each batch in its own transaction, so heap use does not depend on the size of the upload.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductImportService {
+
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final ObjectReader CSV_READER = new CsvMapper()
+        .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+        .enable(CsvParser.Feature.TRIM_SPACES)
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+        .readerFor(CreateProductRequest.class)
+        .with(CsvSchema.emptySchema().withHeader().withArrayElementSeparator(";"));
+
+    private static final String INSERT_SQL =
+        "INSERT INTO products (id, seller_id, category_id, name, slug, description, short_description, price, "
+            + "compare_at_price, inventory_quantity, processing_days, materials, customization_available, type, "
+            + "tags, is_active, is_featured, version, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, TRUE, FALSE, 0, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final CategoryTree categoryTree;
+
+    private record PendingRow(int row, UUID id, String slug, CreateProductRequest request) {
+    }
+
+    public Map<String, Object> importProducts(UUID sellerId, InputStream input, CatalogFormat format) {
+        Boolean sellerExists = jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM profiles WHERE id = ?)", Boolean.class, sellerId);
+        if (!Boolean.TRUE.equals(sellerExists)) {
+            throw new RuntimeException("Seller not found");
+        }
+
+        ObjectReader reader = format == CatalogFormat.CSV
+            ? CSV_READER
+            : objectMapper.readerFor(CreateProductRequest.class);
+
+        List<PendingRow> batch = new ArrayList<>(BATCH_SIZE);
+        Set<String> batchSlugs = new HashSet<>();
+        List<Map<String, Object>> errors = new ArrayList<>();
+        int row = 0;
+        int imported = 0;
+        int failed = 0;
+        String status = "COMPLETED";
+
+        try (MappingIterator<CreateProductRequest> rows = reader.readValues(input)) {
+            while (true) {
+                CreateProductRequest request;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    row++;
+                    request = rows.nextValue();
+                } catch (JsonProcessingException e) {
+                    // the parser cannot reliably resynchronise after malformed input
+                    failed++;
+                    addError(errors, row, "Malformed row: " + e.getOriginalMessage());
+                    status = "ABORTED";
+                    break;
+                }
+
+                String error = validate(request);
+                if (error != null) {
+                    failed++;
+                    addError(errors, row, error);
+                    continue;
+                }
+
+                request.setSellerId(sellerId);
+                String slug = SlugGenerator.generate(request.getName());
+                while (!batchSlugs.add(slug)) {
+                    slug = SlugGenerator.generate(request.getName());
+                }
+                batch.add(new PendingRow(row, UUID.randomUUID(), slug, request));
+
+                if (batch.size() == BATCH_SIZE) {
+                    int inserted = insertBatch(batch, errors);
+                    imported += inserted;
+                    failed += batch.size() - inserted;
+                    batch.clear();
+                    batchSlugs.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read import: " + e.getMessage(), e);
+        }
+
+        if (!batch.isEmpty()) {
+            int inserted = insertBatch(batch, errors);
+            imported += inserted;
+            failed += batch.size() - inserted;
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("status", status);
+        result.put("rows", row);
+        result.put("imported", imported);
+        result.put("failed", failed);
+        result.put("errors", errors);
+        return result;
+    }
+
+    private int insertBatch(List<PendingRow> batch, List<Map<String, Object>> errors) {
+        Timestamp now = Timestamp.from(Instant.now());
+        try {
+            transactionTemplate.executeWithoutResult(tx -> {
+                jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        PendingRow pending = batch.get(i);
+                        CreateProductRequest request = pending.request();
+                        String[] tags = ProductMapper.toTags(request.getTags());
+                        Product.ProductType type = request.getType() != null
+                            ? request.getType() : Product.ProductType.PHYSICAL;
+
+                        ps.setObject(1, pending.id());
+                        ps.setObject(2, request.getSellerId());
+                        ps.setObject(3, request.getCategoryId());
+                        ps.setString(4, request.getName().trim());
+                        ps.setString(5, pending.slug());
+                        ps.setString(6, request.getDescription());
+                        ps.setString(7, request.getShortDescription());
+                        ps.setBigDecimal(8, request.getPrice());
+                        ps.setBigDecimal(9, request.getCompareAtPrice());
+                        ps.setInt(10, request.getInventoryQuantity() != null ? request.getInventoryQuantity() : 0);
+                        ps.setObject(11, request.getProcessingDays(), Types.INTEGER);
+                        ps.setString(12, request.getMaterials());
+                        ps.setObject(13, request.getCustomizationAvailable(), Types.BOOLEAN);
+                        ps.setString(14, type.name());
+                        ps.setArray(15, tags != null ? ps.getConnection().createArrayOf("text", tags) : null);
+                        ps.setTimestamp(16, now);
+                        ps.setTimestamp(17, now);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return batch.size();
+                    }
+                });
+                eventPublisher.publishEvent(ProductChangedEvent.of(batch.stream().map(PendingRow::id).toList()));
+            });
+            return batch.size();
+        } catch (Exception e) {
+            log.warn("Product import batch of {} rows failed", batch.size(), e);
+            String message = "Batch insert failed: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            for (PendingRow pending : batch) {
+                addError(errors, pending.row(), message);
+            }
+            return 0;
+        }
+    }
+
+    private String validate(CreateProductRequest request) {
+        if (request == null || request.getName() == null || request.getName().isBlank()) {
+            return "Name is required";
+        }
+        if (request.getPrice() == null || request.getPrice().compareTo(BigDecimal.ZERO) <= 0) {
+            return "Price must be greater than 0";
+        }
+        if (request.getInventoryQuantity() != null && request.getInventoryQuantity() < 0) {
+            return "Inventory quantity must not be negative";
+        }
+        if (request.getCategoryId() != null && categoryTree.get(request.getCategoryId()) == null) {
+            return "Unknown category";
+        }
+        return null;
+    }
+
+    private static void addError(List<Map<String, Object>> errors, int row, String message) {
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(Map.of("row", row, "error", message));
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.sutreya.ecommerce.service;
+
+import com.sutreya.ecommerce.model.Product;
+
+import java.util.UUID;
+
+/**
+ * Secondary in-memory index fed by {@link ProductCatalog}. {@code index} is an upsert
+ * of an active product; {@code remove} is called when a product is deleted or deactivated.
+ */
+public interface ProductIndex {
+
+    void index(Product product);
+
+    void remove(UUID productId);
+}
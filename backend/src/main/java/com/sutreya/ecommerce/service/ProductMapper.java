@@ -0,0 +1,64 @@
+package com.sutreya.ecommerce.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sutreya.ecommerce.dto.ProductCardDTO;
+import com.sutreya.ecommerce.dto.ProductDTO;
+import com.sutreya.ecommerce.model.Product;
+
+import java.io.IOException;
+import java.util.List;
+
+public final class ProductMapper {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private ProductMapper() {
+    }
+
+    public static ProductDTO toDTO(Product product) {
+        ProductDTO dto = new ProductDTO();
+        dto.setId(product.getId());
+        dto.setName(product.getName());
+        dto.setSlug(product.getSlug());
+        dto.setDescription(product.getDescription());
+        dto.setPrice(product.getPrice());
+        dto.setInventoryQuantity(product.getInventoryQuantity());
+        dto.setImages(product.getImages());
+        return dto;
+    }
+
+    public static ProductCardDTO toCard(Product product) {
+        return new ProductCardDTO(
+            product.getId(),
+            product.getName(),
+            product.getSlug(),
+            product.getPrice(),
+            product.getInventoryQuantity(),
+            firstImageUrl(product.getImages()));
+    }
+
+    public static String[] toTags(List<String> tags) {
+        return tags == null ? null : tags.stream()
+            .filter(tag -> tag != null && !tag.isBlank())
+            .map(String::trim)
+            .toArray(String[]::new);
+    }
+
+    /**
+     * First entry of a product's {@code images} JSON array. Entries are either plain URLs
+     * or objects with a {@code url} field; anything unparseable yields null.
+     */
+    public static String firstImageUrl(String images) {
+        if (images == null || images.isBlank()) {
+            return null;
+        }
+        try {
+            JsonNode first = JSON.readTree(images).path(0);
+            JsonNode url = first.isObject() ? first.path("url") : first;
+            return url.isTextual() ? url.asText() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
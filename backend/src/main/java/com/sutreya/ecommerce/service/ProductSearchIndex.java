@@ -0,0 +1,288 @@
+package com.sutreya.ecommerce.service;
+
+import com.sutreya.ecommerce.model.Product;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index over the searchable product fields, ranked with BM25. Field matches are
+ * weighted (name above tags and materials, above descriptions) and the last query token
+ * is treated as a prefix so the storefront search box can do type-ahead.
+ */
+@Component
+public class ProductSearchIndex implements ProductIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double PREFIX_PENALTY = 0.8;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float TAG_WEIGHT = 2.0f;
+    private static final float MATERIALS_WEIGHT = 2.0f;
+    private static final float SHORT_DESCRIPTION_WEIGHT = 1.5f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Set<String> STOP_WORDS = Set.of(
+        "a", "an", "and", "are", "as", "at", "by", "for", "from", "in", "is", "it",
+        "of", "on", "or", "the", "to", "with");
+
+    private static final Comparator<SearchHit> RANKING =
+        Comparator.comparingDouble(SearchHit::score).reversed().thenComparing(SearchHit::productId);
+
+    private final ConcurrentSkipListMap<String, Map<UUID, Float>> postings = new ConcurrentSkipListMap<>();
+    private final Map<UUID, Document> documents = new ConcurrentHashMap<>();
+    private volatile double totalLength;
+
+    public record SearchHit(UUID productId, double score) {
+    }
+
+    private record Document(Set<String> terms, float length) {
+    }
+
+    // a posting list with its boost and idf folded into one weight
+    private record Term(Map<UUID, Float> posting, double weight) {
+    }
+
+    /**
+     * The products a query matched, unscored, with the posting lists needed to score them.
+     */
+    public static final class Matches {
+        private static final Matches NONE = new Matches(List.of(), List.of(), 1);
+
+        private final List<UUID> ids;
+        private final List<List<Term>> groups;
+        private final double averageLength;
+
+        private Matches(List<UUID> ids, List<List<Term>> groups, double averageLength) {
+            this.ids = ids;
+            this.groups = groups;
+            this.averageLength = averageLength;
+        }
+
+        public List<UUID> ids() {
+            return ids;
+        }
+    }
+
+    @Override
+    public synchronized void index(Product product) {
+        removeDocument(product.getId());
+
+        Map<String, Float> terms = new HashMap<>();
+        addField(terms, product.getName(), NAME_WEIGHT);
+        addField(terms, product.getShortDescription(), SHORT_DESCRIPTION_WEIGHT);
+        addField(terms, product.getDescription(), DESCRIPTION_WEIGHT);
+        if (product.getHandmadeAttributes() != null) {
+            addField(terms, product.getHandmadeAttributes().getMaterials(), MATERIALS_WEIGHT);
+        }
+        if (product.getTags() != null) {
+            for (String tag : product.getTags()) {
+                addField(terms, tag, TAG_WEIGHT);
+            }
+        }
+
+        float length = 0;
+        for (Map.Entry<String, Float> term : terms.entrySet()) {
+            postings.computeIfAbsent(term.getKey(), k -> new ConcurrentHashMap<>())
+                .put(product.getId(), term.getValue());
+            length += term.getValue();
+        }
+        documents.put(product.getId(), new Document(terms.keySet(), length));
+        totalLength += length;
+    }
+
+    @Override
+    public synchronized void remove(UUID productId) {
+        removeDocument(productId);
+    }
+
+    /**
+     * Products containing every query token, found by walking the rarest token's postings and
+     * dropping candidates missing from the others. Nothing is scored yet; see {@link #top}.
+     */
+    public Matches match(String query) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return Matches.NONE;
+        }
+        boolean prefixLast = !Character.isWhitespace(query.charAt(query.length() - 1));
+
+        int documentCount = documents.size();
+        double averageLength = documentCount == 0 ? 1 : Math.max(1, totalLength / documentCount);
+        List<List<Term>> groups = new ArrayList<>(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            List<Term> group = new ArrayList<>();
+            addTerm(group, token, 1.0, documentCount);
+            if (prefixLast && i == tokens.size() - 1) {
+                int expansions = 0;
+                for (String term : postings.subMap(token, false, token + Character.MAX_VALUE, false).keySet()) {
+                    if (++expansions > MAX_PREFIX_EXPANSIONS) {
+                        break;
+                    }
+                    addTerm(group, term, PREFIX_PENALTY, documentCount);
+                }
+            }
+            if (group.isEmpty()) {
+                return Matches.NONE;
+            }
+            groups.add(group);
+        }
+        groups.sort(Comparator.comparingInt(ProductSearchIndex::postingCount));
+
+        List<Term> rarest = groups.get(0);
+        List<UUID> candidates;
+        if (rarest.size() == 1) {
+            candidates = new ArrayList<>(rarest.get(0).posting().keySet());
+        } else {
+            Set<UUID> union = new HashSet<>();
+            for (Term term : rarest) {
+                union.addAll(term.posting().keySet());
+            }
+            candidates = new ArrayList<>(union);
+        }
+        for (List<Term> group : groups.subList(1, groups.size())) {
+            candidates.removeIf(productId -> !containsAny(group, productId));
+            if (candidates.isEmpty()) {
+                return Matches.NONE;
+            }
+        }
+        return new Matches(candidates, groups, averageLength);
+    }
+
+    /**
+     * The {@code limit} best-scoring matches accepted by {@code filter}, highest score first. Only
+     * accepted matches are scored, and a heap of {@code limit} hits is kept rather than sorting all
+     * of them.
+     */
+    public List<SearchHit> top(Matches matches, int limit, Predicate<UUID> filter) {
+        if (limit <= 0 || matches.ids.isEmpty()) {
+            return List.of();
+        }
+        // worst hit at the head: lowest score, then the id that sorts last
+        PriorityQueue<SearchHit> heap = new PriorityQueue<>(Math.min(limit, matches.ids.size()) + 1,
+            RANKING.reversed());
+        for (UUID productId : matches.ids) {
+            if (filter != null && !filter.test(productId)) {
+                continue;
+            }
+            Document document = documents.get(productId);
+            if (document == null) {
+                continue;
+            }
+            SearchHit hit = new SearchHit(productId, score(matches, productId, document));
+            if (heap.size() < limit) {
+                heap.add(hit);
+            } else if (RANKING.compare(hit, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(hit);
+            }
+        }
+        List<SearchHit> hits = new ArrayList<>(heap);
+        hits.sort(RANKING);
+        return hits;
+    }
+
+    public List<SearchHit> search(String query, int limit) {
+        return top(match(query), limit, null);
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    public int termCount() {
+        return postings.size();
+    }
+
+    private void addTerm(List<Term> group, String term, double boost, int documentCount) {
+        Map<UUID, Float> posting = postings.get(term);
+        if (posting == null || posting.isEmpty()) {
+            return;
+        }
+        double idf = Math.log(1 + (documentCount - posting.size() + 0.5) / (posting.size() + 0.5));
+        group.add(new Term(posting, boost * idf));
+    }
+
+    private static int postingCount(List<Term> group) {
+        int count = 0;
+        for (Term term : group) {
+            count += term.posting().size();
+        }
+        return count;
+    }
+
+    private static boolean containsAny(List<Term> group, UUID productId) {
+        for (Term term : group) {
+            if (term.posting().containsKey(productId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // per token, the best of its terms (the token itself or a prefix expansion), summed over tokens
+    private static double score(Matches matches, UUID productId, Document document) {
+        double norm = K1 * (1 - B + B * document.length() / matches.averageLength);
+        double score = 0;
+        for (List<Term> group : matches.groups) {
+            double best = 0;
+            for (Term term : group) {
+                Float tf = term.posting().get(productId);
+                if (tf != null) {
+                    best = Math.max(best, term.weight() * (tf * (K1 + 1)) / (tf + norm));
+                }
+            }
+            score += best;
+        }
+        return score;
+    }
+
+    private void removeDocument(UUID productId) {
+        Document document = documents.remove(productId);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.terms()) {
+            Map<UUID, Float> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(productId);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        totalLength -= document.length();
+    }
+
+    private static void addField(Map<String, Float> terms, String text, float weight) {
+        for (String token : tokenize(text)) {
+            terms.merge(token, weight, Float::sum);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+            .replaceAll("")
+            .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : TOKEN_SEPARATOR.split(normalized)) {
+            if (!token.isEmpty() && !STOP_WORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
@@ -1,46 +1,160 @@
 package com.sutreya.ecommerce.service;
 
+import com.sutreya.ecommerce.dto.CursorPage;
+import com.sutreya.ecommerce.dto.FacetedPage;
+import com.sutreya.ecommerce.dto.ProductCardDTO;
 import com.sutreya.ecommerce.dto.ProductDTO;
+import com.sutreya.ecommerce.dto.ProductFilter;
 import com.sutreya.ecommerce.model.Product;
 import com.sutreya.ecommerce.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
 @Service
 @RequiredArgsConstructor
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final ProductCatalog productCatalog;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductFacetIndex productFacetIndex;
+    private final CategoryTree categoryTree;
+
+    public Page<ProductCardDTO> findProducts(ProductFilter filter, Pageable pageable) {
+        ProductFacetIndex.FacetQuery query = toFacetQuery(filter);
+        if (!productCatalog.isReady()) {
+            return productRepository.findCards(ProductSpecifications.activeMatching(filter.getSearch(), query), pageable);
+        }
+
+        ProductSearchIndex.Matches matches = filter.hasSearch() ? productSearchIndex.match(filter.getSearch()) : null;
+        ProductFacetIndex.Selection selection = productFacetIndex.select(query, matches == null ? null : matches.ids());
 
-    public Page<ProductDTO> findProducts(String category, String search, Pageable pageable) {
-        Page<Product> products;
-        
-        if (search != null && !search.isEmpty()) {
-            products = productRepository.findByNameContainingIgnoreCaseAndIsActiveTrue(search, pageable);
+        Page<ProductCardDTO> page;
+        if (matches != null) {
+            page = searchPage(matches, selection, pageable);
         } else {
-            products = productRepository.findByIsActiveTrue(pageable);
+            Predicate<UUID> predicate = isFiltered(query) ? selection::contains : null;
+            page = productCatalog.findActive(pageable, predicate, selection.count())
+                .orElseGet(() -> isFiltered(query)
+                    ? productRepository.findCards(ProductSpecifications.activeMatching(null, query), pageable)
+                    : productRepository.findCardsByIsActiveTrue(pageable));
         }
-        
-        return products.map(this::toDTO);
+        return new FacetedPage<>(page.getContent(), pageable, page.getTotalElements(), selection.getFacets());
+    }
+
+    public CursorPage<ProductCardDTO> findProductsByCursor(ProductFilter filter, String cursor, int size, String sort) {
+        if (filter.hasSearch()) {
+            throw new IllegalArgumentException("Cursor paging is not supported for search results");
+        }
+        Sort.Order order = KeysetCursors.parseSort(sort);
+        KeysetCursors.Cursor after = KeysetCursors.decode(cursor, order);
+        ProductFacetIndex.FacetQuery query = toFacetQuery(filter);
+
+        if (productCatalog.isReady()) {
+            Predicate<UUID> predicate = isFiltered(query) ? productFacetIndex.filter(query)::contains : null;
+            Optional<List<ProductCatalog.CatalogEntry>> entries = productCatalog.scroll(order, after, size + 1, predicate);
+            if (entries.isPresent()) {
+                List<ProductCatalog.CatalogEntry> rows = entries.get();
+                boolean hasNext = rows.size() > size;
+                return KeysetCursors.page(hasNext ? rows.subList(0, size) : rows, hasNext, order,
+                    entry -> KeysetCursors.sortKey(order, entry.createdAt(), entry.price()),
+                    ProductCatalog.CatalogEntry::id,
+                    ProductCatalog.CatalogEntry::card);
+            }
+        }
+
+        Window<ProductCardDTO> window = productRepository.scrollCards(ProductSpecifications.activeMatching(null, query),
+            KeysetCursors.position(after, order), KeysetCursors.keysetSort(order), Limit.of(size));
+        return KeysetCursors.page(window, order);
     }
 
     public ProductDTO getProductBySlug(String slug) {
+        return getProductEntryBySlug(slug).dto();
+    }
+
+    public ProductCatalog.CatalogEntry getProductEntryBySlug(String slug) {
+        Optional<ProductCatalog.CatalogEntry> cached = productCatalog.findEntryBySlug(slug);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
         Product product = productRepository.findBySlugAndIsActiveTrue(slug)
             .orElseThrow(() -> new RuntimeException("Product not found"));
-        return toDTO(product);
+        productCatalog.put(product);
+        return ProductCatalog.toEntry(product);
+    }
+
+    private Page<ProductCardDTO> searchPage(ProductSearchIndex.Matches matches, ProductFacetIndex.Selection selection,
+                                            Pageable pageable) {
+        List<ProductCatalog.CatalogEntry> entries = new ArrayList<>();
+        Sort.Order priceOrder = pageable.getSort().getOrderFor("price");
+        if (priceOrder == null) {
+            // ranked by relevance, so only the hits up to the end of this page need scoring
+            int end = (int) Math.min(pageable.getOffset() + pageable.getPageSize(), Integer.MAX_VALUE);
+            for (ProductSearchIndex.SearchHit hit : productSearchIndex.top(matches, end, selection::contains)) {
+                ProductCatalog.CatalogEntry entry = productCatalog.getEntry(hit.productId());
+                if (entry != null) {
+                    entries.add(entry);
+                }
+            }
+        } else {
+            for (UUID productId : matches.ids()) {
+                ProductCatalog.CatalogEntry entry = productCatalog.getEntry(productId);
+                if (entry != null && selection.contains(productId)) {
+                    entries.add(entry);
+                }
+            }
+            Comparator<ProductCatalog.CatalogEntry> byPrice = Comparator.comparing(ProductCatalog.CatalogEntry::price);
+            entries.sort((priceOrder.isDescending() ? byPrice.reversed() : byPrice)
+                .thenComparing(ProductCatalog.CatalogEntry::id));
+        }
+
+        int from = (int) Math.min(pageable.getOffset(), entries.size());
+        int to = Math.min(from + pageable.getPageSize(), entries.size());
+        List<ProductCardDTO> content = entries.subList(from, to).stream()
+            .map(ProductCatalog.CatalogEntry::card)
+            .collect(Collectors.toList());
+        return new PageImpl<>(content, pageable, selection.count());
+    }
+
+    private ProductFacetIndex.FacetQuery toFacetQuery(ProductFilter filter) {
+        Set<UUID> categoryIds = null;
+        if (filter.getCategory() != null && !filter.getCategory().isBlank()) {
+            categoryIds = categoryTree.resolve(filter.getCategory())
+                .map(category -> categoryTree.subtree(category.getId()))
+                .orElse(Set.of());
+        }
+
+        Set<String> materials = new HashSet<>();
+        if (filter.getMaterials() != null) {
+            filter.getMaterials().forEach(material -> materials.addAll(ProductFacetIndex.normalizeMaterials(material)));
+        }
+
+        return new ProductFacetIndex.FacetQuery(
+            categoryIds,
+            filter.getMinPrice(),
+            filter.getMaxPrice(),
+            Boolean.TRUE.equals(filter.getInStock()),
+            filter.getType(),
+            materials);
     }
 
-    private ProductDTO toDTO(Product product) {
-        ProductDTO dto = new ProductDTO();
-        dto.setId(product.getId());
-        dto.setName(product.getName());
-        dto.setSlug(product.getSlug());
-        dto.setDescription(product.getDescription());
-        dto.setPrice(product.getPrice());
-        dto.setInventoryQuantity(product.getInventoryQuantity());
-        dto.setImages(product.getImages());
-        return dto;
+    private static boolean isFiltered(ProductFacetIndex.FacetQuery query) {
+        return query.categoryIds() != null
+            || query.minPrice() != null
+            || query.maxPrice() != null
+            || query.inStockOnly()
+            || query.type() != null
+            || !query.materials().isEmpty();
     }
 }
@@ -0,0 +1,62 @@
+package com.sutreya.ecommerce.service;
+
+import com.sutreya.ecommerce.model.Product;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The listing filters as a database query, for the paths the catalog cannot serve. Each filter
+ * matches the same products as its posting list in {@link ProductFacetIndex}.
+ */
+public final class ProductSpecifications {
+
+    // ProductFacetIndex.normalizeMaterials: split on , ; or / then trim and lower-case
+    private static final String MATERIAL_SEPARATOR = "\\s*[,;/]\\s*";
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> activeMatching(String search, ProductFacetIndex.FacetQuery query) {
+        return (product, criteria, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.isTrue(product.get("isActive")));
+            if (search != null && !search.isBlank()) {
+                predicates.add(cb.like(cb.lower(product.get("name")),
+                    "%" + search.toLowerCase(Locale.ROOT) + "%"));
+            }
+            if (query.categoryIds() != null) {
+                predicates.add(query.categoryIds().isEmpty()
+                    ? cb.disjunction() : product.get("categoryId").in(query.categoryIds()));
+            }
+            if (query.minPrice() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(product.get("price"), query.minPrice()));
+            }
+            if (query.maxPrice() != null) {
+                predicates.add(cb.lessThanOrEqualTo(product.get("price"), query.maxPrice()));
+            }
+            if (query.inStockOnly()) {
+                predicates.add(cb.greaterThan(product.get("inventoryQuantity"), 0));
+            }
+            if (query.type() != null) {
+                Predicate type = cb.equal(product.get("type"), query.type());
+                predicates.add(query.type() == Product.ProductType.PHYSICAL
+                    ? cb.or(type, cb.isNull(product.get("type"))) : type);
+            }
+            if (!query.materials().isEmpty()) {
+                Expression<String[]> materials = cb.function("regexp_split_to_array", String[].class,
+                    cb.trim(cb.lower(product.get("handmadeAttributes").get("materials"))),
+                    cb.literal(MATERIAL_SEPARATOR));
+                predicates.add(cb.or(query.materials().stream()
+                    .map(material -> cb.isNotNull(cb.function("array_position", Integer.class,
+                        materials, cb.literal(material))))
+                    .toArray(Predicate[]::new)));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+}
@@ -0,0 +1,125 @@
+package com.sutreya.ecommerce.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Counts product page views in striped in-memory counters. Recording a view is a map read
+ * and a LongAdder increment; the counts are drained on a schedule into hourly rows of
+ * {@code product_view_stats} with one batched upsert.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductViewTracker {
+
+    private static final String UPSERT_SQL =
+        "INSERT INTO product_view_stats (product_id, bucket_start, views) VALUES (?, ?, ?) "
+            + "ON CONFLICT (product_id, bucket_start) DO UPDATE SET views = product_view_stats.views + EXCLUDED.views";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<UUID, LongAdder> pending = new ConcurrentHashMap<>();
+    // held across database calls, so a lock rather than a monitor that would pin a virtual thread
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushedViews = new AtomicLong();
+
+    public void record(UUID productId) {
+        LongAdder views = pending.get(productId);
+        if (views == null) {
+            views = pending.computeIfAbsent(productId, id -> new LongAdder());
+        }
+        views.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.views.flush-interval-ms:10000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<Object[]> batch = new ArrayList<>();
+            Timestamp bucket = Timestamp.from(Instant.now().truncatedTo(ChronoUnit.HOURS));
+            for (Map.Entry<UUID, LongAdder> entry : pending.entrySet()) {
+                long views = entry.getValue().sumThenReset();
+                if (views > 0) {
+                    batch.add(new Object[]{entry.getKey(), bucket, views});
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            try {
+                jdbcTemplate.batchUpdate(UPSERT_SQL, batch);
+                flushes.incrementAndGet();
+                flushedViews.addAndGet(batch.stream().mapToLong(row -> (Long) row[2]).sum());
+            } catch (Exception e) {
+                for (Object[] row : batch) {
+                    pending.computeIfAbsent((UUID) row[0], id -> new LongAdder()).add((Long) row[2]);
+                }
+                log.error("Failed to flush view counts for {} products, will retry", batch.size(), e);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * All-time views for the given products: flushed rows plus counts not yet flushed.
+     */
+    public Map<UUID, Long> getViews(Collection<UUID> productIds) {
+        Map<UUID, Long> views = new HashMap<>();
+        if (productIds.isEmpty()) {
+            return views;
+        }
+        // holding the flush lock keeps a concurrent flush from counting views twice or not at all
+        flushLock.lock();
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                    "SELECT product_id, SUM(views) AS views FROM product_view_stats "
+                        + "WHERE product_id = ANY(?) GROUP BY product_id");
+                statement.setArray(1, connection.createArrayOf("uuid", productIds.toArray()));
+                return statement;
+            }, rs -> {
+                views.put(rs.getObject("product_id", UUID.class), rs.getLong("views"));
+            });
+            for (UUID productId : productIds) {
+                LongAdder unflushed = pending.get(productId);
+                if (unflushed != null) {
+                    views.merge(productId, unflushed.sum(), Long::sum);
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+        return views;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("trackedProducts", pending.size());
+        stats.put("flushes", flushes.get());
+        stats.put("flushedViews", flushedViews.get());
+        return stats;
+    }
+}
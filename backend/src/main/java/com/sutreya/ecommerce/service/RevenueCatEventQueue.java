@@ -0,0 +1,105 @@
+package com.sutreya.ecommerce.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+/**
+ * RevenueCat webhooks, journaled and applied through a {@link WebhookIntake}. Each customer
+ * hashes to one worker lane, so their events apply in arrival order; a lane applies its batch
+ * per customer in one transaction.
+ */
+@Component
+public class RevenueCatEventQueue {
+
+    private static final String SOURCE = "revenuecat";
+
+    private record PendingEvent(String eventId, String appUserId, JsonNode payload) implements WebhookIntake.Event {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final SubscriptionService subscriptionService;
+    private final WebhookIntake<PendingEvent, String> intake;
+
+    public RevenueCatEventQueue(JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                ObjectMapper objectMapper,
+                                SubscriptionService subscriptionService,
+                                @Value("${revenuecat.ingest.workers:4}") int workerCount,
+                                @Value("${revenuecat.ingest.queue-capacity:10000}") int queueCapacity,
+                                @Value("${revenuecat.ingest.batch-size:100}") int batchSize) {
+        this.objectMapper = objectMapper;
+        this.subscriptionService = subscriptionService;
+        // retries are caught by the journal's key alone, so no recent ids are kept
+        this.intake = new WebhookIntake<>(SOURCE, jdbcTemplate, transactionTemplate,
+            workerCount, queueCapacity, batchSize, 0,
+            (eventId, payload) -> parse(payload), this::byCustomer, this::applyEvents);
+    }
+
+    /**
+     * Journals a raw webhook payload and queues it for its customer's lane. Throws
+     * IllegalArgumentException if the payload is not a RevenueCat event.
+     */
+    public WebhookIntake.Outcome enqueue(String payload) {
+        PendingEvent event = parse(payload);
+        return intake.offer(event, event.appUserId(), event.payload().path("event").path("type").asText(), payload);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void replayJournal() {
+        intake.replayJournal();
+    }
+
+    @Scheduled(fixedDelayString = "${revenuecat.ingest.retry-interval-ms:30000}")
+    public void retryFailed() {
+        intake.retryFailed();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        intake.shutdown();
+    }
+
+    public Map<String, Object> getStats() {
+        return intake.getStats();
+    }
+
+    private Map<String, List<PendingEvent>> byCustomer(List<PendingEvent> batch) {
+        Map<String, List<PendingEvent>> byCustomer = new LinkedHashMap<>();
+        for (PendingEvent event : batch) {
+            byCustomer.computeIfAbsent(event.appUserId(), id -> new ArrayList<>()).add(event);
+        }
+        return byCustomer;
+    }
+
+    private void applyEvents(Map<String, List<PendingEvent>> byCustomer) {
+        byCustomer.forEach((appUserId, events) ->
+            subscriptionService.applyEvents(appUserId, events.stream().map(PendingEvent::payload).toList()));
+    }
+
+    private PendingEvent parse(String payload) {
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed RevenueCat payload", e);
+        }
+        JsonNode event = root != null ? root.path("event") : null;
+        String eventId = event != null ? event.path("id").asText(null) : null;
+        String appUserId = event != null ? event.path("app_user_id").asText(null) : null;
+        if (eventId == null || appUserId == null || !event.hasNonNull("type")) {
+            throw new IllegalArgumentException("RevenueCat payload is missing event id, type or app_user_id");
+        }
+        return new PendingEvent(eventId, appUserId, root);
+    }
+}
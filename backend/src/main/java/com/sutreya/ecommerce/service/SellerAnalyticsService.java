@@ -0,0 +1,359 @@
+package com.sutreya.ecommerce.service;
+
+import com.sutreya.ecommerce.dto.ProductDTO;
+import com.sutreya.ecommerce.event.OrderPlacedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-seller sales aggregates maintained incrementally from placed orders: running totals,
+ * per-product totals, a top-{@value #TOP_PRODUCTS} list by revenue, and hourly and daily
+ * rollup rings. Reads never touch orders or order_items. The rollups live in memory and are
+ * rebuilt at startup, or on demand, by streaming the order history once.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SellerAnalyticsService {
+
+    private static final int TOP_PRODUCTS = 10;
+    private static final int HOURS = 48;
+    private static final int DAYS = 90;
+    private static final Duration BACKFILL_OVERLAP = Duration.ofMinutes(5);
+
+    private static final String HISTORY_SQL =
+        "SELECT o.id AS order_id, o.created_at, oi.product_id, p.seller_id, oi.product_name, oi.quantity, oi.total_price "
+            + "FROM orders o JOIN order_items oi ON oi.order_id = o.id JOIN products p ON p.id = oi.product_id "
+            + "ORDER BY o.created_at, o.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductCatalog productCatalog;
+    private final ProductViewTracker viewTracker;
+    private final LowStockMonitor lowStockMonitor;
+
+    private volatile Map<UUID, SellerRollup> sellers = new ConcurrentHashMap<>();
+    private final Object swapLock = new Object();
+    // held for the whole history query, so a lock rather than a monitor that would pin a virtual thread
+    private final ReentrantLock backfillLock = new ReentrantLock();
+    private List<OrderPlacedEvent> backfillBuffer;
+
+    private static final class Bucket {
+        private final long start;
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private long orders;
+        private long units;
+
+        private Bucket(long start) {
+            this.start = start;
+        }
+    }
+
+    private static final class ProductTotals {
+        private final UUID productId;
+        private String name;
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private long units;
+        private long orders;
+
+        private ProductTotals(UUID productId) {
+            this.productId = productId;
+        }
+    }
+
+    private static final class SellerRollup {
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private long orders;
+        private long units;
+        private final Map<UUID, ProductTotals> products = new HashMap<>();
+        private final List<ProductTotals> top = new ArrayList<>(TOP_PRODUCTS + 1);
+        private final Bucket[] hourly = new Bucket[HOURS];
+        private final Bucket[] daily = new Bucket[DAYS];
+
+        synchronized void record(Instant placedAt, List<OrderPlacedEvent.Line> lines) {
+            BigDecimal orderRevenue = BigDecimal.ZERO;
+            long orderUnits = 0;
+            for (OrderPlacedEvent.Line line : lines) {
+                ProductTotals product = products.computeIfAbsent(line.productId(), ProductTotals::new);
+                product.name = line.productName();
+                product.revenue = product.revenue.add(line.totalPrice());
+                product.units += line.quantity();
+                product.orders++;
+                promote(product);
+                orderRevenue = orderRevenue.add(line.totalPrice());
+                orderUnits += line.quantity();
+            }
+            revenue = revenue.add(orderRevenue);
+            orders++;
+            units += orderUnits;
+            add(hourly, placedAt.getEpochSecond() / 3600, orderRevenue, orderUnits);
+            add(daily, placedAt.getEpochSecond() / 86400, orderRevenue, orderUnits);
+        }
+
+        // product revenue only grows, so a product can only move up the list
+        private void promote(ProductTotals product) {
+            int index = top.indexOf(product);
+            if (index < 0) {
+                if (top.size() < TOP_PRODUCTS) {
+                    top.add(product);
+                } else if (top.get(TOP_PRODUCTS - 1).revenue.compareTo(product.revenue) < 0) {
+                    top.set(TOP_PRODUCTS - 1, product);
+                } else {
+                    return;
+                }
+                index = top.size() - 1;
+            }
+            while (index > 0 && top.get(index - 1).revenue.compareTo(product.revenue) < 0) {
+                Collections.swap(top, index, index - 1);
+                index--;
+            }
+        }
+
+        private static void add(Bucket[] ring, long period, BigDecimal revenue, long units) {
+            int slot = (int) Math.floorMod(period, (long) ring.length);
+            Bucket bucket = ring[slot];
+            if (bucket != null && bucket.start > period) {
+                return;
+            }
+            if (bucket == null || bucket.start < period) {
+                bucket = new Bucket(period);
+                ring[slot] = bucket;
+            }
+            bucket.revenue = bucket.revenue.add(revenue);
+            bucket.orders++;
+            bucket.units += units;
+        }
+
+        synchronized List<Map<String, Object>> series(Bucket[] ring, long current, int periods, long periodSeconds) {
+            List<Map<String, Object>> series = new ArrayList<>(periods);
+            for (long period = current - periods + 1; period <= current; period++) {
+                Bucket bucket = ring[(int) Math.floorMod(period, (long) ring.length)];
+                boolean present = bucket != null && bucket.start == period;
+                Map<String, Object> point = new LinkedHashMap<>();
+                point.put("start", Instant.ofEpochSecond(period * periodSeconds));
+                point.put("revenue", present ? bucket.revenue : BigDecimal.ZERO);
+                point.put("orders", present ? bucket.orders : 0L);
+                point.put("units", present ? bucket.units : 0L);
+                series.add(point);
+            }
+            return series;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        synchronized (swapLock) {
+            if (backfillBuffer != null) {
+                backfillBuffer.add(event);
+            }
+            record(sellers, event.getPlacedAt(), event.getLines());
+        }
+    }
+
+    public Map<String, Object> getDashboard(UUID sellerId) {
+        SellerRollup rollup = sellers.get(sellerId);
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("totalProducts", productCatalog.countBySeller(sellerId));
+        metrics.put("lowStockItems", lowStockMonitor.countLowStock(sellerId));
+        if (rollup == null) {
+            rollup = new SellerRollup();
+        }
+
+        long now = Instant.now().getEpochSecond();
+        synchronized (rollup) {
+            metrics.put("totalRevenue", rollup.revenue);
+            metrics.put("totalOrders", rollup.orders);
+            metrics.put("unitsSold", rollup.units);
+            List<Map<String, Object>> topProducts = new ArrayList<>(rollup.top.size());
+            for (ProductTotals product : rollup.top) {
+                Map<String, Object> entry = new HashMap<>();
+                entry.put("productId", product.productId);
+                entry.put("name", product.name);
+                entry.put("sales", product.units);
+                entry.put("revenue", product.revenue);
+                topProducts.add(entry);
+            }
+            metrics.put("topProducts", topProducts);
+            metrics.put("hourly", rollup.series(rollup.hourly, now / 3600, 24, 3600));
+            metrics.put("daily", rollup.series(rollup.daily, now / 86400, 30, 86400));
+        }
+        return metrics;
+    }
+
+    /**
+     * Sales, views and conversion (orders per 100 views) for each of the seller's products.
+     * Orders come from the rollups and views from {@link ProductViewTracker}.
+     */
+    public List<Map<String, Object>> getProductPerformance(UUID sellerId) {
+        Map<UUID, Map<String, Object>> performance = new LinkedHashMap<>();
+        for (ProductDTO product : productCatalog.findBySeller(sellerId)) {
+            performance.put(product.getId(), performanceEntry(product.getId(), product.getName()));
+        }
+        SellerRollup rollup = sellers.get(sellerId);
+        if (rollup != null) {
+            synchronized (rollup) {
+                for (ProductTotals product : rollup.products.values()) {
+                    Map<String, Object> entry = performance.computeIfAbsent(product.productId,
+                        id -> performanceEntry(id, product.name));
+                    entry.put("unitsSold", product.units);
+                    entry.put("orders", product.orders);
+                    entry.put("revenue", product.revenue);
+                }
+            }
+        }
+
+        Map<UUID, Long> views = viewTracker.getViews(performance.keySet());
+        for (Map<String, Object> entry : performance.values()) {
+            long productViews = views.getOrDefault((UUID) entry.get("productId"), 0L);
+            long orders = (Long) entry.get("orders");
+            entry.put("views", productViews);
+            entry.put("conversionRate", productViews == 0 ? 0.0
+                : Math.round(orders * 10000.0 / productViews) / 100.0);
+        }
+
+        List<Map<String, Object>> result = new ArrayList<>(performance.values());
+        result.sort(Comparator.comparing(entry -> (BigDecimal) entry.get("revenue"), Comparator.reverseOrder()));
+        return result;
+    }
+
+    private static Map<String, Object> performanceEntry(UUID productId, String name) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("productId", productId);
+        entry.put("name", name);
+        entry.put("unitsSold", 0L);
+        entry.put("orders", 0L);
+        entry.put("revenue", BigDecimal.ZERO);
+        return entry;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            backfill();
+        } catch (Exception e) {
+            log.error("Seller analytics backfill failed, rollups only cover orders placed from now on", e);
+        }
+    }
+
+    /**
+     * Rebuilds every rollup from orders and order_items in a single streaming pass, then swaps
+     * it in. Orders placed while the pass runs are buffered and applied on top of the new
+     * rollups unless the pass already saw them.
+     */
+    public Map<String, Object> backfill() {
+        backfillLock.lock();
+        try {
+            return backfillLocked();
+        } finally {
+            backfillLock.unlock();
+        }
+    }
+
+    private Map<String, Object> backfillLocked() {
+        long start = System.currentTimeMillis();
+        List<OrderPlacedEvent> buffer = new ArrayList<>();
+        synchronized (swapLock) {
+            backfillBuffer = buffer;
+        }
+
+        Instant overlapFrom = Instant.now().minus(BACKFILL_OVERLAP);
+        Map<UUID, SellerRollup> rebuilt = new ConcurrentHashMap<>();
+        Set<UUID> recentOrders = new HashSet<>();
+        long[] counts = new long[2];
+        try {
+            transactionTemplate.executeWithoutResult(tx -> {
+                OrderAccumulator current = new OrderAccumulator();
+                jdbcTemplate.query(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(
+                        HISTORY_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    statement.setFetchSize(1000);
+                    return statement;
+                }, rs -> {
+                    UUID orderId = rs.getObject("order_id", UUID.class);
+                    if (!orderId.equals(current.orderId)) {
+                        current.flushInto(rebuilt);
+                        current.orderId = orderId;
+                        current.placedAt = rs.getTimestamp("created_at").toInstant();
+                        if (!current.placedAt.isBefore(overlapFrom)) {
+                            recentOrders.add(orderId);
+                        }
+                        counts[0]++;
+                    }
+                    current.lines.add(new OrderPlacedEvent.Line(
+                        rs.getObject("product_id", UUID.class),
+                        rs.getObject("seller_id", UUID.class),
+                        rs.getString("product_name"),
+                        rs.getInt("quantity"),
+                        rs.getBigDecimal("total_price")));
+                    counts[1]++;
+                });
+                current.flushInto(rebuilt);
+            });
+        } catch (RuntimeException e) {
+            synchronized (swapLock) {
+                backfillBuffer = null;
+            }
+            throw e;
+        }
+
+        int replayed = 0;
+        synchronized (swapLock) {
+            for (OrderPlacedEvent event : buffer) {
+                if (!recentOrders.contains(event.getOrderId())) {
+                    record(rebuilt, event.getPlacedAt(), event.getLines());
+                    replayed++;
+                }
+            }
+            sellers = rebuilt;
+            backfillBuffer = null;
+        }
+
+        long elapsed = System.currentTimeMillis() - start;
+        log.info("Seller analytics rebuilt from {} orders ({} lines) for {} sellers in {} ms",
+            counts[0], counts[1], rebuilt.size(), elapsed);
+        Map<String, Object> result = new HashMap<>();
+        result.put("orders", counts[0]);
+        result.put("lines", counts[1]);
+        result.put("sellers", rebuilt.size());
+        result.put("replayedDuringBackfill", replayed);
+        result.put("elapsedMillis", elapsed);
+        return result;
+    }
+
+    private static final class OrderAccumulator {
+        private UUID orderId;
+        private Instant placedAt;
+        private final List<OrderPlacedEvent.Line> lines = new ArrayList<>();
+
+        void flushInto(Map<UUID, SellerRollup> target) {
+            if (orderId != null) {
+                record(target, placedAt, lines);
+            }
+            lines.clear();
+        }
+    }
+
+    private static void record(Map<UUID, SellerRollup> target, Instant placedAt, List<OrderPlacedEvent.Line> lines) {
+        Map<UUID, List<OrderPlacedEvent.Line>> bySeller = new HashMap<>();
+        for (OrderPlacedEvent.Line line : lines) {
+            bySeller.computeIfAbsent(line.sellerId(), id -> new ArrayList<>()).add(line);
+        }
+        bySeller.forEach((sellerId, sellerLines) ->
+            target.computeIfAbsent(sellerId, id -> new SellerRollup()).record(placedAt, sellerLines));
+    }
+}
@@ -0,0 +1,25 @@
+package com.sutreya.ecommerce.service;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+public final class SlugGenerator {
+
+    private static final Pattern INVALID_CHARACTERS = Pattern.compile("[^a-z0-9\\s-]");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private SlugGenerator() {
+    }
+
+    public static String generate(String name) {
+        String base = INVALID_CHARACTERS.matcher(name.toLowerCase(Locale.ROOT)).replaceAll("");
+        return WHITESPACE.matcher(base).replaceAll("-") + "-" + randomSuffix();
+    }
+
+    private static String randomSuffix() {
+        // 8 hex characters, the leading 1 bit keeps the zero padding
+        long value = ThreadLocalRandom.current().nextLong(0x100000000L) | 0x100000000L;
+        return Long.toHexString(value).substring(1);
+    }
+}
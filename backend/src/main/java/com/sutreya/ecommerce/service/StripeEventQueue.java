@@ -0,0 +1,294 @@
+package com.sutreya.ecommerce.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stripe.exception.SignatureVerificationException;
+import com.stripe.net.Webhook;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Stripe webhooks, which move {@code orders.payment_status} along. A payload is accepted only
+ * with a valid {@code Stripe-Signature}; journaling, redelivery checks, backpressure, retries
+ * and restart replay are the {@link WebhookIntake}'s. One lane applies the events in batches: it
+ * finds each event's order, by the {@code order_id} the intent was created with or by the
+ * intent id saved on the order, keeps the furthest status per order and writes them all with
+ * one statement. Stripe does not promise delivery order, so an order's payment status only
+ * ever moves forward, e.g. a late {@code payment_failed} never undoes {@code paid}.
+ */
+@Component
+public class StripeEventQueue {
+
+    private static final String SOURCE = "stripe";
+
+    /**
+     * Payment statuses by how far along they are. A failed attempt can be followed by another
+     * one that is processing and the other way round, so those two share a rank.
+     */
+    private enum PaymentStatus {
+        PENDING(0), FAILED(1), PROCESSING(1), PAID(2), PARTIALLY_REFUNDED(3), REFUNDED(4);
+
+        final int rank;
+        final String value;
+
+        PaymentStatus(int rank) {
+            this.rank = rank;
+            this.value = name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private record PendingEvent(String eventId, UUID orderId, String paymentIntentId, PaymentStatus status)
+        implements WebhookIntake.Event {
+    }
+
+    private static final String CURRENT_RANK = Arrays.stream(PaymentStatus.values())
+        .map(status -> "WHEN '" + status.value + "' THEN " + status.rank)
+        .collect(Collectors.joining(" ", "CASE o.payment_status ", " ELSE 0 END"));
+
+    private static final String UPDATE_ORDERS_SQL =
+        "UPDATE orders o SET payment_status = v.payment_status, "
+            + "status = CASE WHEN v.payment_status = 'paid' AND o.status = 'pending' THEN 'confirmed' "
+            + "WHEN v.payment_status = 'refunded' THEN 'refunded' ELSE o.status END, "
+            + "updated_at = NOW() "
+            + "FROM unnest(?::uuid[], ?::text[], ?::int[]) AS v(order_id, payment_status, rank) "
+            + "WHERE o.id = v.order_id AND o.payment_status IS DISTINCT FROM v.payment_status "
+            + "AND v.rank >= " + CURRENT_RANK;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final String webhookSecret;
+    private final long toleranceSeconds;
+    private final WebhookIntake<PendingEvent, UUID> intake;
+
+    private final LongAdder invalidSignatures = new LongAdder();
+
+    public StripeEventQueue(JdbcTemplate jdbcTemplate,
+                            TransactionTemplate transactionTemplate,
+                            ObjectMapper objectMapper,
+                            @Value("${stripe.webhook-secret:}") String webhookSecret,
+                            @Value("${stripe.webhook.tolerance-seconds:300}") long toleranceSeconds,
+                            @Value("${stripe.webhook.queue-capacity:10000}") int queueCapacity,
+                            @Value("${stripe.webhook.batch-size:200}") int batchSize,
+                            @Value("${stripe.webhook.recent-ids:10000}") int recentCapacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.webhookSecret = webhookSecret;
+        this.toleranceSeconds = toleranceSeconds;
+        this.intake = new WebhookIntake<>(SOURCE, jdbcTemplate, transactionTemplate,
+            1, queueCapacity, batchSize, recentCapacity,
+            (eventId, payload) -> toPending(eventId, read(payload)), this::byOrder, this::updateOrders);
+    }
+
+    /**
+     * Verifies, journals and queues a raw webhook payload. Throws IllegalArgumentException if
+     * the signature does not match or the payload is not a Stripe event.
+     */
+    public WebhookIntake.Outcome enqueue(String payload, String signature) {
+        verify(payload, signature);
+        JsonNode root = read(payload);
+        String eventId = root.path("id").asText(null);
+        String type = root.path("type").asText(null);
+        if (eventId == null || type == null || !root.path("data").has("object")) {
+            throw new IllegalArgumentException("Stripe payload is missing id, type or data.object");
+        }
+        JsonNode object = root.path("data").path("object");
+        String partitionKey = object.path("payment_intent").isTextual()
+            ? object.path("payment_intent").asText() : object.path("id").asText(eventId);
+
+        // events that change no order are journaled too, so a replay has every delivery
+        PendingEvent event = toPending(eventId, root);
+        return event != null
+            ? intake.offer(event, partitionKey, type, payload)
+            : intake.skip(eventId, partitionKey, type, payload);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void replayJournal() {
+        intake.replayJournal();
+    }
+
+    @Scheduled(fixedDelayString = "${stripe.webhook.retry-interval-ms:30000}")
+    public void retryFailed() {
+        intake.retryFailed();
+    }
+
+    /**
+     * Applies journaled events received at or after {@code since} again, in arrival order,
+     * through the intake's lanes. Only events in {@code status} are replayed, or all when it
+     * is null. Replaying is safe at any time as statuses only move forward; it backfills
+     * orders whose events arrived before the order could be matched, or before this intake
+     * existed.
+     */
+    public CompletableFuture<Map<String, Object>> replay(Instant since, String status) {
+        return intake.replay(since, status).thenApply(replay -> {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("events", replay.events());
+            result.put("paymentEvents", replay.applicable());
+            result.put("matched", replay.matched());
+            result.put("unmatched", replay.applicable() - replay.matched());
+            return result;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        intake.shutdown();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = intake.getStats();
+        stats.put("invalidSignatures", invalidSignatures.sum());
+        return stats;
+    }
+
+    private void verify(String payload, String signature) {
+        if (webhookSecret.isBlank()) {
+            invalidSignatures.increment();
+            throw new IllegalArgumentException("Stripe webhook secret is not configured");
+        }
+        try {
+            Webhook.Signature.verifyHeader(payload, signature, webhookSecret, toleranceSeconds);
+        } catch (SignatureVerificationException e) {
+            invalidSignatures.increment();
+            throw new IllegalArgumentException("Invalid Stripe signature");
+        }
+    }
+
+    // events whose order is not known are left out, and skipped
+    private Map<UUID, List<PendingEvent>> byOrder(List<PendingEvent> batch) {
+        Map<String, UUID> orders = resolveOrders(batch);
+        Map<UUID, List<PendingEvent>> byOrder = new LinkedHashMap<>();
+        for (PendingEvent event : batch) {
+            UUID orderId = orders.get(event.eventId());
+            if (orderId != null) {
+                byOrder.computeIfAbsent(orderId, id -> new ArrayList<>()).add(event);
+            }
+        }
+        return byOrder;
+    }
+
+    /**
+     * The order of each event, by event id, for events whose order exists. Events usually
+     * carry the order id the intent was created with; refunds and intents created elsewhere
+     * are found through the intent id saved on the order.
+     */
+    private Map<String, UUID> resolveOrders(List<PendingEvent> batch) {
+        Object[] orderIds = batch.stream().map(PendingEvent::orderId).filter(Objects::nonNull).distinct().toArray();
+        Object[] intentIds = batch.stream().map(PendingEvent::paymentIntentId).filter(Objects::nonNull).distinct().toArray();
+        Set<UUID> existing = new HashSet<>();
+        Map<String, UUID> byIntent = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                "SELECT id, metadata->>'paymentIntentId' AS payment_intent_id FROM orders "
+                    + "WHERE id = ANY(?) OR metadata->>'paymentIntentId' = ANY(?)");
+            statement.setArray(1, connection.createArrayOf("uuid", orderIds));
+            statement.setArray(2, connection.createArrayOf("text", intentIds));
+            return statement;
+        }, row -> {
+            UUID id = row.getObject("id", UUID.class);
+            existing.add(id);
+            String intentId = row.getString("payment_intent_id");
+            if (intentId != null) {
+                byIntent.put(intentId, id);
+            }
+        });
+
+        Map<String, UUID> orders = new HashMap<>();
+        for (PendingEvent event : batch) {
+            UUID orderId = event.orderId() != null && existing.contains(event.orderId())
+                ? event.orderId() : byIntent.get(event.paymentIntentId());
+            if (orderId != null) {
+                orders.put(event.eventId(), orderId);
+            }
+        }
+        return orders;
+    }
+
+    // one row per order, the furthest status of its events; among equals the later one wins
+    private void updateOrders(Map<UUID, List<PendingEvent>> byOrder) {
+        List<UUID> orderIds = new ArrayList<>(byOrder.size());
+        List<String> statuses = new ArrayList<>(byOrder.size());
+        List<Integer> ranks = new ArrayList<>(byOrder.size());
+        byOrder.forEach((orderId, events) -> {
+            PaymentStatus target = events.get(0).status();
+            for (PendingEvent event : events) {
+                if (event.status().rank >= target.rank) {
+                    target = event.status();
+                }
+            }
+            orderIds.add(orderId);
+            statuses.add(target.value);
+            ranks.add(target.rank);
+        });
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(UPDATE_ORDERS_SQL);
+            statement.setArray(1, connection.createArrayOf("uuid", orderIds.toArray()));
+            statement.setArray(2, connection.createArrayOf("text", statuses.toArray()));
+            statement.setArray(3, connection.createArrayOf("integer", ranks.toArray()));
+            return statement;
+        });
+    }
+
+    /**
+     * The payment status an event moves its order to, or null for events that do not concern
+     * an order's payment.
+     */
+    private static PendingEvent toPending(String eventId, JsonNode root) {
+        String type = root.path("type").asText();
+        JsonNode object = root.path("data").path("object");
+        PaymentStatus status;
+        String paymentIntentId;
+        switch (type) {
+            case "payment_intent.succeeded" -> status = PaymentStatus.PAID;
+            case "payment_intent.processing" -> status = PaymentStatus.PROCESSING;
+            case "payment_intent.payment_failed", "payment_intent.canceled" -> status = PaymentStatus.FAILED;
+            case "charge.refunded" -> status = object.path("refunded").asBoolean()
+                ? PaymentStatus.REFUNDED : PaymentStatus.PARTIALLY_REFUNDED;
+            default -> {
+                return null;
+            }
+        }
+        if (type.startsWith("payment_intent.")) {
+            paymentIntentId = object.path("id").asText(null);
+        } else {
+            paymentIntentId = object.path("payment_intent").asText(null);
+        }
+        UUID orderId;
+        try {
+            String value = object.path("metadata").path("order_id").asText(null);
+            orderId = value != null ? UUID.fromString(value) : null;
+        } catch (IllegalArgumentException e) {
+            orderId = null;
+        }
+        if (orderId == null && paymentIntentId == null) {
+            return null;
+        }
+        return new PendingEvent(eventId, orderId, paymentIntentId, status);
+    }
+
+    private JsonNode read(String payload) {
+        try {
+            JsonNode root = objectMapper.readTree(payload);
+            if (root == null || !root.isObject()) {
+                throw new IllegalArgumentException("Malformed Stripe payload");
+            }
+            return root;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed Stripe payload", e);
+        }
+    }
+}
@@ -1,38 +1,244 @@
 package com.sutreya.ecommerce.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.stripe.Stripe;
-import com.stripe.model.PaymentIntent;
-import com.stripe.param.PaymentIntentCreateParams;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.stereotype.Service;
 
-import jakarta.annotation.PostConstruct;
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * {@link PaymentGateway} on the Stripe REST API, called with the JDK's non-blocking
+ * {@link HttpClient} so no thread waits on Stripe. At most {@code max-in-flight} calls run at
+ * once and callers past that fail immediately rather than queue behind a slow Stripe. Each
+ * attempt has its own timeout and the whole call a deadline. Connection failures, timeouts,
+ * 409, 429 and 5xx answers are retried with jittered exponential backoff, unless Stripe says
+ * otherwise in {@code Stripe-Should-Retry}. Every attempt sends the same idempotency key, so
+ * a retry of a request Stripe did process returns the original intent.
+ */
 @Service
 @Slf4j
-public class StripeService {
+public class StripeService implements PaymentGateway {
 
-    @Value("${stripe.secret-key}")
-    private String stripeSecretKey;
+    private final ObjectMapper objectMapper;
+    private final String secretKey;
+    private final URI paymentIntentsUri;
+    private final Duration attemptTimeout;
+    private final long callTimeoutNanos;
+    private final int maxAttempts;
+    private final long retryBackoffMillis;
+    private final Semaphore inFlight;
+    private final Executor executor;
+    private final HttpClient httpClient;
 
-    @PostConstruct
-    public void init() {
-        Stripe.apiKey = stripeSecretKey;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public StripeService(ObjectMapper objectMapper,
+                         Environment environment,
+                         @Value("${stripe.secret-key}") String secretKey,
+                         @Value("${stripe.api-base:https://api.stripe.com}") String apiBase,
+                         @Value("${stripe.client.connect-timeout:PT2S}") Duration connectTimeout,
+                         @Value("${stripe.client.attempt-timeout:PT5S}") Duration attemptTimeout,
+                         @Value("${stripe.client.call-timeout:PT15S}") Duration callTimeout,
+                         @Value("${stripe.client.max-attempts:3}") int maxAttempts,
+                         @Value("${stripe.client.retry-backoff:PT0.25S}") Duration retryBackoff,
+                         @Value("${stripe.client.max-in-flight:64}") int maxInFlight,
+                         @Value("${stripe.client.io-threads:4}") int ioThreads) {
+        this.objectMapper = objectMapper;
+        this.secretKey = secretKey;
+        this.paymentIntentsUri = URI.create(apiBase + "/v1/payment_intents");
+        this.attemptTimeout = attemptTimeout;
+        this.callTimeoutNanos = callTimeout.toNanos();
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMillis = retryBackoff.toMillis();
+        this.inFlight = new Semaphore(maxInFlight);
+        // responses, retries and the callers' continuations run here
+        if (Threading.VIRTUAL.isActive(environment)) {
+            this.executor = new VirtualThreadTaskExecutor("stripe-io-");
+        } else {
+            AtomicInteger threads = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(ioThreads, runnable -> {
+                Thread thread = new Thread(runnable, "stripe-io-" + threads.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        this.httpClient = HttpClient.newBuilder()
+            .connectTimeout(connectTimeout)
+            .executor(executor)
+            .build();
     }
 
-    public PaymentIntent createPaymentIntent(BigDecimal amount, String currency) {
-        try {
-            PaymentIntentCreateParams params = PaymentIntentCreateParams.builder()
-                .setAmount(amount.multiply(BigDecimal.valueOf(100)).longValue())
-                .setCurrency(currency)
-                .build();
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ExecutorService pool) {
+            pool.shutdown();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Intent> createPaymentIntent(IntentRequest request) {
+        if (!inFlight.tryAcquire()) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(
+                new PaymentUnavailableException("Too many payment requests in progress"));
+        }
+        calls.increment();
+        CompletableFuture<Intent> result = new CompletableFuture<>();
+        result.whenComplete((intent, error) -> inFlight.release());
+        attempt(request, form(request), 1, System.nanoTime() + callTimeoutNanos, result);
+        return result;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("inFlightAvailable", inFlight.availablePermits());
+        stats.put("calls", calls.sum());
+        stats.put("attempts", attempts.sum());
+        stats.put("retries", retries.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("timedOut", timedOut.sum());
+        stats.put("failed", failed.sum());
+        return stats;
+    }
+
+    private void attempt(IntentRequest request, String body, int attempt, long deadline,
+                         CompletableFuture<Intent> result) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            timedOut.increment();
+            result.completeExceptionally(new PaymentUnavailableException("Payment provider did not answer in time"));
+            return;
+        }
+        attempts.increment();
+        HttpRequest httpRequest = HttpRequest.newBuilder(paymentIntentsUri)
+            .timeout(Duration.ofNanos(Math.min(remaining, attemptTimeout.toNanos())))
+            .header("Authorization", "Bearer " + secretKey)
+            .header("Stripe-Version", Stripe.API_VERSION)
+            .header("Idempotency-Key", request.idempotencyKey())
+            .header("Content-Type", "application/x-www-form-urlencoded")
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+
+        // the client hands dependent stages to the common pool, so they are moved back here
+        httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofString()).whenCompleteAsync((response, error) -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause == null && response.statusCode() < 300) {
+                try {
+                    result.complete(parseIntent(response.body()));
+                } catch (IOException e) {
+                    failed.increment();
+                    log.error("Unreadable payment intent from Stripe", e);
+                    result.completeExceptionally(new RuntimeException("Payment failed"));
+                }
+                return;
+            }
+
+            boolean retryable = cause != null ? cause instanceof IOException : shouldRetry(response);
+            if (retryable && attempt < maxAttempts) {
+                long delayMillis = backoffMillis(attempt);
+                if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis) < deadline) {
+                    retries.increment();
+                    log.warn("Retrying payment intent {} after attempt {}: {}", request.idempotencyKey(), attempt,
+                        cause != null ? cause.toString() : "status " + response.statusCode());
+                    CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS, executor)
+                        .execute(() -> attempt(request, body, attempt + 1, deadline, result));
+                    return;
+                }
+            }
+            result.completeExceptionally(failure(request, response, cause));
+        }, executor);
+    }
+
+    private RuntimeException failure(IntentRequest request, HttpResponse<String> response, Throwable cause) {
+        if (cause instanceof HttpTimeoutException) {
+            timedOut.increment();
+            return new PaymentUnavailableException("Payment provider did not answer in time", cause);
+        }
+        failed.increment();
+        if (cause != null) {
+            log.error("Error creating payment intent {}", request.idempotencyKey(), cause);
+            return new PaymentUnavailableException("Payment provider unreachable", cause);
+        }
+        String message = errorMessage(response.body());
+        log.error("Error creating payment intent {}: status {}, {}", request.idempotencyKey(),
+            response.statusCode(), message);
+        int status = response.statusCode();
+        if (status == 409 || status == 429 || status >= 500) {
+            return new PaymentUnavailableException("Payment provider unavailable");
+        }
+        if (status == 400 || status == 402) {
+            return new IllegalArgumentException(message != null ? message : "Payment was declined");
+        }
+        return new RuntimeException("Payment failed");
+    }
+
+    private static boolean shouldRetry(HttpResponse<String> response) {
+        String advice = response.headers().firstValue("Stripe-Should-Retry").orElse(null);
+        if (advice != null) {
+            return Boolean.parseBoolean(advice);
+        }
+        int status = response.statusCode();
+        return status == 409 || status == 429 || status >= 500;
+    }
+
+    // exponential, with the upper half of each step randomized so retries do not line up
+    private long backoffMillis(int attempt) {
+        long step = retryBackoffMillis << Math.min(attempt - 1, 10);
+        return step / 2 + ThreadLocalRandom.current().nextLong(step / 2 + 1);
+    }
 
-            return PaymentIntent.create(params);
-        } catch (Exception e) {
-            log.error("Error creating payment intent", e);
-            throw new RuntimeException("Payment failed");
+    private Intent parseIntent(String body) throws IOException {
+        JsonNode json = objectMapper.readTree(body);
+        if (!json.hasNonNull("id")) {
+            throw new IOException("Payment intent without id");
         }
+        return new Intent(json.get("id").asText(), json.path("client_secret").asText(null),
+            json.path("status").asText(null));
+    }
+
+    private String errorMessage(String body) {
+        try {
+            return objectMapper.readTree(body).path("error").path("message").asText(null);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static String form(IntentRequest request) {
+        StringBuilder form = new StringBuilder()
+            .append("amount=").append(request.amount())
+            .append("&currency=").append(encode(request.currency()));
+        request.metadata().forEach((key, value) ->
+            form.append("&metadata[").append(encode(key)).append("]=").append(encode(value)));
+        return form.toString();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
     }
 }
@@ -1,14 +1,17 @@
 package com.sutreya.ecommerce.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.sutreya.ecommerce.event.SubscriptionChangedEvent;
 import com.sutreya.ecommerce.model.Subscription;
 import com.sutreya.ecommerce.repository.SubscriptionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -17,6 +20,7 @@ import java.util.UUID;
 public class SubscriptionService {
 
     private final SubscriptionRepository subscriptionRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public void activateSubscription(String revenuecatCustomerId, JsonNode event) {
@@ -24,14 +28,8 @@ public class SubscriptionService {
             .findByRevenuecatCustomerId(revenuecatCustomerId)
             .orElseGet(() -> createNewSubscription(revenuecatCustomerId));
 
-        subscription.setStatus("ACTIVE");
-        subscription.setCurrentPeriodStart(Instant.ofEpochMilli(
-            event.get("event").get("purchased_at_ms").asLong()));
-        subscription.setCurrentPeriodEnd(Instant.ofEpochMilli(
-            event.get("event").get("expiration_at_ms").asLong()));
-        subscription.setUpdatedAt(Instant.now());
-        
-        subscriptionRepository.save(subscription);
+        activate(subscription, event);
+        save(subscription);
         log.info("Activated subscription for customer: {}", revenuecatCustomerId);
     }
 
@@ -39,9 +37,8 @@ public class SubscriptionService {
     public void markForCancellation(String revenuecatCustomerId, JsonNode event) {
         subscriptionRepository.findByRevenuecatCustomerId(revenuecatCustomerId)
             .ifPresent(subscription -> {
-                subscription.setCancelAtPeriodEnd(true);
-                subscription.setUpdatedAt(Instant.now());
-                subscriptionRepository.save(subscription);
+                cancelAtPeriodEnd(subscription);
+                save(subscription);
                 log.info("Marked subscription for cancellation: {}", revenuecatCustomerId);
             });
     }
@@ -50,19 +47,101 @@ public class SubscriptionService {
     public void expireSubscription(String revenuecatCustomerId, JsonNode event) {
         subscriptionRepository.findByRevenuecatCustomerId(revenuecatCustomerId)
             .ifPresent(subscription -> {
-                subscription.setStatus("EXPIRED");
-                subscription.setUpdatedAt(Instant.now());
-                subscriptionRepository.save(subscription);
+                expire(subscription);
+                save(subscription);
                 log.info("Expired subscription: {}", revenuecatCustomerId);
             });
     }
 
+    /**
+     * Applies a customer's webhook events in order against one load and one save of their
+     * subscription. Returns the number of events that changed it.
+     */
+    @Transactional
+    public int applyEvents(String revenuecatCustomerId, List<JsonNode> events) {
+        Subscription subscription = subscriptionRepository
+            .findByRevenuecatCustomerId(revenuecatCustomerId)
+            .orElse(null);
+
+        int applied = 0;
+        for (JsonNode event : events) {
+            String eventType = event.path("event").path("type").asText();
+            switch (eventType) {
+                case "INITIAL_PURCHASE", "RENEWAL", "UNCANCELLATION" -> {
+                    if (subscription == null) {
+                        subscription = createNewSubscription(revenuecatCustomerId);
+                    }
+                    activate(subscription, event);
+                    applied++;
+                }
+                case "CANCELLATION" -> {
+                    if (subscription != null) {
+                        cancelAtPeriodEnd(subscription);
+                        applied++;
+                    }
+                }
+                case "EXPIRATION" -> {
+                    if (subscription != null) {
+                        expire(subscription);
+                        applied++;
+                    }
+                }
+                default -> log.info("Unhandled RevenueCat event type: {}", eventType);
+            }
+        }
+
+        if (applied > 0) {
+            save(subscription);
+            log.info("Applied {} RevenueCat events for customer: {}", applied, revenuecatCustomerId);
+        }
+        return applied;
+    }
+
+    // the entitlement cache picks the change up once the transaction commits
+    private void save(Subscription subscription) {
+        subscriptionRepository.save(subscription);
+        eventPublisher.publishEvent(new SubscriptionChangedEvent(subscription.getUserId(), subscription.getStatus(),
+            subscription.getPlanType(), subscription.getCurrentPeriodEnd()));
+    }
+
+    private void activate(Subscription subscription, JsonNode event) {
+        subscription.setStatus("ACTIVE");
+        JsonNode entitlementIds = event.get("event").path("entitlement_ids");
+        if (entitlementIds.isArray() && !entitlementIds.isEmpty()) {
+            subscription.setPlanType(entitlementIds.get(0).asText().toUpperCase());
+        }
+        subscription.setCurrentPeriodStart(Instant.ofEpochMilli(
+            event.get("event").get("purchased_at_ms").asLong()));
+        subscription.setCurrentPeriodEnd(Instant.ofEpochMilli(
+            event.get("event").get("expiration_at_ms").asLong()));
+        subscription.setUpdatedAt(Instant.now());
+    }
+
+    private void cancelAtPeriodEnd(Subscription subscription) {
+        subscription.setCancelAtPeriodEnd(true);
+        subscription.setUpdatedAt(Instant.now());
+    }
+
+    private void expire(Subscription subscription) {
+        subscription.setStatus("EXPIRED");
+        subscription.setUpdatedAt(Instant.now());
+    }
+
     private Subscription createNewSubscription(String revenuecatCustomerId) {
         Subscription subscription = new Subscription();
         subscription.setRevenuecatCustomerId(revenuecatCustomerId);
-        subscription.setUserId(UUID.randomUUID());
+        subscription.setUserId(userId(revenuecatCustomerId));
         subscription.setStatus("PENDING");
         subscription.setPlanType("FREE");
         return subscription;
     }
+
+    // the app identifies customers to RevenueCat by their profile id
+    private static UUID userId(String revenuecatCustomerId) {
+        try {
+            return UUID.fromString(revenuecatCustomerId);
+        } catch (IllegalArgumentException e) {
+            return UUID.randomUUID();
+        }
+    }
 }
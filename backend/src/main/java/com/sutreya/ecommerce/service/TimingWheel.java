@@ -0,0 +1,88 @@
+package com.sutreya.ecommerce.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel. Each key has at most one deadline; scheduling, rescheduling and
+ * cancelling are constant time, and {@link #advance(Instant)} only visits the buckets for the
+ * ticks that have passed. Keys due within the same tick fire together at the end of that tick.
+ */
+public final class TimingWheel<K> {
+
+    private final long tickMillis;
+    private final List<Set<Timer<K>>> buckets;
+    private final Map<K, Timer<K>> timers = new HashMap<>();
+    private final Consumer<K> onExpire;
+    private long currentTick;
+
+    private record Timer<K>(K key, long tick) {
+    }
+
+    public TimingWheel(Duration tick, int wheelSize, Consumer<K> onExpire, Instant start) {
+        this.tickMillis = tick.toMillis();
+        this.onExpire = onExpire;
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new HashSet<>());
+        }
+        this.currentTick = start.toEpochMilli() / tickMillis;
+    }
+
+    /**
+     * Schedules {@code key} to expire at {@code deadline}, replacing any earlier deadline.
+     * Returns false without scheduling if the deadline has already passed.
+     */
+    public synchronized boolean schedule(K key, Instant deadline) {
+        cancel(key);
+        long tick = Math.floorDiv(deadline.toEpochMilli() + tickMillis - 1, tickMillis);
+        if (tick <= currentTick) {
+            return false;
+        }
+        Timer<K> timer = new Timer<>(key, tick);
+        timers.put(key, timer);
+        bucket(tick).add(timer);
+        return true;
+    }
+
+    public synchronized void cancel(K key) {
+        Timer<K> timer = timers.remove(key);
+        if (timer != null) {
+            bucket(timer.tick()).remove(timer);
+        }
+    }
+
+    public synchronized int size() {
+        return timers.size();
+    }
+
+    /**
+     * Fires every key whose deadline is at or before {@code now}.
+     */
+    public void advance(Instant now) {
+        List<K> expired = new ArrayList<>();
+        synchronized (this) {
+            long nowTick = now.toEpochMilli() / tickMillis;
+            long ticks = Math.min(nowTick - currentTick, buckets.size());
+            for (long i = 1; i <= ticks; i++) {
+                Iterator<Timer<K>> timersInBucket = bucket(currentTick + i).iterator();
+                while (timersInBucket.hasNext()) {
+                    Timer<K> timer = timersInBucket.next();
+                    if (timer.tick() <= nowTick) {
+                        timersInBucket.remove();
+                        timers.remove(timer.key());
+                        expired.add(timer.key());
+                    }
+                }
+            }
+            currentTick = Math.max(currentTick, nowTick);
+        }
+        expired.forEach(onExpire);
+    }
+
+    private Set<Timer<K>> bucket(long tick) {
+        return buckets.get((int) Math.floorMod(tick, (long) buckets.size()));
+    }
+}
@@ -0,0 +1,461 @@
+package com.sutreya.ecommerce.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Durable webhook intake over {@code webhook_events}, shared by the webhook sources. A payload
+ * is journaled before it is acknowledged. Redeliveries of an event that is already applied or
+ * skipped, caught in a bounded set of recently settled ids or by the journal's key, are not
+ * applied again; a redelivered event that failed, or is PENDING without being queued here, is
+ * queued again. Events hash by partition key to one worker lane, so events with the same key
+ * apply in arrival order; a lane drains its queue in batches and applies each batch in one
+ * transaction, falling back to one transaction per event if the batch fails. At most
+ * {@code queueCapacity} events are in flight; beyond that intake is refused so the sender
+ * retries later.
+ * <p>
+ * PENDING rows left by a restart are queued on the intake's replay thread before intake opens.
+ * {@link #retryFailed} queues FAILED rows again with exponential backoff, up to
+ * {@value #MAX_ATTEMPTS} attempts, and PENDING rows that have not been applied within
+ * {@link #STALLED_AFTER} and are not queued on this instance. {@link #replay} reads stored
+ * events on the replay thread and applies them through the same lanes, so they keep their
+ * order with live events.
+ *
+ * @param <E> the source's parsed event
+ * @param <K> what the source's events are applied to, e.g. an order
+ */
+@Slf4j
+public final class WebhookIntake<E extends WebhookIntake.Event, K> {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final int MAX_ATTEMPTS = 8;
+    private static final Duration RETRY_BACKOFF = Duration.ofSeconds(30);
+    private static final Duration STALLED_AFTER = Duration.ofMinutes(5);
+
+    public enum Outcome {
+        ACCEPTED, DUPLICATE, REJECTED
+    }
+
+    public interface Event {
+        String eventId();
+    }
+
+    /**
+     * Outcome of replaying stored events: how many were read, how many of them had something
+     * to apply, and how many of those found what they apply to.
+     */
+    public record Replay(int events, int applicable, int matched) {
+    }
+
+    // done, when set, completes with whether the event found what it applies to
+    private record Queued<E>(E event, CompletableFuture<Boolean> done) {
+    }
+
+    private final String source;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final BiFunction<String, String, E> decode;
+    private final Function<List<E>, Map<K, List<E>>> group;
+    private final Consumer<Map<K, List<E>>> apply;
+    private final Semaphore capacity;
+    private final LinkedHashMap<String, Boolean> recent;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final List<BlockingQueue<Queued<E>>> lanes = new ArrayList<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private final ExecutorService replayExecutor;
+
+    private volatile boolean accepting;
+    private volatile boolean running = true;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder recentHits = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder unmatched = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    /**
+     * @param decode the event to apply for a journaled payload, by event id and payload, or
+     *               null for events that change nothing
+     * @param group  a batch's events by what they apply to, each list in arrival order; events
+     *               left out have nothing to apply to and are marked SKIPPED
+     * @param apply  applies grouped events; runs inside the transaction that marks them APPLIED
+     */
+    public WebhookIntake(String source,
+                         JdbcTemplate jdbcTemplate,
+                         TransactionTemplate transactionTemplate,
+                         int workerCount,
+                         int queueCapacity,
+                         int batchSize,
+                         int recentCapacity,
+                         BiFunction<String, String, E> decode,
+                         Function<List<E>, Map<K, List<E>>> group,
+                         Consumer<Map<K, List<E>>> apply) {
+        this.source = source;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.decode = decode;
+        this.group = group;
+        this.apply = apply;
+        this.capacity = new Semaphore(queueCapacity);
+        this.recent = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > recentCapacity;
+            }
+        };
+        for (int i = 0; i < workerCount; i++) {
+            BlockingQueue<Queued<E>> lane = new LinkedBlockingQueue<>();
+            Thread worker = new Thread(() -> drain(lane), source + "-lane-" + i);
+            worker.setDaemon(true);
+            lanes.add(lane);
+            workers.add(worker);
+            worker.start();
+        }
+        this.replayExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, source + "-replay");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Journals a payload as PENDING and queues its event on the partition key's lane.
+     */
+    public Outcome offer(E event, String partitionKey, String type, String payload) {
+        if (seen(event.eventId())) {
+            return Outcome.DUPLICATE;
+        }
+        if (!accepting || !capacity.tryAcquire()) {
+            rejected.increment();
+            return Outcome.REJECTED;
+        }
+
+        boolean queued;
+        try {
+            queued = journal(event.eventId(), partitionKey, type, payload, "PENDING") || unsettled(event.eventId());
+        } catch (RuntimeException e) {
+            capacity.release();
+            throw e;
+        }
+        if (!queued) {
+            capacity.release();
+            duplicates.increment();
+            return Outcome.DUPLICATE;
+        }
+
+        queue(event, partitionKey, null);
+        accepted.increment();
+        return Outcome.ACCEPTED;
+    }
+
+    /**
+     * Journals a payload that changes nothing as SKIPPED, so a replay still has every delivery.
+     */
+    public Outcome skip(String eventId, String partitionKey, String type, String payload) {
+        if (seen(eventId)) {
+            return Outcome.DUPLICATE;
+        }
+        boolean inserted = journal(eventId, partitionKey, type, payload, "SKIPPED");
+        remember(List.of(eventId));
+        if (!inserted) {
+            duplicates.increment();
+            return Outcome.DUPLICATE;
+        }
+        accepted.increment();
+        return Outcome.ACCEPTED;
+    }
+
+    /**
+     * Queues the PENDING rows left by a previous run, then opens intake.
+     */
+    public void replayJournal() {
+        replayExecutor.execute(() -> {
+            int replayed = 0;
+            try {
+                List<Map<String, Object>> rows;
+                long afterSeq = 0;
+                do {
+                    rows = jdbcTemplate.queryForList(
+                        "SELECT seq, event_id, partition_key, payload::text AS payload FROM webhook_events "
+                            + "WHERE source = ? AND status = 'PENDING' AND seq > ? ORDER BY seq LIMIT ?",
+                        source, afterSeq, batchSize);
+                    for (Map<String, Object> row : rows) {
+                        afterSeq = ((Number) row.get("seq")).longValue();
+                        E event = decode.apply((String) row.get("event_id"), (String) row.get("payload"));
+                        if (event != null) {
+                            capacity.acquireUninterruptibly();
+                            queue(event, (String) row.get("partition_key"), null);
+                            replayed++;
+                        }
+                    }
+                } while (rows.size() == batchSize && running);
+                if (replayed > 0) {
+                    log.info("Replayed {} pending {} events from the journal", replayed, source);
+                }
+            } catch (Exception e) {
+                log.error("{} journal replay stopped after {} events", source, replayed, e);
+            } finally {
+                accepting = true;
+            }
+        });
+    }
+
+    /**
+     * Queues FAILED rows whose backoff has passed, and PENDING rows that stalled, e.g. because
+     * their batch could not be marked. Returns how many were queued; stops early when the
+     * lanes are full.
+     */
+    public int retryFailed() {
+        if (!accepting) {
+            return 0;
+        }
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+            "SELECT event_id, partition_key, payload::text AS payload FROM webhook_events WHERE source = ? AND "
+                + "((status = 'FAILED' AND attempts < ? "
+                + "AND processed_at < NOW() - make_interval(secs => ? * power(2, attempts - 1))) "
+                + "OR (status = 'PENDING' AND received_at < NOW() - make_interval(secs => ?))) "
+                + "ORDER BY seq LIMIT ?",
+            source, MAX_ATTEMPTS, RETRY_BACKOFF.toSeconds(), STALLED_AFTER.toSeconds(), batchSize);
+        int queued = 0;
+        for (Map<String, Object> row : rows) {
+            String eventId = (String) row.get("event_id");
+            if (inFlight.contains(eventId)) {
+                continue;
+            }
+            E event = decode.apply(eventId, (String) row.get("payload"));
+            if (event == null) {
+                continue;
+            }
+            if (!capacity.tryAcquire()) {
+                break;
+            }
+            queue(event, (String) row.get("partition_key"), null);
+            queued++;
+        }
+        if (queued > 0) {
+            retried.add(queued);
+            log.info("Retrying {} failed or stalled {} events", queued, source);
+        }
+        return queued;
+    }
+
+    /**
+     * Applies journaled events received at or after {@code since} again, in arrival order.
+     * Only events in {@code status} are replayed, or all when it is null. The rows are read on
+     * the replay thread and applied by the lanes; the result completes once they are applied.
+     */
+    public CompletableFuture<Replay> replay(Instant since, String status) {
+        return CompletableFuture.supplyAsync(() -> {
+            long afterSeq = 0;
+            int events = 0;
+            List<CompletableFuture<Boolean>> queued = new ArrayList<>();
+            List<Map<String, Object>> rows;
+            do {
+                rows = jdbcTemplate.queryForList(
+                    "SELECT seq, event_id, partition_key, payload::text AS payload FROM webhook_events "
+                        + "WHERE source = ? AND seq > ? AND received_at >= ? AND (?::text IS NULL OR status = ?) "
+                        + "ORDER BY seq LIMIT ?",
+                    source, afterSeq, Timestamp.from(since), status, status, batchSize);
+                for (Map<String, Object> row : rows) {
+                    afterSeq = ((Number) row.get("seq")).longValue();
+                    E event = decode.apply((String) row.get("event_id"), (String) row.get("payload"));
+                    if (event != null) {
+                        CompletableFuture<Boolean> done = new CompletableFuture<>();
+                        capacity.acquireUninterruptibly();
+                        queue(event, (String) row.get("partition_key"), done);
+                        queued.add(done);
+                    }
+                }
+                events += rows.size();
+            } while (rows.size() == batchSize);
+            log.info("Replaying {} stored {} events since {}", events, source, since);
+
+            int read = events;
+            return CompletableFuture.allOf(queued.toArray(CompletableFuture[]::new)).thenApply(ignored ->
+                new Replay(read, queued.size(), (int) queued.stream().filter(CompletableFuture::join).count()));
+        }, replayExecutor).thenCompose(Function.identity());
+    }
+
+    public void shutdown() throws InterruptedException {
+        accepting = false;
+        running = false;
+        replayExecutor.shutdownNow();
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("accepting", accepting);
+        stats.put("queued", lanes.stream().mapToInt(Queue::size).sum());
+        stats.put("accepted", accepted.sum());
+        stats.put("duplicates", duplicates.sum());
+        stats.put("recentHits", recentHits.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("retried", retried.sum());
+        stats.put("applied", applied.sum());
+        stats.put("unmatched", unmatched.sum());
+        stats.put("failed", failed.sum());
+        stats.put("batches", batches.sum());
+        return stats;
+    }
+
+    private boolean journal(String eventId, String partitionKey, String type, String payload, String status) {
+        return jdbcTemplate.update(
+            "INSERT INTO webhook_events (source, event_id, partition_key, event_type, payload, status, processed_at) "
+                + "VALUES (?, ?, ?, ?, ?::jsonb, ?, CASE WHEN ? = 'PENDING' THEN NULL ELSE NOW() END) "
+                + "ON CONFLICT (source, event_id) DO NOTHING",
+            source, eventId, partitionKey, type, payload, status, status) > 0;
+    }
+
+    // a journaled event that has not settled and is not queued here is worth applying again
+    private boolean unsettled(String eventId) {
+        if (inFlight.contains(eventId)) {
+            return false;
+        }
+        List<String> status = jdbcTemplate.queryForList(
+            "SELECT status FROM webhook_events WHERE source = ? AND event_id = ?", String.class, source, eventId);
+        boolean unsettled = !status.isEmpty() && ("FAILED".equals(status.get(0)) || "PENDING".equals(status.get(0)));
+        if (unsettled) {
+            retried.increment();
+        }
+        return unsettled;
+    }
+
+    private boolean seen(String eventId) {
+        boolean seen;
+        synchronized (recent) {
+            seen = recent.get(eventId) != null;
+        }
+        if (seen) {
+            recentHits.increment();
+            duplicates.increment();
+        }
+        return seen;
+    }
+
+    // only settled events are remembered, once their status is committed
+    private void remember(List<String> eventIds) {
+        synchronized (recent) {
+            eventIds.forEach(eventId -> recent.put(eventId, Boolean.TRUE));
+        }
+    }
+
+    private void queue(E event, String partitionKey, CompletableFuture<Boolean> done) {
+        inFlight.add(event.eventId());
+        lanes.get(Math.floorMod(partitionKey.hashCode(), lanes.size())).add(new Queued<>(event, done));
+    }
+
+    private void drain(BlockingQueue<Queued<E>> lane) {
+        List<Queued<E>> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                batch.add(lane.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            lane.drainTo(batch, batchSize - 1);
+            Set<String> matched = Set.of();
+            try {
+                matched = applyBatch(batch.stream().map(Queued::event).toList());
+            } catch (Exception e) {
+                log.error("{} batch of {} events failed, left for retry", source, batch.size(), e);
+            } finally {
+                for (Queued<E> queued : batch) {
+                    inFlight.remove(queued.event().eventId());
+                    if (queued.done() != null) {
+                        queued.done().complete(matched.contains(queued.event().eventId()));
+                    }
+                }
+                capacity.release(batch.size());
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Applies a batch and returns the ids of its events that had something to apply to.
+     */
+    private Set<String> applyBatch(List<E> batch) {
+        Map<K, List<E>> groups = group.apply(batch);
+        Set<String> grouped = new HashSet<>();
+        groups.values().forEach(events -> events.forEach(event -> grouped.add(event.eventId())));
+        List<E> orphans = batch.stream().filter(event -> !grouped.contains(event.eventId())).toList();
+
+        if (!orphans.isEmpty()) {
+            unmatched.add(orphans.size());
+            mark(orphans, "SKIPPED", "Nothing to apply this event to");
+            remember(orphans.stream().map(Event::eventId).toList());
+        }
+        if (groups.isEmpty()) {
+            return grouped;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(tx -> {
+                apply.accept(groups);
+                mark(groups.values().stream().flatMap(List::stream).toList(), "APPLIED", null);
+            });
+            remember(List.copyOf(grouped));
+            applied.add(grouped.size());
+            batches.increment();
+        } catch (Exception e) {
+            log.warn("{} batch of {} events failed, applying one by one", source, batch.size(), e);
+            groups.forEach((key, events) -> events.forEach(event -> applyOne(key, event)));
+        }
+        return grouped;
+    }
+
+    private void applyOne(K key, E event) {
+        try {
+            transactionTemplate.executeWithoutResult(tx -> {
+                apply.accept(Map.of(key, List.of(event)));
+                mark(List.of(event), "APPLIED", null);
+            });
+            remember(List.of(event.eventId()));
+            applied.increment();
+        } catch (Exception e) {
+            failed.increment();
+            String error = String.valueOf(NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            log.error("{} event {} for {} failed: {}", source, event.eventId(), key, error);
+            mark(List.of(event), "FAILED", error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+        }
+    }
+
+    private void mark(List<E> events, String status, String error) {
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                "UPDATE webhook_events SET status = ?, attempts = attempts + 1, last_error = ?, processed_at = NOW() "
+                    + "WHERE source = ? AND event_id = ANY(?)");
+            statement.setString(1, status);
+            statement.setString(2, error);
+            statement.setString(3, source);
+            statement.setArray(4, connection.createArrayOf("text",
+                events.stream().map(Event::eventId).toArray()));
+            return statement;
+        });
+    }
+}
@@ -0,0 +1,213 @@
+package com.sutreya.ecommerce.controller;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The cart view must hydrate every line with one product lookup, however many lines the cart
+ * has. Statements are recorded per thread against a throwaway PostgreSQL with the schema from
+ * {@code database/}, so a lookup per line fails the build.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.hibernate.ddl-auto=none",
+    "supabase.jwt-secret=" + CartControllerTest.JWT_SECRET
+})
+@AutoConfigureMockMvc
+class CartControllerTest {
+
+    static final String JWT_SECRET = "test-secret-test-secret-test-secret-0123456789";
+
+    private static final List<String> SCHEMA_FILES = List.of(
+        "schema.sql", "cart_schema.sql", "bulk_jobs_schema.sql", "webhook_events_schema.sql",
+        "product_view_stats_schema.sql", "seller_stock_settings_schema.sql", "order_payments_schema.sql");
+    private static final int CART_LINES = 5;
+
+    private static final EmbeddedPostgres postgres = startPostgres();
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+    private static volatile Thread recordedThread;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UUID userId;
+
+    @TestConfiguration
+    static class StatementRecording {
+
+        @Bean
+        static BeanPostProcessor recordingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? new RecordingDataSource(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void fillCart() {
+        userId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO auth.users (id) VALUES (?)", userId);
+        jdbcTemplate.update("INSERT INTO profiles (id, email) VALUES (?, ?)", userId, userId + "@example.com");
+        jdbcTemplate.update("""
+            INSERT INTO products (seller_id, name, slug, price, inventory_quantity)
+            SELECT ?, 'Cart product ' || i, 'cart-product-' || ? || '-' || i, 10 + i, 20
+            FROM generate_series(1, ?) AS i
+            """, userId, userId.toString(), CART_LINES);
+        jdbcTemplate.update("""
+            INSERT INTO cart_items (user_id, product_id, quantity)
+            SELECT ?, id, 1 FROM products WHERE slug LIKE 'cart-product-' || ? || '-%'
+            """, userId, userId.toString());
+    }
+
+    @Test
+    void cartViewLooksUpAllProductsInOneQuery() throws Exception {
+        statements.clear();
+        recordedThread = Thread.currentThread();
+
+        mockMvc.perform(get("/api/cart/{userId}/view", userId)
+                .header("Authorization", "Bearer " + accessToken(userId)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.items.length()").value(CART_LINES));
+
+        List<String> productQueries = statements.stream()
+            .filter(sql -> sql.toLowerCase(Locale.ROOT).matches("(?s).*\\bfrom\\s+products\\b.*"))
+            .toList();
+        assertThat(productQueries).hasSize(1);
+    }
+
+    private static String accessToken(UUID subject) {
+        return Jwts.builder()
+            .setSubject(subject.toString())
+            .setAudience("authenticated")
+            .claim("role", "authenticated")
+            .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+            .signWith(Keys.hmacShaKeyFor(JWT_SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+            .compact();
+    }
+
+    private static EmbeddedPostgres startPostgres() {
+        try {
+            EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+            // Supabase's auth schema, with just enough for the foreign keys and policies to load
+            jdbcTemplate.execute("CREATE SCHEMA auth; "
+                + "CREATE TABLE auth.users (id UUID PRIMARY KEY); "
+                + "CREATE FUNCTION auth.uid() RETURNS UUID LANGUAGE sql AS 'SELECT NULL::uuid'");
+            for (String file : SCHEMA_FILES) {
+                jdbcTemplate.execute(Files.readString(Path.of("..", "database", file)));
+            }
+            return postgres;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start PostgreSQL", e);
+        }
+    }
+
+    /**
+     * Records the SQL of every statement prepared or executed on the test's own thread, so
+     * scheduled jobs running beside the request are not counted. Plain statements are recorded
+     * when their SQL is executed or batched, since createStatement does not carry any.
+     */
+    private static final class RecordingDataSource extends DelegatingDataSource {
+
+        RecordingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return record(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return record(super.getConnection(username, password));
+        }
+
+        private Connection record(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ((method.getName().equals("prepareStatement") || method.getName().equals("prepareCall"))
+                            && Thread.currentThread() == recordedThread) {
+                        statements.add((String) args[0]);
+                    }
+                    Object result = invoke(connection, method, args);
+                    return method.getName().equals("createStatement") ? record((Statement) result) : result;
+                });
+        }
+
+        private Statement record(Statement statement) {
+            return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{Statement.class},
+                (proxy, method, args) -> {
+                    if ((method.getName().startsWith("execute") || method.getName().equals("addBatch"))
+                            && args != null && args[0] instanceof String sql
+                            && Thread.currentThread() == recordedThread) {
+                        statements.add(sql);
+                    }
+                    return invoke(statement, method, args);
+                });
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.sutreya.ecommerce.service;
+
+import com.sutreya.ecommerce.event.InventoryDeltasRefusedEvent;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reservations taken, committed and released from many threads while the engine writes behind
+ * to a throwaway PostgreSQL with the schema from {@code database/}. However the threads
+ * interleave, every unit sold comes off the stored quantity exactly once and neither count goes
+ * below zero.
+ */
+class InventoryReservationEngineTest {
+
+    private static final int INITIAL_STOCK = 500;
+    private static final int THREADS = 8;
+    private static final int ROUNDS_PER_THREAD = 400;
+    private static final Duration TTL = Duration.ofMinutes(1);
+
+    private static EmbeddedPostgres postgres;
+    private static JdbcTemplate jdbcTemplate;
+    private static TransactionTemplate transactionTemplate;
+
+    private final List<Object> events = new CopyOnWriteArrayList<>();
+    private InventoryReservationEngine engine;
+    private UUID sellerId;
+
+    @BeforeAll
+    static void startPostgres() throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+        jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(postgres.getPostgresDatabase()));
+        // Supabase's auth schema, with just enough for the foreign keys and policies to load
+        jdbcTemplate.execute("CREATE SCHEMA auth; "
+            + "CREATE TABLE auth.users (id UUID PRIMARY KEY); "
+            + "CREATE FUNCTION auth.uid() RETURNS UUID LANGUAGE sql AS 'SELECT NULL::uuid'");
+        jdbcTemplate.execute(Files.readString(Path.of("..", "database", "schema.sql")));
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void createEngine() {
+        sellerId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO auth.users (id) VALUES (?)", sellerId);
+        jdbcTemplate.update("INSERT INTO profiles (id, email) VALUES (?, ?)", sellerId, sellerId + "@example.com");
+        engine = new InventoryReservationEngine(jdbcTemplate, transactionTemplate, events::add);
+    }
+
+    @Test
+    void concurrentReservationsSellEachUnitOnce() throws Exception {
+        UUID productId = createProduct();
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger lowestAvailable = new AtomicInteger(INITIAL_STOCK);
+        AtomicInteger lowestStored = new AtomicInteger(INITIAL_STOCK);
+        AtomicBoolean selling = new AtomicBoolean(true);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS + 1);
+        try {
+            Future<?> flusher = pool.submit(() -> {
+                while (selling.get()) {
+                    engine.flush();
+                    lowestStored.accumulateAndGet(stored(productId), Math::min);
+                }
+            });
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                workers.add(pool.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < ROUNDS_PER_THREAD; i++) {
+                        int quantity = 1 + random.nextInt(3);
+                        Optional<InventoryReservationEngine.Reservation> reservation =
+                            engine.reserve(productId, quantity, TTL);
+                        if (reservation.isPresent()) {
+                            if (random.nextBoolean()) {
+                                engine.commit(reservation.get().id());
+                                sold.addAndGet(quantity);
+                            } else {
+                                engine.release(reservation.get().id());
+                            }
+                        }
+                        lowestAvailable.accumulateAndGet(engine.available(productId), Math::min);
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+            selling.set(false);
+            flusher.get();
+        } finally {
+            pool.shutdownNow();
+        }
+        engine.flush();
+
+        assertThat(sold.get()).isPositive();
+        assertThat(stored(productId) + sold.get()).isEqualTo(INITIAL_STOCK);
+        assertThat(engine.available(productId)).isEqualTo(stored(productId));
+        assertThat(lowestAvailable.get()).isNotNegative();
+        assertThat(lowestStored.get()).isNotNegative();
+        assertThat(events).noneMatch(InventoryDeltasRefusedEvent.class::isInstance);
+    }
+
+    @Test
+    void failedFlushWritesNothingAndIsRetried() {
+        UUID first = createProduct();
+        UUID second = createProduct();
+        sell(first, 3);
+        sell(second, 4);
+
+        // the second row of the batch fails, after the first has been written
+        jdbcTemplate.execute("CREATE SEQUENCE flush_rows; "
+            + "CREATE FUNCTION fail_second_row() RETURNS trigger LANGUAGE plpgsql AS "
+            + "$$ BEGIN IF nextval('flush_rows') = 2 THEN RAISE EXCEPTION 'flush interrupted'; END IF; "
+            + "RETURN NEW; END $$; "
+            + "CREATE TRIGGER fail_second_row BEFORE UPDATE ON products FOR EACH ROW EXECUTE FUNCTION fail_second_row()");
+        try {
+            engine.flush();
+            assertThat(stored(first)).isEqualTo(INITIAL_STOCK);
+            assertThat(stored(second)).isEqualTo(INITIAL_STOCK);
+        } finally {
+            jdbcTemplate.execute("DROP TRIGGER fail_second_row ON products; "
+                + "DROP FUNCTION fail_second_row(); DROP SEQUENCE flush_rows");
+        }
+
+        engine.flush();
+        assertThat(stored(first)).isEqualTo(INITIAL_STOCK - 3);
+        assertThat(stored(second)).isEqualTo(INITIAL_STOCK - 4);
+    }
+
+    @Test
+    void refusedDeltaIsPublished() {
+        UUID productId = createProduct();
+        engine.available(productId);
+        jdbcTemplate.update("UPDATE products SET inventory_quantity = 2 WHERE id = ?", productId);
+        sell(productId, 5);
+
+        engine.flush();
+
+        assertThat(stored(productId)).isEqualTo(2);
+        assertThat(engine.available(productId)).isEqualTo(2);
+        assertThat(events)
+            .filteredOn(InventoryDeltasRefusedEvent.class::isInstance)
+            .extracting(event -> ((InventoryDeltasRefusedEvent) event).getDeltas())
+            .containsExactly(Map.of(productId, -5));
+    }
+
+    private void sell(UUID productId, int quantity) {
+        engine.commit(engine.reserve(productId, quantity, TTL).orElseThrow().id());
+    }
+
+    private UUID createProduct() {
+        UUID productId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO products (id, seller_id, name, slug, price, inventory_quantity) "
+            + "VALUES (?, ?, 'Stock product', ?, 10, ?)", productId, sellerId, "stock-" + productId, INITIAL_STOCK);
+        return productId;
+    }
+
+    private static int stored(UUID productId) {
+        return jdbcTemplate.queryForObject("SELECT inventory_quantity FROM products WHERE id = ?", Integer.class,
+            productId);
+    }
+}
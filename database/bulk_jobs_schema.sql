@@ -0,0 +1,13 @@
+-- Bulk Product Job Checkpoints
+-- A chunk row is written in the same transaction as the chunk's updates, so a
+-- re-submitted job skips the chunks that already committed.
+
+CREATE TABLE IF NOT EXISTS public.bulk_job_chunks (
+    job_id UUID NOT NULL,
+    chunk_index INTEGER NOT NULL,
+    job_type TEXT NOT NULL,
+    succeeded INTEGER NOT NULL DEFAULT 0,
+    failed INTEGER NOT NULL DEFAULT 0,
+    completed_at TIMESTAMP WITH TIME ZONE DEFAULT NOW(),
+    PRIMARY KEY (job_id, chunk_index)
+);
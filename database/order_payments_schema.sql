@@ -0,0 +1,6 @@
+-- Order Payments
+-- Stripe events name the PaymentIntent; orders keep its id in metadata.paymentIntentId.
+-- Webhook deliveries are journaled in webhook_events with source 'stripe'.
+
+CREATE INDEX IF NOT EXISTS idx_orders_payment_intent
+    ON public.orders ((metadata->>'paymentIntentId'));
@@ -0,0 +1,9 @@
+-- Product View Counters
+-- Hourly view counts per product, written as batched upserts from in-memory counters.
+
+CREATE TABLE IF NOT EXISTS public.product_view_stats (
+    product_id UUID REFERENCES public.products(id) ON DELETE CASCADE NOT NULL,
+    bucket_start TIMESTAMP WITH TIME ZONE NOT NULL,
+    views BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (product_id, bucket_start)
+);
@@ -0,0 +1,8 @@
+-- Seller Stock Settings
+-- Per-seller low-stock threshold; sellers without a row use the application default.
+
+CREATE TABLE IF NOT EXISTS public.seller_stock_settings (
+    seller_id UUID REFERENCES public.profiles(id) ON DELETE CASCADE PRIMARY KEY,
+    low_stock_threshold INTEGER NOT NULL CHECK (low_stock_threshold >= 0),
+    updated_at TIMESTAMP WITH TIME ZONE DEFAULT NOW()
+);
@@ -0,0 +1,25 @@
+-- Webhook Event Journal
+-- Incoming webhook payloads are appended here before they are acknowledged.
+-- (source, event_id) dedupes provider retries; PENDING rows are replayed on startup, and
+-- FAILED or stalled PENDING rows are retried with backoff.
+
+CREATE TABLE IF NOT EXISTS public.webhook_events (
+    source TEXT NOT NULL,
+    event_id TEXT NOT NULL,
+    partition_key TEXT NOT NULL,
+    event_type TEXT NOT NULL,
+    payload JSONB NOT NULL,
+    status TEXT NOT NULL DEFAULT 'PENDING',
+    attempts INTEGER NOT NULL DEFAULT 0,
+    last_error TEXT,
+    seq BIGSERIAL,
+    received_at TIMESTAMP WITH TIME ZONE DEFAULT NOW(),
+    processed_at TIMESTAMP WITH TIME ZONE,
+    PRIMARY KEY (source, event_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_webhook_events_pending
+    ON public.webhook_events(source, seq) WHERE status = 'PENDING';
+
+CREATE INDEX IF NOT EXISTS idx_webhook_events_failed
+    ON public.webhook_events(source, seq) WHERE status = 'FAILED';